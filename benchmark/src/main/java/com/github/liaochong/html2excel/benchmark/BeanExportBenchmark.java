@@ -0,0 +1,152 @@
+package com.github.liaochong.html2excel.benchmark;
+
+import com.github.liaochong.html2excel.core.DefaultExcelBuilder;
+import com.github.liaochong.html2excel.core.ExcelEngine;
+import com.github.liaochong.html2excel.core.annotation.ExcelColumn;
+import com.github.liaochong.html2excel.core.parser.Table;
+import com.github.liaochong.html2excel.core.parser.Td;
+import com.github.liaochong.html2excel.core.parser.Tr;
+import com.github.liaochong.html2excel.utils.TdUtil;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * bean导出：直接写入sheet与经过Table/Tr/Td中间模型的对比
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BeanExportBenchmark {
+
+    private static final List<String> TITLES = Arrays.asList("名称", "数量", "价格", "日期");
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    @Param({"1000", "10000"})
+    private int rows;
+
+    private List<Product> products;
+
+    private ExcelEngine engine;
+
+    @Setup
+    public void setup() {
+        products = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            products.add(new Product("product" + i, i, i * 1.5, LocalDate.of(2018, 1, 1).plusDays(i % 365)));
+        }
+        engine = ExcelEngine.builder().build();
+    }
+
+    @Benchmark
+    public Workbook directWrite() {
+        return DefaultExcelBuilder.getInstance().engine(engine).titles(TITLES).build(products);
+    }
+
+    @Benchmark
+    public Workbook tableModel() {
+        return engine.build(Collections.singletonList(createTable(products)));
+    }
+
+    /**
+     * 按直接写入之前的方式构建中间模型：每个单元格一个Td，内容转为字符串，记录样式以及宽度
+     */
+    private static Table createTable(List<Product> products) {
+        Map<String, String> commonStyle = new HashMap<>();
+        commonStyle.put("border-bottom-style", "thin");
+        commonStyle.put("border-left-style", "thin");
+        commonStyle.put("border-right-style", "thin");
+        Map<String, String> thStyle = new HashMap<>(commonStyle);
+        thStyle.put("font-weight", "bold");
+        thStyle.put("font-size", "14");
+        thStyle.put("text-align", "center");
+        thStyle.put("vertical-align", "center");
+        Map<String, String> oddTdStyle = new HashMap<>(commonStyle);
+        oddTdStyle.put("background-color", "#f6f8fa");
+
+        Table table = new Table();
+        table.setLastColumnNum(TITLES.size());
+        List<Tr> trList = new ArrayList<>(products.size() + 1);
+        trList.add(createTr(0, new ArrayList<>(TITLES), thStyle, true));
+        for (int i = 0, size = products.size(); i < size; i++) {
+            Product product = products.get(i);
+            int trIndex = i + 1;
+            List<Object> values = Arrays.asList(product.name, product.quantity, product.price, DATE_FORMATTER.format(product.date));
+            trList.add(createTr(trIndex, values, trIndex % 2 == 0 ? commonStyle : oddTdStyle, false));
+        }
+        table.setTrList(trList);
+
+        Map<Integer, Integer> colMaxWidthMap = new HashMap<>();
+        trList.forEach(tr -> tr.getColWidthMap().forEach((k, v) -> colMaxWidthMap.merge(k, v, Math::max)));
+        table.setColMaxWidthMap(colMaxWidthMap);
+        return table;
+    }
+
+    private static Tr createTr(int trIndex, List<?> values, Map<String, String> style, boolean th) {
+        Tr tr = new Tr(trIndex);
+        tr.setColWidthMap(new HashMap<>(values.size()));
+        List<Td> tdList = new ArrayList<>(values.size());
+        for (int col = 0; col < values.size(); col++) {
+            Td td = new Td();
+            td.setTh(th);
+            td.setRow(trIndex);
+            td.setRowBound(trIndex);
+            td.setCol(col);
+            td.setColBound(col);
+            td.setContent(Objects.isNull(values.get(col)) ? null : String.valueOf(values.get(col)));
+            td.setStyle(style);
+            tr.getColWidthMap().put(col, TdUtil.getStringWidth(td.getContent()));
+            tdList.add(td);
+        }
+        tr.setTdList(tdList);
+        return tr;
+    }
+
+    public static class Product {
+
+        @ExcelColumn(order = 1)
+        private final String name;
+
+        @ExcelColumn(order = 2)
+        private final int quantity;
+
+        @ExcelColumn(order = 3)
+        private final double price;
+
+        @ExcelColumn(order = 4, dateFormatPattern = "yyyy-MM-dd")
+        private final LocalDate date;
+
+        Product(String name, int quantity, double price, LocalDate date) {
+            this.name = name;
+            this.quantity = quantity;
+            this.price = price;
+            this.date = date;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.github.liaochong.html2excel.benchmark;
+
+import com.github.liaochong.html2excel.core.BeetlExcelBuilder;
+import com.github.liaochong.html2excel.core.DefaultExcelBuilder;
+import com.github.liaochong.html2excel.core.ExcelBuilder;
+import com.github.liaochong.html2excel.core.FreemarkerExcelBuilder;
+import com.github.liaochong.html2excel.core.GroovyExcelBuilder;
+import com.github.liaochong.html2excel.core.annotation.ExcelColumn;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各构建者的端到端导出：bean直接写入以及各模板引擎渲染、解析、写入
+ * <p>
+ * build为构建Workbook（模板经过Table模型），buildAndWrite为构建并写出（模板经过流式解析）；
+ * default构建者的数据为每行10列的bean，不含跨度与样式
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BuilderBenchmark {
+
+    private static final int RECORD_COLUMNS = 10;
+
+    @Param({"default", "freemarker", "beetl", "groovy"})
+    private String builder;
+
+    @Param({"10000", "100000", "1000000"})
+    private int cells;
+
+    @Param({"0.1"})
+    private double spanDensity;
+
+    @Param({"0.5"})
+    private double styleDensity;
+
+    private List<Record> records;
+
+    private Map<String, Object> renderData;
+
+    @Setup
+    public void setup() {
+        if ("default".equals(builder)) {
+            int rows = cells / RECORD_COLUMNS;
+            records = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                records.add(new Record(i));
+            }
+            return;
+        }
+        SyntheticTable table = SyntheticTable.generate(cells, SyntheticTable.DEFAULT_COLUMNS, spanDensity, styleDensity, 42);
+        renderData = Collections.singletonMap("rows", table.getRows());
+        // 模板编译不计入
+        this.templateBuilder();
+    }
+
+    @Benchmark
+    public Workbook build() throws IOException {
+        Workbook workbook = "default".equals(builder)
+                ? DefaultExcelBuilder.getInstance().build(records)
+                : this.templateBuilder().build(renderData);
+        WorkbookBenchmark.close(workbook);
+        return workbook;
+    }
+
+    @Benchmark
+    public long buildAndWrite() throws IOException {
+        WorkbookBenchmark.CountingOutputStream out = new WorkbookBenchmark.CountingOutputStream();
+        if ("default".equals(builder)) {
+            Workbook workbook = DefaultExcelBuilder.getInstance().build(records);
+            try {
+                workbook.write(out);
+            } finally {
+                WorkbookBenchmark.close(workbook);
+            }
+        } else {
+            this.templateBuilder().build(renderData, out);
+        }
+        return out.count;
+    }
+
+    private ExcelBuilder templateBuilder() {
+        switch (builder) {
+            case "freemarker":
+                return new FreemarkerExcelBuilder().template("/templates/cells.ftl");
+            case "beetl":
+                return new BeetlExcelBuilder().template("/templates/cells.btl");
+            case "groovy":
+                return new GroovyExcelBuilder().template("/templates/cells.tpl");
+            default:
+                throw new IllegalArgumentException("Unknown builder " + builder);
+        }
+    }
+
+    public static class Record {
+
+        @ExcelColumn(order = 1)
+        private final int id;
+
+        @ExcelColumn(order = 2)
+        private final String name;
+
+        @ExcelColumn(order = 3)
+        private final String category;
+
+        @ExcelColumn(order = 4)
+        private final int quantity;
+
+        @ExcelColumn(order = 5)
+        private final double price;
+
+        @ExcelColumn(order = 6)
+        private final double amount;
+
+        @ExcelColumn(order = 7, dateFormatPattern = "yyyy-MM-dd")
+        private final LocalDate date;
+
+        @ExcelColumn(order = 8)
+        private final String region;
+
+        @ExcelColumn(order = 9)
+        private final boolean active;
+
+        @ExcelColumn(order = 10)
+        private final String remark;
+
+        Record(int i) {
+            this.id = i;
+            this.name = "product" + i;
+            this.category = "category" + (i % 16);
+            this.quantity = i % 1000;
+            this.price = i * 1.5;
+            this.amount = quantity * price;
+            this.date = LocalDate.of(2018, 1, 1).plusDays(i % 365);
+            this.region = "区域" + (i % 8);
+            this.active = (i & 1) == 0;
+            this.remark = "备注" + i;
+        }
+    }
+}
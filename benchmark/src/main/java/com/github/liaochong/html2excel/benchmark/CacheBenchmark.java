@@ -0,0 +1,88 @@
+package com.github.liaochong.html2excel.benchmark;
+
+import com.github.liaochong.html2excel.core.cache.Cache;
+import com.github.liaochong.html2excel.core.cache.ConcurrentCache;
+import com.github.liaochong.html2excel.core.cache.DefaultCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 样式、跨度缓存在16线程下的吞吐对比
+ * <p>
+ * 键按近似Zipf分布访问：少量键占大部分访问，与模板中重复出现的style、rowspan取值相当；
+ * 键空间大于容量时同时覆盖淘汰开销
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(16)
+@Fork(1)
+public class CacheBenchmark {
+
+    private static final int CAPACITY = 500;
+
+    private static final int SAMPLES = 1 << 16;
+
+    @Param({"default", "concurrent"})
+    private String implementation;
+
+    @Param({"200", "5000"})
+    private int keySpace;
+
+    private Cache<String, String> cache;
+
+    private String[] keys;
+
+    @Setup
+    public void setup() {
+        cache = "default".equals(implementation) ? new DefaultCache<>(CAPACITY) : new ConcurrentCache<>(CAPACITY);
+        Random random = new Random(42);
+        keys = new String[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            // 平方使得较小的下标被更频繁地访问
+            double r = random.nextDouble();
+            keys[i] = "border-style:thin;width:" + (int) (r * r * keySpace);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int index = (int) (Math.random() * SAMPLES);
+
+        String next(String[] keys) {
+            index = (index + 1) & (SAMPLES - 1);
+            return keys[index];
+        }
+    }
+
+    @Benchmark
+    public String getOrCache(Cursor cursor) {
+        String key = cursor.next(keys);
+        String value = cache.get(key);
+        if (value == null) {
+            cache.cache(key, key);
+            return key;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.liaochong.html2excel.benchmark;
+
+import com.github.liaochong.html2excel.core.parser.HtmlTableParser;
+import com.github.liaochong.html2excel.core.parser.StreamingTableParser;
+import com.github.liaochong.html2excel.core.parser.Table;
+import com.github.liaochong.html2excel.core.parser.Tr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 解析阶段：jsoup DOM解析与流式解析
+ * <p>
+ * 跨度单元格的位置调整（HtmlTableParser#adjustTdPosition、流式解析的列占用）包含在解析中，
+ * 对比spanDensity为0与非0的结果即为其开销
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ParseBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int cells;
+
+    @Param({"0", "0.2"})
+    private double spanDensity;
+
+    @Param({"0.5"})
+    private double styleDensity;
+
+    private String html;
+
+    @Setup
+    public void setup() {
+        html = SyntheticTable.generate(cells, SyntheticTable.DEFAULT_COLUMNS, spanDensity, styleDensity, 42).toHtml();
+    }
+
+    @Benchmark
+    public List<Table> htmlTableParser() {
+        return HtmlTableParser.of(html).getAllTable();
+    }
+
+    @Benchmark
+    public int streamingParser() throws IOException {
+        int[] count = new int[1];
+        StreamingTableParser.parse(new StringReader(html), new StreamingTableParser.Handler() {
+            @Override
+            public void startTable(Table table) {
+            }
+
+            @Override
+            public void row(Tr tr) {
+                count[0] += tr.getTdList().size();
+            }
+
+            @Override
+            public void endTable(Table table) {
+            }
+        });
+        return count[0];
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.liaochong.html2excel.benchmark;
+
+import com.github.liaochong.html2excel.utils.StyleUtil;
+import com.github.liaochong.html2excel.utils.TdUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 样式解析、样式合并与内容宽度计算，每次调用处理合成表格中的全部单元格
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StyleBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int cells;
+
+    @Param({"0.5"})
+    private double styleDensity;
+
+    private String[] styles;
+
+    private String[] contents;
+
+    private List<Map<String, String>> parsedStyles;
+
+    private Map<String, String> rowStyle;
+
+    @Setup
+    public void setup() {
+        SyntheticTable table = SyntheticTable.generate(cells, SyntheticTable.DEFAULT_COLUMNS, 0, styleDensity, 42);
+        styles = new String[table.getCellCount()];
+        contents = new String[table.getCellCount()];
+        int i = 0;
+        for (List<SyntheticTable.Cell> row : table.getRows()) {
+            for (SyntheticTable.Cell cell : row) {
+                styles[i] = cell.getStyle() == null ? "" : cell.getStyle();
+                contents[i++] = cell.getContent();
+            }
+        }
+        parsedStyles = new ArrayList<>(styles.length);
+        for (String style : styles) {
+            parsedStyles.add(StyleUtil.parseStyle(style));
+        }
+        rowStyle = new HashMap<>();
+        rowStyle.put("font-size", "14");
+        rowStyle.put("vertical-align", "center");
+    }
+
+    @Benchmark
+    public void parseStyle(Blackhole blackhole) {
+        for (String style : styles) {
+            blackhole.consume(StyleUtil.parseStyle(style));
+        }
+    }
+
+    @Benchmark
+    public void mixStyle(Blackhole blackhole) {
+        for (Map<String, String> style : parsedStyles) {
+            blackhole.consume(StyleUtil.mixStyle(rowStyle, style));
+        }
+    }
+
+    @Benchmark
+    public int stringWidth() {
+        int width = 0;
+        for (String content : contents) {
+            width += TdUtil.getStringWidth(content);
+        }
+        return width;
+    }
+}
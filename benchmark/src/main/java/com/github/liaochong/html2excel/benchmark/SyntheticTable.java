@@ -0,0 +1,174 @@
+package com.github.liaochong.html2excel.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 合成表格：按单元格数量、列数、跨度密度与样式密度生成，同一参数与种子生成的表格相同
+ * <p>
+ * 跨度单元格在colspan=2与rowspan=2之间随机选择；样式从固定的样式集合中选取，
+ * 与模板中样式字符串大量重复的情况相当
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public final class SyntheticTable {
+
+    /**
+     * 默认列数，1M单元格时为50000行，不超过xls的行数限制
+     */
+    public static final int DEFAULT_COLUMNS = 20;
+
+    private static final String[] STYLES;
+
+    static {
+        String[] backgrounds = {"#ffffff", "#f6f8fa", "#fff5b1", "#dbedff"};
+        String[] aligns = {"left", "center", "right", "justify"};
+        String[] weights = {"normal", "bold"};
+        String[] borders = {"thin", "medium"};
+        List<String> styles = new ArrayList<>();
+        for (String background : backgrounds) {
+            for (String align : aligns) {
+                for (String weight : weights) {
+                    for (String border : borders) {
+                        styles.add("background-color:" + background + ";text-align:" + align
+                                + ";font-weight:" + weight + ";border-bottom-style:" + border + ";font-size:12");
+                    }
+                }
+            }
+        }
+        STYLES = styles.toArray(new String[0]);
+    }
+
+    private final List<List<Cell>> rows;
+
+    private final int cellCount;
+
+    private SyntheticTable(List<List<Cell>> rows, int cellCount) {
+        this.rows = rows;
+        this.cellCount = cellCount;
+    }
+
+    /**
+     * 生成表格
+     *
+     * @param cells        单元格数量（按网格位置计，跨度单元格占用多个位置）
+     * @param columns      列数
+     * @param spanDensity  跨度单元格比例，0-1
+     * @param styleDensity 带行内样式的单元格比例，0-1
+     * @param seed         随机种子
+     * @return 表格
+     */
+    public static SyntheticTable generate(int cells, int columns, double spanDensity, double styleDensity, long seed) {
+        Random random = new Random(seed);
+        int rowCount = (cells + columns - 1) / columns;
+        List<List<Cell>> rows = new ArrayList<>(rowCount);
+        boolean[] covered = new boolean[columns];
+        boolean[] coveredNext = new boolean[columns];
+        int cellCount = 0;
+        for (int r = 0; r < rowCount; r++) {
+            List<Cell> row = new ArrayList<>(columns);
+            for (int c = 0; c < columns; c++) {
+                if (covered[c]) {
+                    continue;
+                }
+                int colspan = 1;
+                int rowspan = 1;
+                if (random.nextDouble() < spanDensity) {
+                    if (random.nextBoolean() && c + 1 < columns && !covered[c + 1]) {
+                        colspan = 2;
+                    } else if (r + 1 < rowCount) {
+                        rowspan = 2;
+                        coveredNext[c] = true;
+                    }
+                }
+                String style = random.nextDouble() < styleDensity ? STYLES[random.nextInt(STYLES.length)] : null;
+                String content = (c & 1) == 0 ? Integer.toString(random.nextInt(1_000_000)) : "单元格" + r + "_" + c;
+                row.add(new Cell(content, style, colspan, rowspan));
+                cellCount++;
+                c += colspan - 1;
+            }
+            rows.add(row);
+            boolean[] swap = covered;
+            covered = coveredNext;
+            coveredNext = swap;
+            Arrays.fill(coveredNext, false);
+        }
+        return new SyntheticTable(Collections.unmodifiableList(rows), cellCount);
+    }
+
+    public List<List<Cell>> getRows() {
+        return rows;
+    }
+
+    /**
+     * 实际生成的td数量
+     *
+     * @return 数量
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    public String toHtml() {
+        StringBuilder html = new StringBuilder(cellCount * 48);
+        html.append("<html><body><table>\n");
+        for (List<Cell> row : rows) {
+            html.append("<tr>");
+            for (Cell cell : row) {
+                html.append("<td");
+                if (cell.colspan > 1) {
+                    html.append(" colspan=\"").append(cell.colspan).append('"');
+                }
+                if (cell.rowspan > 1) {
+                    html.append(" rowspan=\"").append(cell.rowspan).append('"');
+                }
+                if (cell.style != null) {
+                    html.append(" style=\"").append(cell.style).append('"');
+                }
+                html.append('>').append(cell.content).append("</td>");
+            }
+            html.append("</tr>\n");
+        }
+        html.append("</table></body></html>");
+        return html.toString();
+    }
+
+    public static final class Cell {
+
+        private final String content;
+
+        private final String style;
+
+        private final int colspan;
+
+        private final int rowspan;
+
+        Cell(String content, String style, int colspan, int rowspan) {
+            this.content = content;
+            this.style = style;
+            this.colspan = colspan;
+            this.rowspan = rowspan;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public String getStyle() {
+            return style;
+        }
+
+        public int getColspan() {
+            return colspan;
+        }
+
+        public int getRowspan() {
+            return rowspan;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.liaochong.html2excel.benchmark;
+
+import com.github.liaochong.html2excel.core.HtmlToExcelFactory;
+import com.github.liaochong.html2excel.core.WorkbookType;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * html转换为工作簿：各WorkbookType的构建以及构建后写出
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class WorkbookBenchmark {
+
+    @Param({"XLS", "XLSX", "SXLSX", "AUTO"})
+    private WorkbookType workbookType;
+
+    @Param({"10000", "100000", "1000000"})
+    private int cells;
+
+    @Param({"0.1"})
+    private double spanDensity;
+
+    @Param({"0.5"})
+    private double styleDensity;
+
+    private String html;
+
+    @Setup
+    public void setup() {
+        html = SyntheticTable.generate(cells, SyntheticTable.DEFAULT_COLUMNS, spanDensity, styleDensity, 42).toHtml();
+    }
+
+    @Benchmark
+    public Workbook build() throws IOException {
+        Workbook workbook = HtmlToExcelFactory.readHtml(html).workbookType(workbookType).build();
+        close(workbook);
+        return workbook;
+    }
+
+    @Benchmark
+    public long buildAndWrite() throws IOException {
+        Workbook workbook = HtmlToExcelFactory.readHtml(html).workbookType(workbookType).build();
+        CountingOutputStream out = new CountingOutputStream();
+        try {
+            workbook.write(out);
+        } finally {
+            close(workbook);
+        }
+        return out.count;
+    }
+
+    static void close(Workbook workbook) throws IOException {
+        if (workbook instanceof SXSSFWorkbook) {
+            ((SXSSFWorkbook) workbook).dispose();
+        }
+        workbook.close();
+    }
+
+    /**
+     * 仅统计字节数的输出流，排除磁盘写入的影响
+     */
+    static final class CountingOutputStream extends OutputStream {
+
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+<html>
+<body>
+<table>
+<#list rows as row>
+<tr><#list row as cell><td<#if (cell.colspan > 1)> colspan="${cell.colspan?c}"</#if><#if (cell.rowspan > 1)> rowspan="${cell.rowspan?c}"</#if><#if cell.style??> style="${cell.style}"</#if>>${cell.content}</td></#list></tr>
+</#list>
+</table>
+</body>
+</html>
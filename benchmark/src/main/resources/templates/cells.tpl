@@ -0,0 +1,23 @@
+html {
+    body {
+        table {
+            rows.each { row ->
+                tr {
+                    row.each { cell ->
+                        def attributes = [:]
+                        if (cell.colspan > 1) {
+                            attributes.colspan = cell.colspan
+                        }
+                        if (cell.rowspan > 1) {
+                            attributes.rowspan = cell.rowspan
+                        }
+                        if (cell.style != null) {
+                            attributes.style = cell.style
+                        }
+                        td(attributes, cell.content)
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,480 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.processor;
+
+import com.github.liaochong.html2excel.core.RowWriter;
+import com.github.liaochong.html2excel.core.annotation.ExcelColumn;
+import com.github.liaochong.html2excel.core.annotation.ExcelTable;
+import com.github.liaochong.html2excel.core.annotation.ExcludeColumn;
+import com.github.liaochong.html2excel.core.converter.ValueConverter;
+import com.github.liaochong.html2excel.utils.DataFormatUtil;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 行写入者注解处理器
+ * <p>
+ * 为{@link ExcelTable}类以及包含{@link ExcelColumn}字段的类生成{@link RowWriter}实现，字段选取、排序、标题、
+ * 单元格格式以及值转换规则与运行时反射一致；生成代码直接访问字段或调用getter，按字段类型直接写入单元格。
+ * 字段既不可直接访问也无对应getter、需要fieldDisplayOrder指定字段等无法生成的类会被跳过，运行时使用反射。
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@SupportedAnnotationTypes({
+        "com.github.liaochong.html2excel.core.annotation.ExcelTable",
+        "com.github.liaochong.html2excel.core.annotation.ExcelColumn"
+})
+public class RowWriterProcessor extends AbstractProcessor {
+
+    private static final String CONVERTER_ATTR = "converter";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> types = new LinkedHashSet<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(ExcelTable.class)) {
+            if (element.getKind() == ElementKind.CLASS) {
+                types.add((TypeElement) element);
+            }
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(ExcelColumn.class)) {
+            Element enclosing = element.getEnclosingElement();
+            if (enclosing.getKind() == ElementKind.CLASS) {
+                types.add((TypeElement) enclosing);
+            }
+        }
+        types.forEach(this::generate);
+        return false;
+    }
+
+    private void generate(TypeElement type) {
+        String skipReason = this.checkType(type);
+        if (Objects.nonNull(skipReason)) {
+            this.note(type, skipReason);
+            return;
+        }
+        List<VariableElement> fields = this.getFields(type);
+        if (fields.isEmpty()) {
+            this.note(type, "no field mapping, fieldDisplayOrder is required");
+            return;
+        }
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        List<ColumnSource> columns = new ArrayList<>(fields.size());
+        for (VariableElement field : fields) {
+            ExcelColumn excelColumn = field.getAnnotation(ExcelColumn.class);
+            if (Objects.nonNull(excelColumn) && !excelColumn.path().trim().isEmpty()) {
+                this.note(type, "field " + field.getSimpleName() + " declares a nested path");
+                return;
+            }
+            String accessor = this.getAccessor(type, packageElement, field);
+            if (Objects.isNull(accessor)) {
+                this.note(type, "field " + field.getSimpleName() + " is neither accessible nor has a getter");
+                return;
+            }
+            String converter = this.getConverter(field);
+            if (Objects.nonNull(converter) && !this.hasAccessibleConstructor(converter)) {
+                this.note(type, "converter " + converter + " has no public no-arg constructor");
+                return;
+            }
+            columns.add(new ColumnSource(field, accessor, converter, this.getCellFormat(field)));
+        }
+
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)).replace('$', '_')
+                + RowWriter.GENERATED_SUFFIX;
+        String source = this.render(packageName, simpleName, type, columns);
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(
+                    packageName.isEmpty() ? simpleName : packageName + "." + simpleName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to generate " + simpleName + ": " + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * 检查类是否可在同一包下被访问
+     *
+     * @return 无法生成的原因，可以生成时为null
+     */
+    private String checkType(TypeElement type) {
+        Element current = type;
+        while (current instanceof TypeElement) {
+            TypeElement typeElement = (TypeElement) current;
+            if (typeElement.getModifiers().contains(Modifier.PRIVATE)) {
+                return "private class";
+            }
+            if (typeElement.getNestingKind() == NestingKind.LOCAL || typeElement.getNestingKind() == NestingKind.ANONYMOUS) {
+                return "local or anonymous class";
+            }
+            if (typeElement.getNestingKind() == NestingKind.MEMBER && !typeElement.getModifiers().contains(Modifier.STATIC)) {
+                return "inner class";
+            }
+            current = typeElement.getEnclosingElement();
+        }
+        return null;
+    }
+
+    /**
+     * 与运行时一致的字段选取以及排序规则
+     */
+    private List<VariableElement> getFields(TypeElement type) {
+        ExcelTable excelTable = type.getAnnotation(ExcelTable.class);
+        List<VariableElement> candidates = new ArrayList<>();
+        TypeElement current = type;
+        while (Objects.nonNull(current)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if ((Objects.nonNull(excelTable) && excelTable.includeAllField()) || Objects.nonNull(field.getAnnotation(ExcelColumn.class))) {
+                    candidates.add(field);
+                }
+            }
+            if (Objects.nonNull(excelTable) && excelTable.includeAllField() && excelTable.excludeParent()) {
+                break;
+            }
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        return candidates.stream()
+                .filter(field -> Objects.isNull(field.getAnnotation(ExcludeColumn.class)))
+                .sorted(Comparator.comparingInt(field -> {
+                    ExcelColumn excelColumn = field.getAnnotation(ExcelColumn.class);
+                    return Objects.isNull(excelColumn) ? 0 : excelColumn.order();
+                }))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 获取字段取值表达式，可直接访问时访问字段，否则调用getter
+     *
+     * @return 取值表达式，无法访问时为null
+     */
+    private String getAccessor(TypeElement type, PackageElement packageElement, VariableElement field) {
+        boolean isStatic = field.getModifiers().contains(Modifier.STATIC);
+        TypeElement owner = (TypeElement) field.getEnclosingElement();
+        if (this.isAccessible(field, packageElement)) {
+            return isStatic ? owner.getQualifiedName() + "." + field.getSimpleName() : "data." + field.getSimpleName();
+        }
+        if (isStatic) {
+            return null;
+        }
+        String name = field.getSimpleName().toString();
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            String methodName = method.getSimpleName().toString();
+            boolean nameMatched = methodName.equals("get" + capitalized)
+                    || (field.asType().getKind() == TypeKind.BOOLEAN && methodName.equals("is" + capitalized));
+            if (nameMatched && method.getParameters().isEmpty()
+                    && !method.getModifiers().contains(Modifier.STATIC)
+                    && processingEnv.getTypeUtils().isSameType(method.getReturnType(), field.asType())
+                    && this.isAccessible(method, packageElement)) {
+                return "data." + methodName + "()";
+            }
+        }
+        return null;
+    }
+
+    private boolean isAccessible(Element member, PackageElement packageElement) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        return processingEnv.getElementUtils().getPackageOf(member).equals(packageElement);
+    }
+
+    /**
+     * 获取自定义转换器类名，注解中的Class值需通过AnnotationMirror读取
+     */
+    private String getConverter(VariableElement field) {
+        for (AnnotationMirror annotationMirror : field.getAnnotationMirrors()) {
+            if (!((TypeElement) annotationMirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(ExcelColumn.class.getName())) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotationMirror.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals(CONVERTER_ATTR)) {
+                    TypeMirror converterType = (TypeMirror) entry.getValue().getValue();
+                    TypeElement converterElement = (TypeElement) processingEnv.getTypeUtils().asElement(converterType);
+                    String converter = converterElement.getQualifiedName().toString();
+                    return ValueConverter.class.getName().equals(converter) ? null : converter;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean hasAccessibleConstructor(String className) {
+        TypeElement converter = processingEnv.getElementUtils().getTypeElement(className);
+        if (Objects.isNull(converter) || !converter.getModifiers().contains(Modifier.PUBLIC)
+                || converter.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        return ElementFilter.constructorsIn(converter.getEnclosedElements()).stream()
+                .anyMatch(constructor -> constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC));
+    }
+
+    /**
+     * 与运行时一致的单元格格式规则
+     */
+    private String getCellFormat(VariableElement field) {
+        ExcelColumn excelColumn = field.getAnnotation(ExcelColumn.class);
+        if (Objects.nonNull(excelColumn)) {
+            if (!excelColumn.numberFormat().trim().isEmpty()) {
+                return excelColumn.numberFormat();
+            }
+            if (!excelColumn.dateFormatPattern().trim().isEmpty()) {
+                return DataFormatUtil.toExcelDateFormat(excelColumn.dateFormatPattern());
+            }
+        }
+        String typeName = processingEnv.getTypeUtils().erasure(field.asType()).toString();
+        if ("java.time.LocalDate".equals(typeName)) {
+            return DataFormatUtil.DEFAULT_DATE_FORMAT;
+        }
+        if ("java.time.LocalDateTime".equals(typeName) || "java.util.Date".equals(typeName)) {
+            return DataFormatUtil.DEFAULT_DATETIME_FORMAT;
+        }
+        return null;
+    }
+
+    private String render(String packageName, String simpleName, TypeElement type, List<ColumnSource> columns) {
+        String typeName = processingEnv.getTypeUtils().erasure(type.asType()).toString();
+        StringBuilder source = new StringBuilder(2048);
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n * ").append(typeName).append("行写入者，由html2excel-processor生成，请勿修改\n */\n");
+        source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        source.append("public final class ").append(simpleName)
+                .append(" implements com.github.liaochong.html2excel.core.RowWriter<").append(typeName).append("> {\n\n");
+
+        List<String> titles = columns.stream().map(ColumnSource::getTitle).collect(Collectors.toList());
+        boolean hasTitle = titles.stream().anyMatch(title -> Objects.nonNull(title) && !title.trim().isEmpty());
+        source.append("    private static final java.util.List<String> TITLES = ");
+        if (hasTitle) {
+            source.append("java.util.Collections.unmodifiableList(java.util.Arrays.asList(")
+                    .append(titles.stream().map(RowWriterProcessor::literal).collect(Collectors.joining(", ")))
+                    .append("));\n\n");
+        } else {
+            source.append("null;\n\n");
+        }
+        source.append("    private static final String[] COLUMN_FORMATS = {")
+                .append(columns.stream().map(column -> literal(column.cellFormat)).collect(Collectors.joining(", ")))
+                .append("};\n");
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnSource column = columns.get(i);
+            if (Objects.nonNull(column.converter)) {
+                source.append("\n    private static final com.github.liaochong.html2excel.core.converter.ValueConverter CONVERTER_")
+                        .append(i).append(" = new ").append(column.converter).append("();\n");
+            } else if (column.isEnum()) {
+                source.append("\n    private static final String[] LABELS_").append(i).append(" = labels(")
+                        .append(column.getTypeName()).append(".values()");
+                for (String label : column.getEnumLabels()) {
+                    source.append(", ").append(literal(label));
+                }
+                source.append(");\n");
+            }
+        }
+
+        source.append("\n    @Override\n    public java.util.List<String> getTitles() {\n        return TITLES;\n    }\n");
+        source.append("\n    @Override\n    public String[] getColumnFormats() {\n        return COLUMN_FORMATS.clone();\n    }\n");
+        source.append("\n    @Override\n    public void write(").append(typeName)
+                .append(" data, com.github.liaochong.html2excel.core.CellWriter cellWriter) {\n");
+        for (int i = 0; i < columns.size(); i++) {
+            columns.get(i).renderWrite(source, i);
+        }
+        source.append("    }\n");
+
+        source.append("\n    private static String[] labels(Enum<?>[] constants, String... labels) {\n")
+                .append("        String[] result = new String[constants.length];\n")
+                .append("        for (int i = 0; i < constants.length; i++) {\n")
+                .append("            result[i] = i < labels.length ? labels[i] : constants[i].toString();\n")
+                .append("        }\n")
+                .append("        return result;\n")
+                .append("    }\n");
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private void note(TypeElement type, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                "Skip generating RowWriter for " + type.getQualifiedName() + ": " + reason + ", reflection will be used", type);
+    }
+
+    static String literal(String value) {
+        if (Objects.isNull(value)) {
+            return "null";
+        }
+        StringBuilder literal = new StringBuilder(value.length() + 2).append('"');
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    literal.append("\\\"");
+                    break;
+                case '\\':
+                    literal.append("\\\\");
+                    break;
+                case '\n':
+                    literal.append("\\n");
+                    break;
+                case '\r':
+                    literal.append("\\r");
+                    break;
+                case '\t':
+                    literal.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    /**
+     * 列的生成信息
+     */
+    private final class ColumnSource {
+
+        private final VariableElement field;
+
+        private final String accessor;
+
+        private final String converter;
+
+        private final String cellFormat;
+
+        private ColumnSource(VariableElement field, String accessor, String converter, String cellFormat) {
+            this.field = field;
+            this.accessor = accessor;
+            this.converter = converter;
+            this.cellFormat = cellFormat;
+        }
+
+        String getTitle() {
+            ExcelColumn excelColumn = field.getAnnotation(ExcelColumn.class);
+            return Objects.isNull(excelColumn) ? null : excelColumn.title();
+        }
+
+        String getTypeName() {
+            return field.asType().toString();
+        }
+
+        boolean isEnum() {
+            Element element = processingEnv.getTypeUtils().asElement(field.asType());
+            return Objects.nonNull(element) && element.getKind() == ElementKind.ENUM;
+        }
+
+        String[] getEnumLabels() {
+            ExcelColumn excelColumn = field.getAnnotation(ExcelColumn.class);
+            return Objects.isNull(excelColumn) ? new String[0] : excelColumn.enumLabels();
+        }
+
+        void renderWrite(StringBuilder source, int col) {
+            TypeKind kind = field.asType().getKind();
+            if (Objects.nonNull(converter)) {
+                if (kind.isPrimitive()) {
+                    source.append("        cellWriter.writeValue(").append(col).append(", CONVERTER_").append(col)
+                            .append(".convert(").append(accessor).append("));\n");
+                } else {
+                    this.renderNullable(source, col, "cellWriter.writeValue(" + col + ", CONVERTER_" + col + ".convert(value" + col + "));");
+                }
+                return;
+            }
+            if (isEnum()) {
+                this.renderNullable(source, col, "cellWriter.writeString(" + col + ", LABELS_" + col + "[value" + col + ".ordinal()]);");
+                return;
+            }
+            switch (kind) {
+                case BYTE:
+                case SHORT:
+                case INT:
+                case LONG:
+                case FLOAT:
+                case DOUBLE:
+                    if (Objects.nonNull(cellFormat)) {
+                        source.append("        cellWriter.writeNumber(").append(col).append(", ").append(accessor).append(");\n");
+                        return;
+                    }
+                    source.append("        cellWriter.writeString(").append(col).append(", String.valueOf(").append(accessor).append("));\n");
+                    return;
+                case BOOLEAN:
+                case CHAR:
+                    source.append("        cellWriter.writeString(").append(col).append(", String.valueOf(").append(accessor).append("));\n");
+                    return;
+                default:
+                    break;
+            }
+            if ("java.lang.String".equals(getTypeName())) {
+                this.renderNullable(source, col, "cellWriter.writeString(" + col + ", value" + col + ");");
+                return;
+            }
+            source.append("        cellWriter.writeValue(").append(col).append(", ").append(accessor).append(");\n");
+        }
+
+        private void renderNullable(StringBuilder source, int col, String write) {
+            String variable = "value" + col;
+            source.append("        ").append(processingEnv.getTypeUtils().erasure(field.asType())).append(' ').append(variable)
+                    .append(" = ").append(accessor).append(";\n");
+            source.append("        if (").append(variable).append(" == null) {\n")
+                    .append("            cellWriter.writeBlank(").append(col).append(");\n")
+                    .append("        } else {\n")
+                    .append("            ").append(write).append("\n")
+                    .append("        }\n");
+        }
+    }
+}
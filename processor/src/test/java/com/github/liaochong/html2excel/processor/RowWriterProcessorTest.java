@@ -0,0 +1,141 @@
+package com.github.liaochong.html2excel.processor;
+
+import com.github.liaochong.html2excel.core.CellWriter;
+import com.github.liaochong.html2excel.core.DefaultExcelBuilder;
+import com.github.liaochong.html2excel.core.RowWriter;
+import com.github.liaochong.html2excel.core.annotation.ExcelColumn;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RowWriterProcessor Tester.
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class RowWriterProcessorTest {
+
+    private static final String SOURCE = "package demo;\n"
+            + "import com.github.liaochong.html2excel.core.annotation.*;\n"
+            + "@ExcelTable(sheetName = \"orders\")\n"
+            + "public class Order {\n"
+            + "    public enum Status { PAID, CLOSED }\n"
+            + "    @ExcelColumn(title = \"no\", order = 1)\n"
+            + "    private String no;\n"
+            + "    @ExcelColumn(title = \"amount\", order = 2, numberFormat = \"0.00\")\n"
+            + "    double amount;\n"
+            + "    @ExcelColumn(title = \"count\", order = 3)\n"
+            + "    private int count;\n"
+            + "    @ExcelColumn(title = \"status\", order = 4, enumLabels = \"已支付\")\n"
+            + "    private Status status;\n"
+            + "    @ExcludeColumn\n"
+            + "    private String secret;\n"
+            + "    public Order(String no, double amount, int count, Status status) {\n"
+            + "        this.no = no; this.amount = amount; this.count = count; this.status = status;\n"
+            + "    }\n"
+            + "    public String getNo() { return no; }\n"
+            + "    public int getCount() { return count; }\n"
+            + "    public Status getStatus() { return status; }\n"
+            + "}\n";
+
+    @Test
+    public void testGenerateRowWriter() throws Exception {
+        File output = Files.createTempDirectory("html2excel-processor").toFile();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(output));
+        fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, Collections.singletonList(output));
+        fileManager.setLocation(StandardLocation.CLASS_PATH,
+                Collections.singletonList(new File(ExcelColumn.class.getProtectionDomain().getCodeSource().getLocation().toURI())));
+        JavaFileObject source = new SimpleJavaFileObject(URI.create("string:///demo/Order.java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return SOURCE;
+            }
+        };
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null,
+                Arrays.asList("-encoding", "UTF-8"), null, Collections.singletonList(source));
+        task.setProcessors(Collections.singletonList(new RowWriterProcessor()));
+        assertTrue(task.call());
+        assertTrue(new File(output, "demo/Order_RowWriter.java").exists());
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{output.toURI().toURL()}, getClass().getClassLoader())) {
+            Class<?> orderClass = classLoader.loadClass("demo.Order");
+            Class<?> statusClass = classLoader.loadClass("demo.Order$Status");
+            Object paid = statusClass.getEnumConstants()[0];
+            Object order = orderClass.getConstructor(String.class, double.class, int.class, statusClass)
+                    .newInstance("a1", 12.5, 3, paid);
+
+            @SuppressWarnings("unchecked")
+            RowWriter<Object> rowWriter = (RowWriter<Object>) classLoader.loadClass("demo.Order_RowWriter").newInstance();
+            assertEquals(Arrays.asList("no", "amount", "count", "status"), rowWriter.getTitles());
+            assertEquals(Arrays.asList(null, "0.00", null, null), Arrays.asList(rowWriter.getColumnFormats()));
+
+            List<Object> cells = new ArrayList<>();
+            rowWriter.write(order, new RecordingCellWriter(cells));
+            assertEquals(Arrays.asList("a1", 12.5, "3", "已支付"), cells);
+
+            Sheet sheet = DefaultExcelBuilder.getInstance().build(Collections.singletonList(order)).getSheet("orders");
+            assertEquals("a1", sheet.getRow(1).getCell(0).getStringCellValue());
+            assertEquals(12.5, sheet.getRow(1).getCell(1).getNumericCellValue(), 0);
+            assertEquals("3", sheet.getRow(1).getCell(2).getStringCellValue());
+            assertEquals("已支付", sheet.getRow(1).getCell(3).getStringCellValue());
+            assertNull(sheet.getRow(1).getCell(4));
+        }
+    }
+
+    @Test
+    public void testLiteral() {
+        assertEquals("\"a\\\"b\\\\c\\n\"", RowWriterProcessor.literal("a\"b\\c\n"));
+        assertEquals("null", RowWriterProcessor.literal(null));
+    }
+
+    private static final class RecordingCellWriter implements CellWriter {
+
+        private final List<Object> cells;
+
+        RecordingCellWriter(List<Object> cells) {
+            this.cells = cells;
+        }
+
+        @Override
+        public void writeString(int col, String content) {
+            cells.add(content);
+        }
+
+        @Override
+        public void writeNumber(int col, double value) {
+            cells.add(value);
+        }
+
+        @Override
+        public void writeValue(int col, Object value) {
+            cells.add(value);
+        }
+
+        @Override
+        public void writeBlank(int col) {
+            cells.add(null);
+        }
+    }
+}
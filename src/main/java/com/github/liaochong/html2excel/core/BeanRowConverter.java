@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+import java.util.List;
+
+/**
+ * 普通对象行转换器
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+final class BeanRowConverter implements RowConverter {
+
+    private final FieldColumn[] fieldColumns;
+
+    private final String[] columnFormats;
+
+    BeanRowConverter(List<FieldColumn> fieldColumns) {
+        this.fieldColumns = fieldColumns.toArray(new FieldColumn[0]);
+        this.columnFormats = fieldColumns.stream().map(FieldColumn::getCellFormat).toArray(String[]::new);
+    }
+
+    @Override
+    public int getColumnCount() {
+        return fieldColumns.length;
+    }
+
+    @Override
+    public String[] getColumnFormats() {
+        return columnFormats.clone();
+    }
+
+    @Override
+    public void convert(Object rowData, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = fieldColumns[i].getValue(rowData);
+        }
+    }
+}
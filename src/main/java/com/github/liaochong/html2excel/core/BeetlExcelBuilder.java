@@ -15,7 +15,6 @@
  */
 package com.github.liaochong.html2excel.core;
 
-import com.github.liaochong.html2excel.core.io.TempFileOperator;
 import com.github.liaochong.html2excel.exception.ExcelBuildException;
 import org.apache.commons.codec.CharEncoding;
 import org.apache.poi.ss.usermodel.Workbook;
@@ -25,50 +24,126 @@ import org.beetl.core.Template;
 import org.beetl.core.resource.ClasspathResourceLoader;
 
 import java.io.IOException;
-import java.io.Writer;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.WeakHashMap;
 
 /**
  * beetl excel创建者
+ * <p>
+ * GroupTemplate按类加载器、模板所在目录共享，由其按路径缓存已编译模板；Template持有绑定数据，每次构建单独获取。
+ * GroupTemplate强引用创建时的类加载器，故仅被软引用，应用卸载后可被回收
+ * </p>
  *
  * @author liaochong
  * @version 1.0
  */
 public class BeetlExcelBuilder extends ExcelBuilder {
 
-    private Template template;
+    /**
+     * 各类加载器下以模板目录为根的GroupTemplate，访问须持有类锁
+     */
+    private static final Map<ClassLoader, Map<String, SoftReference<GroupTemplate>>> GROUP_TEMPLATES = new WeakHashMap<>();
+
+    static {
+        TemplateCache.addCheckListener(BeetlExcelBuilder::setAutoCheck);
+    }
+
+    private String templatePath;
+
+    /**
+     * 预加载模板，通常在应用启动时调用
+     *
+     * @param paths 模板路径
+     */
+    public static void preload(String... paths) {
+        for (String path : paths) {
+            getTemplate(path);
+        }
+    }
 
     @Override
     public ExcelBuilder template(String path) {
-        try {
-            String[] filePath = this.splitFilePath(path);
-            ClasspathResourceLoader resourceLoader = new ClasspathResourceLoader(filePath[0]);
-            Configuration cfg = Configuration.defaultConfiguration();
-            cfg.setCharset(CharEncoding.UTF_8);
-            GroupTemplate gt = new GroupTemplate(resourceLoader, cfg);
-            template = gt.getTemplate(filePath[1]);
-            return this;
-        } catch (IOException e) {
-            throw ExcelBuildException.of("Failed to get beetl template", e);
+        Objects.requireNonNull(path);
+        int index = path.lastIndexOf('/');
+        if (!getGroupTemplate(path, index).getResourceLoader().exist("/" + path.substring(index + 1))) {
+            throw ExcelBuildException.of("Template " + path + " does not exist", null);
         }
+        templatePath = path;
+        return this;
     }
 
     @Override
     public Workbook build(Map<String, Object> renderData) {
-        Objects.requireNonNull(template, "The template cannot be empty. Please set the template first.");
-        Path htmlFile = tempFileOperator.createTempFile("beetl_temp_", TempFileOperator.HTML_SUFFIX);
-        try (Writer out = Files.newBufferedWriter(htmlFile, StandardCharsets.UTF_8)) {
+        Objects.requireNonNull(templatePath, "The template cannot be empty. Please set the template first.");
+        Template template = getTemplate(templatePath);
+        return renderAndBuild(out -> {
             template.binding(renderData);
             template.renderTo(out);
-            return HtmlToExcelFactory.readHtml(htmlFile.toFile(), htmlToExcelFactory).build();
-        } catch (Exception e) {
-            throw ExcelBuildException.of("Failed to build excel", e);
-        } finally {
-            tempFileOperator.deleteTempFile();
+        });
+    }
+
+    @Override
+    public void build(Map<String, Object> renderData, OutputStream out) {
+        Objects.requireNonNull(templatePath, "The template cannot be empty. Please set the template first.");
+        Template template = getTemplate(templatePath);
+        renderAndWrite(writer -> {
+            template.binding(renderData);
+            template.renderTo(writer);
+        }, out);
+    }
+
+    private static Template getTemplate(String path) {
+        Objects.requireNonNull(path);
+        int index = path.lastIndexOf('/');
+        return getGroupTemplate(path, index).getTemplate("/" + path.substring(index + 1));
+    }
+
+    /**
+     * 获取当前类加载器下以模板所在目录为根的GroupTemplate，include的绝对路径相对于该目录解析
+     *
+     * @param path  模板路径
+     * @param index 路径中最后一个/的位置
+     * @return GroupTemplate
+     */
+    private static synchronized GroupTemplate getGroupTemplate(String path, int index) {
+        ClassLoader classLoader = TemplateCache.currentClassLoader();
+        String root = index <= 0 ? "/" : path.substring(0, index);
+        Map<String, SoftReference<GroupTemplate>> groupTemplates = GROUP_TEMPLATES.computeIfAbsent(classLoader, key -> new HashMap<>());
+        SoftReference<GroupTemplate> reference = groupTemplates.get(root);
+        GroupTemplate groupTemplate = Objects.isNull(reference) ? null : reference.get();
+        if (Objects.isNull(groupTemplate)) {
+            groupTemplate = createGroupTemplate(classLoader, root);
+            groupTemplates.put(root, new SoftReference<>(groupTemplate));
         }
+        return groupTemplate;
+    }
+
+    private static GroupTemplate createGroupTemplate(ClassLoader classLoader, String root) {
+        try {
+            ClasspathResourceLoader resourceLoader = new ClasspathResourceLoader(classLoader, root);
+            resourceLoader.setAutoCheck(TemplateCache.isCheckModified());
+            Configuration cfg = Configuration.defaultConfiguration();
+            cfg.setCharset(CharEncoding.UTF_8);
+            return new GroupTemplate(resourceLoader, cfg);
+        } catch (IOException e) {
+            throw ExcelBuildException.of("Failed to create beetl configuration", e);
+        }
+    }
+
+    /**
+     * 修改检查开关变化时同步到已创建的GroupTemplate
+     *
+     * @param checkModified 是否检查修改
+     */
+    private static synchronized void setAutoCheck(boolean checkModified) {
+        GROUP_TEMPLATES.values().stream()
+                .flatMap(groupTemplates -> groupTemplates.values().stream())
+                .map(SoftReference::get)
+                .filter(Objects::nonNull)
+                .forEach(groupTemplate -> ((ClasspathResourceLoader) groupTemplate.getResourceLoader()).setAutoCheck(checkModified));
     }
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+/**
+ * 单元格写入者，向当前行的指定列写入单元格，供{@link RowWriter}使用
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public interface CellWriter {
+
+    /**
+     * 写入字符串单元格
+     *
+     * @param col     列
+     * @param content 内容
+     */
+    void writeString(int col, String content);
+
+    /**
+     * 写入数值单元格，列指定了格式时使用该格式
+     *
+     * @param col   列
+     * @param value 数值
+     */
+    void writeNumber(int col, double value);
+
+    /**
+     * 按值类型写入单元格：日期写入为日期单元格，列指定了格式的数值写入为数值单元格，其余按字符串写入，null写入为空单元格
+     *
+     * @param col   列
+     * @param value 值
+     */
+    void writeValue(int col, Object value);
+
+    /**
+     * 写入空单元格
+     *
+     * @param col 列
+     */
+    void writeBlank(int col);
+}
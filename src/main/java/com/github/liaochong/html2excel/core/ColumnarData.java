@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * 列式数据
+ * <p>
+ * 按列提供数据，数值列直接以double[]、long[]、int[]或按行号取值的函数提供，写入时不装箱、不转换为字符串；
+ * 文本列以String[]或按行号取值的函数提供。double数值为NaN时写入为空单元格，long数值按double写入，超过2^53时精度丢失。
+ * </p>
+ * <pre>
+ * ColumnarData data = ColumnarData.of(rowCount)
+ *         .textColumn(names)
+ *         .numberColumn(prices)
+ *         .numberColumn(row -&gt; prices[row] * quantities[row]);
+ * Workbook workbook = DefaultExcelBuilder.getInstance().titles(titles).build(data);
+ * </pre>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public final class ColumnarData {
+
+    private final int rowCount;
+
+    private final List<Column> columns = new ArrayList<>();
+
+    private ColumnarData(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * 创建列式数据
+     *
+     * @param rowCount 行数
+     * @return ColumnarData
+     */
+    public static ColumnarData of(int rowCount) {
+        if (rowCount < 0) {
+            throw new IllegalArgumentException("RowCount can not be negative");
+        }
+        return new ColumnarData(rowCount);
+    }
+
+    public ColumnarData numberColumn(double[] values) {
+        this.checkLength(Objects.requireNonNull(values).length);
+        Column column = new Column(ColumnType.DOUBLE);
+        column.doubles = values;
+        columns.add(column);
+        return this;
+    }
+
+    public ColumnarData numberColumn(long[] values) {
+        this.checkLength(Objects.requireNonNull(values).length);
+        Column column = new Column(ColumnType.LONG);
+        column.longs = values;
+        columns.add(column);
+        return this;
+    }
+
+    public ColumnarData numberColumn(int[] values) {
+        this.checkLength(Objects.requireNonNull(values).length);
+        Column column = new Column(ColumnType.INT);
+        column.ints = values;
+        columns.add(column);
+        return this;
+    }
+
+    /**
+     * 添加数值列
+     *
+     * @param supplier 按行号取值，行号从0开始
+     * @return ColumnarData
+     */
+    public ColumnarData numberColumn(IntToDoubleFunction supplier) {
+        Column column = new Column(ColumnType.DOUBLE_SUPPLIER);
+        column.doubleSupplier = Objects.requireNonNull(supplier);
+        columns.add(column);
+        return this;
+    }
+
+    public ColumnarData textColumn(String[] values) {
+        this.checkLength(Objects.requireNonNull(values).length);
+        Column column = new Column(ColumnType.STRING);
+        column.strings = values;
+        columns.add(column);
+        return this;
+    }
+
+    /**
+     * 添加文本列
+     *
+     * @param supplier 按行号取值，行号从0开始
+     * @return ColumnarData
+     */
+    public ColumnarData textColumn(IntFunction<String> supplier) {
+        Column column = new Column(ColumnType.STRING_SUPPLIER);
+        column.stringSupplier = Objects.requireNonNull(supplier);
+        columns.add(column);
+        return this;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    List<Column> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    private void checkLength(int length) {
+        if (length < rowCount) {
+            throw new IllegalArgumentException("Column length " + length + " is less than rowCount " + rowCount);
+        }
+    }
+
+    enum ColumnType {
+        DOUBLE, LONG, INT, DOUBLE_SUPPLIER, STRING, STRING_SUPPLIER
+    }
+
+    /**
+     * 列，按类型持有数组或取值函数，写入时按类型分派，避免统一抽象带来的装箱
+     */
+    static final class Column {
+
+        private final ColumnType type;
+
+        private double[] doubles;
+
+        private long[] longs;
+
+        private int[] ints;
+
+        private IntToDoubleFunction doubleSupplier;
+
+        private String[] strings;
+
+        private IntFunction<String> stringSupplier;
+
+        private Column(ColumnType type) {
+            this.type = type;
+        }
+
+        /**
+         * 将指定行写入当前行的指定列
+         *
+         * @param writer 写入者
+         * @param col    列
+         * @param row    行号
+         */
+        void write(GridSheetWriter writer, int col, int row) {
+            switch (type) {
+                case DOUBLE:
+                    writer.writeNumber(col, doubles[row]);
+                    break;
+                case LONG:
+                    writer.writeNumber(col, longs[row]);
+                    break;
+                case INT:
+                    writer.writeNumber(col, ints[row]);
+                    break;
+                case DOUBLE_SUPPLIER:
+                    writer.writeNumber(col, doubleSupplier.applyAsDouble(row));
+                    break;
+                case STRING:
+                    this.writeString(writer, col, strings[row]);
+                    break;
+                case STRING_SUPPLIER:
+                default:
+                    this.writeString(writer, col, stringSupplier.apply(row));
+                    break;
+            }
+        }
+
+        private void writeString(GridSheetWriter writer, int col, String content) {
+            if (Objects.isNull(content)) {
+                writer.writeBlank(col);
+            } else {
+                writer.writeString(col, content);
+            }
+        }
+    }
+}
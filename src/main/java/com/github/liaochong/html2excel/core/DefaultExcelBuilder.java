@@ -15,38 +15,32 @@
  */
 package com.github.liaochong.html2excel.core;
 
-import com.github.liaochong.html2excel.core.annotation.ExcelColumn;
 import com.github.liaochong.html2excel.core.annotation.ExcelTable;
-import com.github.liaochong.html2excel.core.annotation.ExcludeColumn;
-import com.github.liaochong.html2excel.core.cache.Cache;
-import com.github.liaochong.html2excel.core.cache.DefaultCache;
-import com.github.liaochong.html2excel.core.parallel.ParallelContainer;
-import com.github.liaochong.html2excel.core.parser.Table;
-import com.github.liaochong.html2excel.core.parser.Td;
-import com.github.liaochong.html2excel.core.parser.Tr;
-import com.github.liaochong.html2excel.core.reflect.ClassFieldContainer;
-import com.github.liaochong.html2excel.utils.ReflectUtil;
+import com.github.liaochong.html2excel.core.parallel.DefaultExecutors;
+import com.github.liaochong.html2excel.core.parallel.OrderedPipeline;
+import com.github.liaochong.html2excel.core.parallel.PagePrefetchIterator;
+import com.github.liaochong.html2excel.exception.ExcelBuildException;
 import com.github.liaochong.html2excel.utils.StringUtil;
-import com.github.liaochong.html2excel.utils.TdUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.Workbook;
 
-import java.lang.reflect.Field;
-import java.text.SimpleDateFormat;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.Date;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * 默认excel创建者
@@ -57,7 +51,12 @@ import java.util.stream.IntStream;
 @Slf4j
 public class DefaultExcelBuilder {
 
-    private static final Cache<String, DateTimeFormatter> DATETIME_FORMATTER_CONTAINER = new DefaultCache<>();
+    private static final ExcelEngine DEFAULT_ENGINE = ExcelEngine.builder().build();
+
+    /**
+     * 并行转换时每块行数
+     */
+    private static final int CHUNK_SIZE = 256;
 
     /**
      * 标题
@@ -79,6 +78,34 @@ public class DefaultExcelBuilder {
      * 内存数据保有量
      */
     private int rowAccessWindowSize;
+    /**
+     * workbookType为AUTO时的内存预算
+     */
+    private long autoHeapBudget;
+    /**
+     * 基础引擎，workbookType、rowAccessWindowSize以本创建者设置为准
+     */
+    private ExcelEngine engine;
+    /**
+     * 分页预取页数
+     */
+    private int prefetchDepth = 2;
+    /**
+     * 并行转换执行器，未设置时使用{@link DefaultExecutors#shared()}
+     */
+    private Executor executor;
+    /**
+     * 行数据转换并行度
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    /**
+     * 查询每次从数据库获取的行数
+     */
+    private int fetchSize = 1000;
+    /**
+     * 导出监听，追加到引擎已有监听之后
+     */
+    private final List<ExportListener> listeners = new ArrayList<>();
 
     private DefaultExcelBuilder() {
     }
@@ -114,336 +141,489 @@ public class DefaultExcelBuilder {
     }
 
     /**
-     * 设置workbook类型
+     * 设置workbook类型，NONE等同于未设置
      *
      * @param workbookType 工作簿类型
      * @return HtmlToExcelFactory
      */
     public DefaultExcelBuilder workbookType(WorkbookType workbookType) {
-        this.workbookType = workbookType;
+        this.workbookType = workbookType == WorkbookType.NONE ? null : workbookType;
+        return this;
+    }
+
+    /**
+     * 使用已创建的引擎，共享其样式等配置
+     *
+     * @param engine 引擎
+     * @return DefaultExcelBuilder
+     */
+    public DefaultExcelBuilder engine(ExcelEngine engine) {
+        this.engine = Objects.requireNonNull(engine, "ExcelEngine can not be null");
+        return this;
+    }
+
+    /**
+     * 设置workbookType为AUTO时的内存预算，列表、列式数据按行数估算，其余数据规模未知，使用SXLSX
+     *
+     * @param autoHeapBudget 字节数
+     * @return DefaultExcelBuilder
+     */
+    public DefaultExcelBuilder autoHeapBudget(long autoHeapBudget) {
+        if (autoHeapBudget <= 0) {
+            throw new IllegalArgumentException("AutoHeapBudget must be greater than 0");
+        }
+        this.autoHeapBudget = autoHeapBudget;
+        return this;
+    }
+
+    /**
+     * 设置分页构建时最多提前获取的页数
+     *
+     * @param prefetchDepth 预取页数，须大于0
+     * @return DefaultExcelBuilder
+     */
+    public DefaultExcelBuilder prefetchDepth(int prefetchDepth) {
+        if (prefetchDepth <= 0) {
+            throw new IllegalArgumentException("PrefetchDepth must be greater than 0");
+        }
+        this.prefetchDepth = prefetchDepth;
+        return this;
+    }
+
+    /**
+     * 设置并行转换执行器，默认使用共享的守护线程池；可为调用线程执行等任意执行器。
+     * 分页预取在整个导出期间占用一个线程，固定使用{@link DefaultExecutors#background()}，不占用该执行器
+     *
+     * @param executor 执行器
+     * @return DefaultExcelBuilder
+     */
+    public DefaultExcelBuilder executor(Executor executor) {
+        this.executor = Objects.requireNonNull(executor, "Executor can not be null");
+        return this;
+    }
+
+    /**
+     * 设置行数据转换并行度，为1时在调用线程中逐行转换
+     *
+     * @param parallelism 并行度，须大于0
+     * @return DefaultExcelBuilder
+     */
+    public DefaultExcelBuilder parallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be greater than 0");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * 设置build(DataSource, String)查询时每次从数据库获取的行数
+     * <p>
+     * 部分驱动需特殊设置才会按批获取，如MySQL需设置为Integer.MIN_VALUE或开启useCursorFetch，
+     * PostgreSQL需关闭连接的自动提交
+     * </p>
+     *
+     * @param fetchSize 获取行数
+     * @return DefaultExcelBuilder
+     */
+    public DefaultExcelBuilder fetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    /**
+     * 添加导出监听
+     *
+     * @param listener 导出监听
+     * @return DefaultExcelBuilder
+     */
+    public DefaultExcelBuilder listener(ExportListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "ExportListener can not be null"));
         return this;
     }
 
     public Workbook build(List<?> data) {
         if (Objects.isNull(data) || data.isEmpty()) {
             log.info("No valid data exists");
-            return new HtmlToExcelFactory().build(Collections.emptyList());
+            return getEngine().build(Collections.emptyList());
         }
         Optional<?> findResult = data.stream().filter(Objects::nonNull).findFirst();
         if (!findResult.isPresent()) {
             log.info("No valid data exists");
-            return new HtmlToExcelFactory().build(Collections.emptyList());
+            return getEngine().build(Collections.emptyList());
         }
-        ClassFieldContainer classFieldContainer = ReflectUtil.getAllFieldsOfClass(findResult.get().getClass());
-        List<Field> sortedFields = getSortedFieldsAndSetting(classFieldContainer);
-
-        if (sortedFields.isEmpty()) {
+        RowConverter rowConverter = getRowConverterAndSetting(findResult.get());
+        if (Objects.isNull(rowConverter)) {
             log.info("The specified field mapping does not exist");
-            return new HtmlToExcelFactory().build(Collections.emptyList());
+            return getEngine().build(Collections.emptyList());
         }
-        List<List<Object>> contents = getRenderContent(data, sortedFields);
-
-        List<Table> tableList = new ArrayList<>();
-        tableList.add(this.createTable(contents));
-        workbookType = Objects.nonNull(workbookType) ? workbookType : WorkbookType.XLSX;
-        return new HtmlToExcelFactory().rowAccessWindowSize(rowAccessWindowSize).workbookType(workbookType).build(tableList);
+        GridSheetWriter writer = this.createWriter(getEngine(), rowConverter, data.size());
+        this.writeRows(writer, rowConverter, data.iterator(), data.size());
+        return writer.finish();
     }
 
     /**
-     * 获取排序后字段并设置标题、workbookType等
+     * 流式构建，逐行转换并直接写入sheet，不持有全部数据
+     * <p>
+     * 未指定workbookType且未指定引擎时使用{@link WorkbookType#SXLSX}，内存占用与数据量无关；
+     * 适用于数据库游标等数据量无法一次性加载的场景
+     * </p>
      *
-     * @param classFieldContainer classFieldContainer
-     * @return Field
+     * @param data 数据迭代器
+     * @return Workbook
      */
-    private List<Field> getSortedFieldsAndSetting(ClassFieldContainer classFieldContainer) {
-        ExcelTable excelTable = classFieldContainer.getClazz().getAnnotation(ExcelTable.class);
-        if (Objects.nonNull(excelTable)) {
-            setWorkbookWithExcelTableAnnotation(excelTable);
+    public Workbook build(Iterator<?> data) {
+        Objects.requireNonNull(data);
+        // 前置null元素按空行写入，与列表构建保持一致
+        int leadingNullCount = 0;
+        Object first = null;
+        while (data.hasNext()) {
+            first = data.next();
+            if (Objects.nonNull(first)) {
+                break;
+            }
+            leadingNullCount++;
+        }
+        if (Objects.isNull(first)) {
+            log.info("No valid data exists");
+            return getEngine().build(Collections.emptyList());
+        }
+        RowConverter rowConverter = getRowConverterAndSetting(first);
+        if (Objects.isNull(rowConverter)) {
+            log.info("The specified field mapping does not exist");
+            return getEngine().build(Collections.emptyList());
         }
 
-        List<Field> preelectionFields;
-        if (Objects.nonNull(excelTable) && excelTable.includeAllField()) {
-            boolean excludeParent = excelTable.excludeParent();
-            if (excludeParent) {
-                preelectionFields = classFieldContainer.getDeclaredFields();
-            } else {
-                preelectionFields = classFieldContainer.getFields();
-            }
-        } else {
-            preelectionFields = classFieldContainer.getFieldsByAnnotation(ExcelColumn.class);
-            if (preelectionFields.isEmpty()) {
-                if (Objects.isNull(fieldDisplayOrder) || fieldDisplayOrder.isEmpty()) {
-                    throw new IllegalArgumentException("FieldDisplayOrder is necessary");
-                }
-                this.selfAdaption();
-                return fieldDisplayOrder.stream()
-                        .map(classFieldContainer::getFieldByName)
-                        .collect(Collectors.toList());
-            }
+        GridSheetWriter writer = this.createWriter(getEngine(WorkbookType.SXLSX), rowConverter, -1);
+        Object[] values = new Object[rowConverter.getColumnCount()];
+        for (int i = 0; i < leadingNullCount; i++) {
+            writer.writeRow(values);
         }
+        rowConverter.write(first, values, writer);
+        this.writeRows(writer, rowConverter, data, -1);
+        return writer.finish();
+    }
 
-        List<String> titles = new ArrayList<>();
-        List<Field> sortedFields = preelectionFields.stream()
-                .filter(field -> !field.isAnnotationPresent(ExcludeColumn.class))
-                .sorted((field1, field2) -> {
-                    ExcelColumn excelColumn1 = field1.getAnnotation(ExcelColumn.class);
-                    ExcelColumn excelColumn2 = field2.getAnnotation(ExcelColumn.class);
-                    if (Objects.isNull(excelColumn1) && Objects.isNull(excelColumn2)) {
-                        return 0;
-                    }
-                    int defaultOrder = 0;
-                    int order1 = defaultOrder;
-                    if (Objects.nonNull(excelColumn1)) {
-                        order1 = excelColumn1.order();
-                    }
-                    int order2 = defaultOrder;
-                    if (Objects.nonNull(excelColumn2)) {
-                        order2 = excelColumn2.order();
-                    }
-                    if (order1 == order2) {
-                        return 0;
-                    }
-                    return order1 > order2 ? 1 : -1;
-                })
-                .peek(field -> {
-                    ExcelColumn excelColumn = field.getAnnotation(ExcelColumn.class);
-                    if (Objects.isNull(excelColumn)) {
-                        titles.add(null);
-                    } else {
-                        titles.add(excelColumn.title());
-                    }
-                })
-                .collect(Collectors.toList());
-
-        boolean hasTitle = titles.stream().anyMatch(StringUtil::isNotBlank);
-        if (hasTitle) {
-            this.titles = titles;
-        }
-        return sortedFields;
+    /**
+     * 流式构建，详见{@link #build(Iterator)}
+     *
+     * @param data 数据流，由调用方负责关闭
+     * @return Workbook
+     */
+    public Workbook build(Stream<?> data) {
+        Objects.requireNonNull(data);
+        return this.build(data.iterator());
     }
 
     /**
-     * 设置workbook
+     * 流式构建，详见{@link #build(Iterator)}
      *
-     * @param excelTable excelTable
+     * @param data 数据
+     * @return Workbook
      */
-    private void setWorkbookWithExcelTableAnnotation(ExcelTable excelTable) {
-        if (Objects.isNull(workbookType)) {
-            this.workbookType = excelTable.workbookType();
+    public Workbook build(Spliterator<?> data) {
+        Objects.requireNonNull(data);
+        return this.build(Spliterators.iterator(data));
+    }
+
+    /**
+     * 分页构建，后台线程预取后续分页，获取与写入重叠执行，详见{@link #build(Iterator)}
+     *
+     * @param pageSupplier 分页数据提供者，返回null或空集合表示结束
+     * @param <T>          数据类型
+     * @return Workbook
+     */
+    public <T> Workbook build(PageSupplier<T> pageSupplier) {
+        Objects.requireNonNull(pageSupplier);
+        try (PagePrefetchIterator<T> iterator = new PagePrefetchIterator<>(pageSupplier::getPage, prefetchDepth,
+                DefaultExecutors.background())) {
+            return this.build(iterator);
         }
-        if (this.rowAccessWindowSize <= 0) {
-            int rowAccessWindowSize = excelTable.rowAccessWindowSize();
-            if (rowAccessWindowSize > 0) {
-                this.rowAccessWindowSize = rowAccessWindowSize;
-            }
+    }
+
+    /**
+     * 列式构建，数值列直接写入为数值单元格，不装箱、不转换为字符串；标题、样式、列宽与其他构建方式一致
+     *
+     * @param data 列式数据
+     * @return Workbook
+     */
+    public Workbook build(ColumnarData data) {
+        Objects.requireNonNull(data);
+        List<ColumnarData.Column> columns = data.getColumns();
+        if (columns.isEmpty()) {
+            log.info("No valid data exists");
+            return getEngine().build(Collections.emptyList());
         }
-        if (StringUtil.isBlank(this.sheetName)) {
-            String sheetName = excelTable.sheetName();
-            if (StringUtil.isNotBlank(sheetName)) {
-                this.sheetName = sheetName;
+        ExcelEngine engine = getEngine();
+        boolean hasTitles = Objects.nonNull(titles) && !titles.isEmpty();
+        WorkbookEstimate estimate = WorkbookEstimate.ofRows(data.getRowCount() + (hasTitles ? 1 : 0), columns.size());
+        GridSheetWriter writer = new GridSheetWriter(engine.newContext(engine.newTracker(), estimate), sheetName, columns.size());
+        if (hasTitles) {
+            writer.writeTitles(titles);
+        }
+        ColumnarData.Column[] columnArray = columns.toArray(new ColumnarData.Column[0]);
+        for (int row = 0, rowCount = data.getRowCount(); row < rowCount; row++) {
+            writer.startRow();
+            for (int col = 0; col < columnArray.length; col++) {
+                columnArray[col].write(writer, col, row);
             }
+            writer.endRow();
         }
+        return writer.finish();
     }
 
     /**
-     * 展示字段order与标题title长度一致性自适应
+     * 结果集构建，读取一次元数据后按列类型逐行直接写入，不持有全部数据
+     * <p>
+     * 未指定workbookType且未指定引擎时使用{@link WorkbookType#SXLSX}；未指定标题时使用列标签作为标题。
+     * 结果集由调用方负责关闭
+     * </p>
+     *
+     * @param resultSet 结果集
+     * @return Workbook
      */
-    private void selfAdaption() {
-        if (Objects.isNull(titles) || titles.isEmpty()) {
-            return;
-        }
-        if (fieldDisplayOrder.size() < titles.size()) {
-            for (int i = 0, size = titles.size() - fieldDisplayOrder.size(); i < size; i++) {
-                fieldDisplayOrder.add(null);
+    public Workbook build(ResultSet resultSet) {
+        Objects.requireNonNull(resultSet);
+        try {
+            ResultSetRowConverter rowConverter = new ResultSetRowConverter(resultSet.getMetaData());
+            if (Objects.isNull(titles) || titles.isEmpty()) {
+                this.titles = rowConverter.getColumnLabels();
             }
-        } else {
-            for (int i = 0, size = fieldDisplayOrder.size() - titles.size(); i < size; i++) {
-                titles.add(null);
+            GridSheetWriter writer = this.createWriter(getEngine(WorkbookType.SXLSX), rowConverter, -1);
+            Object[] values = new Object[rowConverter.getColumnCount()];
+            while (resultSet.next()) {
+                rowConverter.convert(resultSet, values);
+                writer.writeRow(values);
             }
+            return writer.finish();
+        } catch (SQLException e) {
+            throw ExcelBuildException.of("Failed to read result set", e);
         }
     }
 
     /**
-     * 获取并且转换字段值
+     * 执行查询并构建，详见{@link #build(ResultSet)}，按{@link #fetchSize(int)}分批获取
      *
-     * @param data  数据
-     * @param field 对应字段
-     * @return 结果
-     */
-    private Object getAndConvertFieldValue(Object data, Field field) {
-        Object result = ReflectUtil.getFieldValue(data, field);
-        ExcelColumn excelColumn = field.getAnnotation(ExcelColumn.class);
-        if (Objects.isNull(excelColumn) || Objects.isNull(result)) {
-            return result;
-        }
-        // 时间格式化
-        String dateFormatPattern = excelColumn.dateFormatPattern();
-        if (StringUtil.isNotBlank(dateFormatPattern)) {
-            Class<?> fieldType = field.getType();
-            if (fieldType == LocalDateTime.class) {
-                LocalDateTime localDateTime = (LocalDateTime) result;
-                DateTimeFormatter formatter = getDateTimeFormatter(dateFormatPattern);
-                return formatter.format(localDateTime);
-            } else if (fieldType == LocalDate.class) {
-                LocalDate localDate = (LocalDate) result;
-                DateTimeFormatter formatter = getDateTimeFormatter(dateFormatPattern);
-                return formatter.format(localDate);
-            } else if (fieldType == Date.class) {
-                Date date = (Date) result;
-                SimpleDateFormat simpleDateFormat = new SimpleDateFormat(dateFormatPattern);
-                return simpleDateFormat.format(date);
+     * @param dataSource 数据源
+     * @param sql        查询语句
+     * @return Workbook
+     */
+    public Workbook build(DataSource dataSource, String sql) {
+        Objects.requireNonNull(dataSource);
+        Objects.requireNonNull(sql);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(fetchSize);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return this.build(resultSet);
             }
+        } catch (SQLException e) {
+            throw ExcelBuildException.of("Failed to execute query", e);
         }
-        return result;
     }
 
     /**
-     * 获取时间格式化
+     * 逐行转换并写入
+     * <p>
+     * 并行度大于1时，转换由工作线程分块并行执行，写入仍在调用线程中按原顺序进行，
+     * 在途块数为并行度的2倍，写入队首时其余工作线程保持忙碌；已知行数不超过一块时不并行
+     * </p>
      *
-     * @param dateFormat 时间格式化
-     * @return DateTimeFormatter
+     * @param writer       写入者
+     * @param rowConverter 行转换器
+     * @param data         数据迭代器
+     * @param rowCount     行数，未知时为-1
      */
-    private DateTimeFormatter getDateTimeFormatter(String dateFormat) {
-        DateTimeFormatter formatter = DATETIME_FORMATTER_CONTAINER.get(dateFormat);
-        if (Objects.isNull(formatter)) {
-            formatter = DateTimeFormatter.ofPattern(dateFormat);
-            DATETIME_FORMATTER_CONTAINER.cache(dateFormat, formatter);
+    private void writeRows(GridSheetWriter writer, RowConverter rowConverter, Iterator<?> data, int rowCount) {
+        int columnCount = rowConverter.getColumnCount();
+        boolean parallel = parallelism > 1 && (rowCount < 0 || rowCount > CHUNK_SIZE);
+        // 生成的行写入者直接调用getter，无需并行转换
+        if (parallel && !(rowConverter instanceof GeneratedRowConverter)) {
+            OrderedPipeline<Object, Object[]> pipeline = new OrderedPipeline<>(rowData -> {
+                Object[] values = new Object[columnCount];
+                rowConverter.convert(rowData, values);
+                return values;
+            }, Objects.isNull(executor) ? DefaultExecutors.shared() : executor, CHUNK_SIZE, parallelism << 1);
+            pipeline.run(data, writer::writeRow);
+            return;
+        }
+        // 行数据容器复用，不为每行分配
+        Object[] values = new Object[columnCount];
+        while (data.hasNext()) {
+            rowConverter.write(data.next(), values, writer);
         }
-        return formatter;
     }
 
     /**
-     * 获取需要被渲染的内容
+     * 创建写入者并写入标题
      *
-     * @param data         数据集合
-     * @param sortedFields 排序字段
-     * @return 结果集
-     */
-    private List<List<Object>> getRenderContent(List<?> data, List<Field> sortedFields) {
-        List<ParallelContainer> resolvedDataContainers = IntStream.range(0, data.size()).parallel().mapToObj(index -> {
-            List<Object> resolvedDataList = sortedFields.stream()
-                    .map(field -> this.getAndConvertFieldValue(data.get(index), field))
-                    .collect(Collectors.toList());
-            data.set(index, null);
-            return new ParallelContainer<>(index, resolvedDataList);
-        }).collect(Collectors.toList());
-
-        // 重排序
-        return resolvedDataContainers.stream()
-                .sorted(Comparator.comparing(ParallelContainer::getIndex))
-                .map(ParallelContainer<List<Object>>::getData).collect(Collectors.toList());
+     * @param engine       引擎
+     * @param rowConverter 行转换器
+     * @param rowCount     数据行数，未知时为-1
+     * @return GridSheetWriter
+     */
+    private GridSheetWriter createWriter(ExcelEngine engine, RowConverter rowConverter, long rowCount) {
+        boolean hasTitles = Objects.nonNull(titles) && !titles.isEmpty();
+        WorkbookEstimate estimate = WorkbookEstimate.ofRows(rowCount < 0 ? -1 : rowCount + (hasTitles ? 1 : 0), rowConverter.getColumnCount());
+        GridSheetWriter writer = new GridSheetWriter(engine.newContext(engine.newTracker(), estimate), sheetName, rowConverter.getColumnCount());
+        writer.setColumnFormats(rowConverter.getColumnFormats());
+        if (hasTitles) {
+            writer.writeTitles(titles);
+        }
+        return writer;
     }
 
     /**
-     * 获取table
+     * 获取引擎，仅在创建者设置了workbookType、rowAccessWindowSize时派生新引擎
      *
-     * @param contents 渲染内容
-     * @return table
+     * @return ExcelEngine
      */
-    private Table createTable(List<List<Object>> contents) {
-        Table table = new Table();
-        table.setCaption(sheetName);
+    private ExcelEngine getEngine() {
+        return this.getEngine(null);
+    }
 
-        table.setTrList(new ArrayList<>());
-        table.setLastColumnNum(contents.get(0).size());
+    /**
+     * 获取引擎
+     *
+     * @param defaultWorkbookType 创建者以及引擎均未指定workbookType时使用的类型
+     * @return ExcelEngine
+     */
+    private ExcelEngine getEngine(WorkbookType defaultWorkbookType) {
+        ExcelEngine baseEngine = Objects.isNull(engine) ? DEFAULT_ENGINE : engine;
+        WorkbookType type = workbookType;
+        if (Objects.isNull(type) && Objects.isNull(engine)) {
+            type = defaultWorkbookType;
+        }
+        if (Objects.isNull(type) && rowAccessWindowSize <= 0 && autoHeapBudget <= 0 && listeners.isEmpty()) {
+            return baseEngine;
+        }
+        ExcelEngine.Builder builder = baseEngine.toBuilder().rowAccessWindowSize(rowAccessWindowSize);
+        if (Objects.nonNull(type)) {
+            builder.workbookType(type);
+        }
+        if (autoHeapBudget > 0) {
+            builder.autoHeapBudget(autoHeapBudget);
+        }
+        listeners.forEach(builder::listener);
+        return builder.build();
+    }
 
-        Map<String, String> commonStyle = new HashMap<>();
-        commonStyle.put("border-bottom-style", "thin");
-        commonStyle.put("border-left-style", "thin");
-        commonStyle.put("border-right-style", "thin");
+    /**
+     * 按首个非null元素获取行转换器，Map类型的元素按key取值，其余按字段取值
+     *
+     * @param first 首个非null元素
+     * @return 行转换器，不存在任何列时为null
+     */
+    private RowConverter getRowConverterAndSetting(Object first) {
+        if (first instanceof Map) {
+            return this.getMapRowConverterAndSetting((Map<?, ?>) first);
+        }
+        ExcelSchema excelSchema = ExcelSchema.of(first.getClass());
+        List<FieldColumn> fieldColumns = getFieldColumnsAndSetting(excelSchema);
+        if (fieldColumns.isEmpty()) {
+            return null;
+        }
+        RowWriter<?> rowWriter = excelSchema.getRowWriter();
+        if (Objects.nonNull(rowWriter) && rowWriter.getColumnFormats().length == fieldColumns.size()) {
+            return new GeneratedRowConverter(rowWriter);
+        }
+        if (Objects.nonNull(rowWriter)) {
+            log.warn("Generated row writer of {} does not match its fields, use reflection instead", first.getClass().getName());
+        }
+        return new BeanRowConverter(fieldColumns);
+    }
 
-        boolean hasTitles = Objects.nonNull(titles) && !titles.isEmpty();
-        if (hasTitles) {
-            if (titles.size() > table.getLastColumnNum()) {
-                table.setLastColumnNum(titles.size());
-            }
-            Tr tr = getThead(commonStyle);
-            table.getTrList().add(tr);
-        }
-
-        Map<String, String> oddTdStyle = new HashMap<>(commonStyle);
-        oddTdStyle.put("background-color", "#f6f8fa");
-
-        // 偏移量
-        int shift = hasTitles ? 1 : 0;
-        List<Tr> contentTrList = IntStream.range(0, contents.size()).parallel().mapToObj(index -> {
-            int trIndex = index + shift;
-            Tr tr = new Tr(trIndex);
-            List<Object> dataList = contents.get(index);
-            Map<Integer, Integer> colMaxWidthMap = new HashMap<>(dataList.size());
-            tr.setColWidthMap(colMaxWidthMap);
-            Map<String, String> tdStyle = tr.getIndex() % 2 == 0 ? commonStyle : oddTdStyle;
-            List<Td> tdList = IntStream.range(0, dataList.size()).mapToObj(i -> {
-                Td td = new Td();
-                td.setRow(trIndex);
-                td.setRowBound(trIndex);
-                td.setCol(i);
-                td.setColBound(i);
-                td.setContent(Objects.isNull(dataList.get(i)) ? null : String.valueOf(dataList.get(i)));
-                td.setStyle(tdStyle);
-                tr.getColWidthMap().put(i, TdUtil.getStringWidth(td.getContent()));
-                return td;
-            }).collect(Collectors.toList());
-            tr.setTdList(tdList);
-            contents.set(index, null);
-            return tr;
-        }).collect(Collectors.toList());
-
-        table.getTrList().addAll(contentTrList);
-        this.setColMaxWidthMap(table);
-        return table;
+    /**
+     * 获取Map行转换器，列顺序以fieldDisplayOrder为准，未指定时使用首行的key顺序；未指定标题时以key作为标题
+     *
+     * @param first 首行
+     * @return 行转换器，不存在任何列时为null
+     */
+    private RowConverter getMapRowConverterAndSetting(Map<?, ?> first) {
+        List<?> keys;
+        if (Objects.nonNull(fieldDisplayOrder) && !fieldDisplayOrder.isEmpty()) {
+            this.selfAdaption();
+            keys = fieldDisplayOrder;
+        } else {
+            keys = new ArrayList<>(first.keySet());
+        }
+        if (keys.isEmpty()) {
+            return null;
+        }
+        if (Objects.isNull(titles) || titles.isEmpty()) {
+            this.titles = keys.stream().map(key -> Objects.isNull(key) ? null : String.valueOf(key)).collect(Collectors.toList());
+        }
+        return new MapRowConverter(keys);
     }
 
     /**
-     * 获取thead
+     * 获取排序后字段列并设置标题、workbookType等
      *
-     * @param commonStyle 公共style
-     * @return tr
-     */
-    private Tr getThead(Map<String, String> commonStyle) {
-        Tr tr = new Tr(0);
-        Map<String, String> thStyle = new HashMap<>();
-        thStyle.put("font-weight", "bold");
-        thStyle.put("font-size", "14");
-        thStyle.put("text-align", "center");
-        thStyle.put("vertical-align", "center");
-        thStyle.putAll(commonStyle);
-
-        Map<Integer, Integer> colMaxWidthMap = new HashMap<>(titles.size());
-        tr.setColWidthMap(colMaxWidthMap);
-
-        List<Td> ths = IntStream.range(0, titles.size()).mapToObj(index -> {
-            Td td = new Td();
-            td.setTh(true);
-            td.setRow(0);
-            td.setRowBound(0);
-            td.setCol(index);
-            td.setColBound(index);
-            td.setContent(titles.get(index));
-            td.setStyle(thStyle);
-            tr.getColWidthMap().put(index, TdUtil.getStringWidth(td.getContent()));
-            return td;
-        }).collect(Collectors.toList());
-        tr.setTdList(ths);
-        return tr;
+     * @param excelSchema 类的导出结构
+     * @return 字段列
+     */
+    private List<FieldColumn> getFieldColumnsAndSetting(ExcelSchema excelSchema) {
+        ExcelTable excelTable = excelSchema.getExcelTable();
+        if (Objects.nonNull(excelTable)) {
+            setWorkbookWithExcelTableAnnotation(excelTable);
+        }
+        if (excelSchema.isRequireFieldDisplayOrder()) {
+            if (Objects.isNull(fieldDisplayOrder) || fieldDisplayOrder.isEmpty()) {
+                throw new IllegalArgumentException("FieldDisplayOrder is necessary");
+            }
+            this.selfAdaption();
+            return fieldDisplayOrder.stream()
+                    .map(excelSchema::getColumn)
+                    .collect(Collectors.toList());
+        }
+        if (Objects.nonNull(excelSchema.getTitles())) {
+            this.titles = excelSchema.getTitles();
+        }
+        return excelSchema.getColumns();
     }
 
     /**
-     * 设置每列最大宽度
+     * 设置workbook
      *
-     * @param table table
-     */
-    private void setColMaxWidthMap(Table table) {
-        Map<Integer, Integer> colMaxWidthMap = new HashMap<>(table.getLastColumnNum());
-        table.getTrList().stream().map(Tr::getColWidthMap).forEach(map -> {
-            map.forEach((k, v) -> {
-                Integer width = colMaxWidthMap.get(k);
-                if (Objects.isNull(width) || v > width) {
-                    colMaxWidthMap.put(k, v);
-                }
-            });
-        });
-        table.setColMaxWidthMap(colMaxWidthMap);
+     * @param excelTable excelTable
+     */
+    private void setWorkbookWithExcelTableAnnotation(ExcelTable excelTable) {
+        // 注解未显式指定时保持未设置，由引擎或构建方式决定
+        if (Objects.isNull(workbookType) && excelTable.workbookType() != WorkbookType.NONE) {
+            this.workbookType = excelTable.workbookType();
+        }
+        if (this.rowAccessWindowSize <= 0) {
+            int rowAccessWindowSize = excelTable.rowAccessWindowSize();
+            if (rowAccessWindowSize > 0) {
+                this.rowAccessWindowSize = rowAccessWindowSize;
+            }
+        }
+        if (StringUtil.isBlank(this.sheetName)) {
+            String sheetName = excelTable.sheetName();
+            if (StringUtil.isNotBlank(sheetName)) {
+                this.sheetName = sheetName;
+            }
+        }
     }
 
+    /**
+     * 展示字段order与标题title长度一致性自适应
+     */
+    private void selfAdaption() {
+        if (Objects.isNull(titles) || titles.isEmpty() || titles.size() == fieldDisplayOrder.size()) {
+            return;
+        }
+        // 复制后再补齐，不修改调用方传入的集合
+        titles = new ArrayList<>(titles);
+        fieldDisplayOrder = new ArrayList<>(fieldDisplayOrder);
+        if (fieldDisplayOrder.size() < titles.size()) {
+            for (int i = 0, size = titles.size() - fieldDisplayOrder.size(); i < size; i++) {
+                fieldDisplayOrder.add(null);
+            }
+        } else {
+            for (int i = 0, size = fieldDisplayOrder.size() - titles.size(); i < size; i++) {
+                titles.add(null);
+            }
+        }
+    }
 }
@@ -0,0 +1,331 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+import com.github.liaochong.html2excel.core.jfr.JfrEvents;
+import com.github.liaochong.html2excel.core.parser.Table;
+import com.github.liaochong.html2excel.core.parser.Td;
+import com.github.liaochong.html2excel.core.parser.Tr;
+import com.github.liaochong.html2excel.core.style.BackgroundStyle;
+import com.github.liaochong.html2excel.core.style.BorderStyle;
+import com.github.liaochong.html2excel.core.style.FontStyle;
+import com.github.liaochong.html2excel.core.style.TextAlignStyle;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单次构建上下文
+ * <p>
+ * 持有一次构建过程中的全部可变状态，随构建创建、随构建丢弃，不可跨线程或跨构建复用
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@Slf4j
+final class ExcelBuildContext {
+
+    private final ExcelEngine engine;
+    /**
+     * excel workbook
+     */
+    private final Workbook workbook;
+    /**
+     * 默认th样式
+     */
+    private CellStyle thDefaultCellStyle;
+    /**
+     * 默认td样式
+     */
+    private CellStyle tdDefaultCellStyle;
+    /**
+     * 单元格样式映射
+     */
+    private final Map<Map<String, String>, CellStyle> cellStyleMap = new HashMap<>();
+    /**
+     * 单元格样式引用映射，共用样式实例时（如布局计划）无需计算样式哈希
+     */
+    private final Map<Map<String, String>, CellStyle> identityCellStyleMap = new IdentityHashMap<>();
+    /**
+     * 每行的单元格最大高度map
+     */
+    private Map<Integer, Short> maxTdHeightMap = new HashMap<>();
+    /**
+     * 字体map
+     */
+    private final Map<String, Font> fontMap = new HashMap<>();
+    /**
+     * 自定义颜色索引
+     */
+    private final AtomicInteger colorIndex = new AtomicInteger(56);
+
+    private final ExportTracker tracker;
+
+    private final ExportMetrics metrics;
+    /**
+     * 样式创建累计耗时
+     */
+    private long styleNanos;
+
+    ExcelBuildContext(ExcelEngine engine, Workbook workbook, ExportTracker tracker) {
+        this.engine = engine;
+        this.workbook = workbook;
+        this.tracker = tracker;
+        this.metrics = tracker.getMetrics();
+        if (engine.isUseDefaultStyle()) {
+            long startTime = System.nanoTime();
+            thDefaultCellStyle = ExcelEngine.TH_DEFAULT_CELL_STYLE.supply(workbook);
+            tdDefaultCellStyle = ExcelEngine.TD_DEFAULT_CELL_STYLE.supply(workbook);
+            this.addStyleNanos(System.nanoTime() - startTime);
+        }
+    }
+
+    Workbook getWorkbook() {
+        return workbook;
+    }
+
+    ExportTracker getTracker() {
+        return tracker;
+    }
+
+    /**
+     * 累计样式创建耗时
+     *
+     * @param nanos 耗时
+     */
+    void addStyleNanos(long nanos) {
+        styleNanos += nanos;
+    }
+
+    /**
+     * 写入完成，统计工作簿并上报样式、写入耗时
+     *
+     * @param writeNanos 写入总耗时，含样式创建
+     */
+    void completeWrite(long writeNanos) {
+        metrics.setSheetCount(workbook.getNumberOfSheets());
+        metrics.setStyleCount(workbook.getNumCellStyles());
+        metrics.setFontCount(workbook.getNumberOfFontsAsInt());
+        tracker.phase(ExportPhase.STYLE, styleNanos);
+        tracker.phase(ExportPhase.WRITE, Math.max(writeNanos - styleNanos, 0));
+    }
+
+    /**
+     * 开始构建
+     *
+     * @param tables 表格
+     * @return Workbook
+     */
+    Workbook build(List<Table> tables) {
+        long startNanos = System.nanoTime();
+        if (Objects.isNull(tables) || tables.isEmpty()) {
+            log.warn("There is no any table exist");
+            emptyWorkbook();
+            this.completeWrite(System.nanoTime() - startNanos);
+            return workbook;
+        }
+        log.info("Start building excel");
+        long startTime = System.currentTimeMillis();
+        for (int i = 0, size = tables.size(); i < size; i++) {
+            Table table = tables.get(i);
+            String sheetName = Objects.isNull(table.getCaption()) || table.getCaption().length() < 1 ? "sheet" + (i + 1) : table.getCaption();
+            Object event = JfrEvents.beginSheetBuild();
+            Sheet sheet = workbook.createSheet(sheetName);
+
+            // 设置单元格样式
+            this.setTdOfTable(table, sheet);
+
+            this.freezePane(sheet, i);
+            JfrEvents.commitSheetBuild(event, sheet);
+        }
+        log.info("Build excel takes {} ms", System.currentTimeMillis() - startTime);
+        this.completeWrite(System.nanoTime() - startNanos);
+        return workbook;
+    }
+
+    /**
+     * 设置冻结区域
+     *
+     * @param sheet      sheet
+     * @param sheetIndex sheet序号
+     */
+    void freezePane(Sheet sheet, int sheetIndex) {
+        FreezePane freezePane = engine.getFreezePane(sheetIndex);
+        if (Objects.nonNull(freezePane)) {
+            sheet.createFreezePane(freezePane.getColSplit(), freezePane.getRowSplit());
+        }
+    }
+
+    /**
+     * 空工作簿
+     *
+     * @return Workbook
+     */
+    Workbook emptyWorkbook() {
+        Sheet sheet = workbook.createSheet();
+        Row row = sheet.createRow(0);
+        row.createCell(0);
+        return workbook;
+    }
+
+    /**
+     * 设置所有单元格，自适应列宽，单元格最大支持字符长度255
+     */
+    private void setTdOfTable(Table table, Sheet sheet) {
+        maxTdHeightMap = new HashMap<>();
+        for (int i = 0, size = table.getTrList().size(); i < size; i++) {
+            Tr tr = table.getTrList().get(i);
+            tr.getTdList().forEach(td -> this.setCell(td, sheet));
+
+            this.setRowHeight(sheet.getRow(tr.getIndex()));
+            table.getTrList().set(i, null);
+        }
+
+        table.getColMaxWidthMap().forEach((key, value) -> setColumnWidth(sheet, key, value));
+    }
+
+    /**
+     * 设置行高，最小12；每行写入完成时调用一次
+     *
+     * @param row 行
+     */
+    void setRowHeight(Row row) {
+        metrics.addRow(row.getPhysicalNumberOfCells());
+        Short maxTdHeight = maxTdHeightMap.remove(row.getRowNum());
+        if (Objects.isNull(maxTdHeight)) {
+            row.setHeightInPoints(row.getHeightInPoints() + 5);
+        } else {
+            row.setHeightInPoints((short) (maxTdHeight + 5));
+        }
+    }
+
+    /**
+     * 设置列宽，单元格最大支持字符长度255
+     *
+     * @param sheet sheet
+     * @param col   列
+     * @param width 内容宽度
+     */
+    static void setColumnWidth(Sheet sheet, int col, int width) {
+        int contentLength = width << 1;
+        if (contentLength > 255) {
+            contentLength = 255;
+        }
+        sheet.setColumnWidth(col, contentLength << 8);
+    }
+
+    /**
+     * 设置单元格
+     *
+     * @param td    单元格
+     * @param sheet 单元格所在的sheet
+     */
+    void setCell(Td td, Sheet sheet) {
+        Row currentRow = sheet.getRow(td.getRow());
+        if (Objects.isNull(currentRow)) {
+            currentRow = sheet.createRow(td.getRow());
+        }
+
+        Cell cell = currentRow.getCell(td.getCol());
+        if (Objects.isNull(cell)) {
+            cell = currentRow.createCell(td.getCol());
+        }
+        cell.setCellValue(td.getContent());
+
+
+        // 设置单元格样式
+        for (int i = td.getRow(), rowBound = td.getRowBound(); i <= rowBound; i++) {
+            Row row = sheet.getRow(i);
+            if (Objects.isNull(row)) {
+                row = sheet.createRow(i);
+            }
+            for (int j = td.getCol(), colBound = td.getColBound(); j <= colBound; j++) {
+                cell = row.getCell(j);
+                if (Objects.isNull(cell)) {
+                    cell = row.createCell(j);
+                }
+                this.setCellStyle(row, cell, td);
+            }
+        }
+        if (td.getColSpan() > 0 || td.getRowSpan() > 0) {
+            Object event = JfrEvents.beginMergedRegion();
+            CellRangeAddress region = new CellRangeAddress(td.getRow(), td.getRowBound(), td.getCol(), td.getColBound());
+            sheet.addMergedRegion(region);
+            JfrEvents.commitMergedRegion(event, sheet, region);
+            metrics.addMergedRegion();
+        }
+    }
+
+    /**
+     * 设置单元格样式
+     *
+     * @param cell 单元格
+     * @param td   td单元格
+     */
+    private void setCellStyle(Row row, Cell cell, Td td) {
+        cell.setCellStyle(this.getCellStyle(row, td.getStyle(), td.isTh()));
+    }
+
+    /**
+     * 获取单元格样式，相同样式只创建一次
+     *
+     * @param row   单元格所在行
+     * @param style 单元格样式
+     * @param th    是否为th
+     * @return CellStyle
+     */
+    CellStyle getCellStyle(Row row, Map<String, String> style, boolean th) {
+        if (engine.isUseDefaultStyle()) {
+            return th ? thDefaultCellStyle : tdDefaultCellStyle;
+        }
+        CellStyle existCellStyle = identityCellStyleMap.get(style);
+        if (Objects.isNull(existCellStyle)) {
+            existCellStyle = cellStyleMap.get(style);
+        }
+        if (Objects.nonNull(existCellStyle)) {
+            return existCellStyle;
+        }
+        long startTime = System.nanoTime();
+        Object event = JfrEvents.beginStyleCreation();
+        CellStyle cellStyle = workbook.createCellStyle();
+        // background-color
+        BackgroundStyle.setBackgroundColor(workbook, cellStyle, style, colorIndex);
+        // text-align
+        TextAlignStyle.setTextAlign(cellStyle, style);
+        // border
+        BorderStyle.setBorder(cellStyle, style);
+        // font
+        FontStyle.setFont(workbook, row, cellStyle, style, fontMap, maxTdHeightMap);
+        cellStyleMap.put(style, cellStyle);
+        identityCellStyleMap.put(style, cellStyle);
+        this.addStyleNanos(System.nanoTime() - startTime);
+        JfrEvents.commitStyleCreation(event, row.getSheet(), style.size());
+        return cellStyle;
+    }
+}
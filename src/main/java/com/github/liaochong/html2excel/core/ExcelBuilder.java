@@ -15,12 +15,27 @@
  */
 package com.github.liaochong.html2excel.core;
 
+import com.github.liaochong.html2excel.core.io.CharPipe;
+import com.github.liaochong.html2excel.core.io.SpillableBuffer;
 import com.github.liaochong.html2excel.core.io.TempFileOperator;
+import com.github.liaochong.html2excel.core.parallel.DefaultExecutors;
+import com.github.liaochong.html2excel.core.parser.HtmlTableParser;
+import com.github.liaochong.html2excel.core.parser.Table;
+import com.github.liaochong.html2excel.exception.ExcelBuildException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * excel创建者接口
@@ -31,9 +46,61 @@ import java.util.Objects;
 @Slf4j
 public abstract class ExcelBuilder {
 
-    protected HtmlToExcelFactory htmlToExcelFactory = new HtmlToExcelFactory();
+    /**
+     * 渲染管道块大小以及最大缓存块数
+     */
+    private static final int PIPE_CHUNK_SIZE = 8192;
 
+    private static final int PIPE_MAX_CHUNKS = 16;
+    /**
+     * 引擎配置
+     */
+    private ExcelEngine.Builder engineBuilder = ExcelEngine.builder();
+    /**
+     * 与本创建者共享配置的工厂
+     *
+     * @deprecated 构建委托给{@link ExcelEngine}，请使用{@link #getEngine()}，将在下一主版本移除
+     */
+    @Deprecated
+    protected HtmlToExcelFactory htmlToExcelFactory = new HtmlToExcelFactory(engineBuilder);
+    /**
+     * 临时文件操作
+     *
+     * @deprecated 模板渲染结果经内存管道直接解析，不再写入临时文件，见{@link #renderAndBuild(TemplateRenderer)}，将在下一主版本移除
+     */
+    @Deprecated
     protected TempFileOperator tempFileOperator = new TempFileOperator();
+    /**
+     * 引擎，配置变更后重新创建
+     */
+    private ExcelEngine engine;
+    /**
+     * 写入输出流前的内存缓冲阈值
+     */
+    private int outputBufferThreshold = SpillableBuffer.DEFAULT_THRESHOLD;
+
+    /**
+     * 设置模板修改检查间隔，适用于开发环境热加载；检查仅针对文件系统中的模板，默认不检查
+     *
+     * @param intervalMillis 检查间隔毫秒数，小于0时不检查
+     */
+    public static void templateCheckInterval(long intervalMillis) {
+        TemplateCache.setCheckInterval(intervalMillis);
+    }
+
+    /**
+     * 使用已创建的引擎，引擎线程安全，可在多个创建者间共享
+     *
+     * @param engine 引擎
+     * @return ExcelBuilder
+     */
+    public ExcelBuilder engine(ExcelEngine engine) {
+        Objects.requireNonNull(engine, "ExcelEngine can not be null");
+        this.engine = engine;
+        this.engineBuilder = engine.toBuilder();
+        htmlToExcelFactory.setEngineBuilder(engineBuilder);
+        return this;
+    }
 
     /**
      * excel类型
@@ -42,7 +109,8 @@ public abstract class ExcelBuilder {
      * @return ExcelBuilder
      */
     public ExcelBuilder workbookType(WorkbookType workbookType) {
-        htmlToExcelFactory.workbookType(workbookType);
+        engineBuilder.workbookType(workbookType);
+        engine = null;
         return this;
     }
 
@@ -53,7 +121,20 @@ public abstract class ExcelBuilder {
      * @return ExcelBuilder
      */
     public ExcelBuilder rowAccessWindowSize(int rowAccessWindowSize) {
-        htmlToExcelFactory.rowAccessWindowSize(rowAccessWindowSize);
+        engineBuilder.rowAccessWindowSize(rowAccessWindowSize);
+        engine = null;
+        return this;
+    }
+
+    /**
+     * 设置workbookType为AUTO时的内存预算，流式构建不适用
+     *
+     * @param autoHeapBudget 字节数
+     * @return ExcelBuilder
+     */
+    public ExcelBuilder autoHeapBudget(long autoHeapBudget) {
+        engineBuilder.autoHeapBudget(autoHeapBudget);
+        engine = null;
         return this;
     }
 
@@ -63,7 +144,8 @@ public abstract class ExcelBuilder {
      * @return ExcelBuilder
      */
     public ExcelBuilder useDefaultStyle() {
-        htmlToExcelFactory.useDefaultStyle();
+        engineBuilder.useDefaultStyle();
+        engine = null;
         return this;
     }
 
@@ -77,7 +159,35 @@ public abstract class ExcelBuilder {
         if (Objects.isNull(freezePanes) || freezePanes.length == 0) {
             return this;
         }
-        htmlToExcelFactory.freezePanes(freezePanes);
+        engineBuilder.freezePanes(freezePanes);
+        engine = null;
+        return this;
+    }
+
+    /**
+     * 添加导出监听
+     *
+     * @param listener 导出监听
+     * @return ExcelBuilder
+     */
+    public ExcelBuilder listener(ExportListener listener) {
+        engineBuilder.listener(listener);
+        engine = null;
+        return this;
+    }
+
+    /**
+     * 设置build(Map, OutputStream)写入输出流前的内存缓冲阈值，默认4MB；
+     * 工作簿完整写出后才写入输出流，写出失败时输出流不会收到不完整的文件，超出阈值的部分暂存到临时文件
+     *
+     * @param outputBufferThreshold 字节数，为0时全部暂存到临时文件
+     * @return ExcelBuilder
+     */
+    public ExcelBuilder outputBufferThreshold(int outputBufferThreshold) {
+        if (outputBufferThreshold < 0) {
+            throw new IllegalArgumentException("OutputBufferThreshold must not be negative");
+        }
+        this.outputBufferThreshold = outputBufferThreshold;
         return this;
     }
 
@@ -98,22 +208,185 @@ public abstract class ExcelBuilder {
     public abstract Workbook build(Map<String, Object> renderData);
 
     /**
-     * 分离文件路径
+     * 构建并写入输出流，输出流由调用方关闭；默认构建完整工作簿后写入，
+     * 模板创建者覆盖为边渲染边写入，固定生成xlsx，适用于大数据量导出
+     *
+     * @param renderData 渲染数据
+     * @param out        输出流
+     */
+    public void build(Map<String, Object> renderData, OutputStream out) {
+        Objects.requireNonNull(out);
+        ExportTracker tracker = getEngine().newTracker();
+        write(this.build(renderData), tracker, out);
+    }
+
+    /**
+     * 获取引擎
      *
-     * @param path 文件路径
-     * @return String[]
+     * @return ExcelEngine
      */
-    String[] splitFilePath(String path) {
-        if (Objects.isNull(path)) {
-            throw new NullPointerException();
+    protected ExcelEngine getEngine() {
+        if (Objects.isNull(engine)) {
+            engine = engineBuilder.build();
         }
-        int lastPackageIndex = path.lastIndexOf("/");
-        if (lastPackageIndex == -1 || lastPackageIndex == path.length() - 1) {
-            throw new IllegalArgumentException();
+        return engine;
+    }
+
+    /**
+     * 渲染模板并构建
+     * <p>
+     * 模板在后台线程渲染并写入内存管道，当前线程同时从管道读取并解析html，渲染与解析并行，全程不经过文件系统
+     * </p>
+     *
+     * @param renderer 模板渲染
+     * @return Workbook
+     */
+    protected Workbook renderAndBuild(TemplateRenderer renderer) {
+        ExcelEngine engine = getEngine();
+        ExportTracker tracker = engine.newTracker();
+        CharPipe pipe = new CharPipe(PIPE_CHUNK_SIZE, PIPE_MAX_CHUNKS);
+        CompletableFuture<Long> rendering = render(renderer, pipe);
+        List<Table> tables;
+        try (Reader in = pipe.reader()) {
+            long startTime = System.nanoTime();
+            HtmlTableParser parser = HtmlTableParser.of(in);
+            tables = tracker.getAllTable(parser, System.nanoTime() - startTime);
+        } catch (Exception e) {
+            rendering.cancel(false);
+            throw ExcelBuildException.of("Failed to build excel", e);
         }
-        String basePackagePath = path.substring(0, lastPackageIndex);
-        String templateName = path.substring(lastPackageIndex);
-        return new String[]{basePackagePath, templateName};
+        tracker.phase(ExportPhase.RENDER, awaitRendering(rendering));
+        Workbook workbook = engine.build(tables, tracker);
+        tracker.complete();
+        return workbook;
     }
 
+    /**
+     * 渲染模板并流式写入
+     * <p>
+     * 模板输出边渲染边解析，每解析完成一行即写入工作簿并刷新到临时文件，全部完成后经缓冲写入输出流，
+     * 内存占用仅与最宽行、最大跨行数相关，与数据量无关
+     * </p>
+     *
+     * @param renderer 模板渲染
+     * @param out      输出流
+     */
+    protected void renderAndWrite(TemplateRenderer renderer, OutputStream out) {
+        Objects.requireNonNull(out);
+        ExcelEngine engine = getEngine();
+        ExportTracker tracker = engine.newTracker();
+        CharPipe pipe = new CharPipe(PIPE_CHUNK_SIZE, PIPE_MAX_CHUNKS);
+        CompletableFuture<Long> rendering = render(renderer, pipe);
+        SXSSFWorkbook workbook;
+        try (Reader in = pipe.reader()) {
+            workbook = engine.buildStreaming(in, tracker);
+        } catch (Exception e) {
+            rendering.cancel(false);
+            throw ExcelBuildException.of("Failed to build excel", e);
+        }
+        try {
+            tracker.phase(ExportPhase.RENDER, awaitRendering(rendering));
+        } catch (RuntimeException e) {
+            workbook.dispose();
+            throw e;
+        }
+        write(workbook, tracker, out);
+    }
+
+    /**
+     * 将工作簿写入输出流并完成导出，写入后释放工作簿的临时文件
+     * <p>
+     * 工作簿先完整写出到缓冲区，超出阈值时转存到临时文件，成功后再写入输出流
+     * </p>
+     *
+     * @param workbook 工作簿
+     * @param tracker  导出统计
+     * @param out      输出流
+     */
+    void write(Workbook workbook, ExportTracker tracker, OutputStream out) {
+        try (SpillableBuffer buffer = new SpillableBuffer(outputBufferThreshold)) {
+            long startTime = System.nanoTime();
+            CountingOutputStream counting = new CountingOutputStream(buffer);
+            workbook.write(counting);
+            buffer.writeTo(out);
+            tracker.getMetrics().setBytesWritten(counting.count);
+            tracker.phase(ExportPhase.SERIALIZE, System.nanoTime() - startTime);
+        } catch (IOException e) {
+            throw ExcelBuildException.of("Failed to write excel", e);
+        } finally {
+            if (workbook instanceof SXSSFWorkbook) {
+                ((SXSSFWorkbook) workbook).dispose();
+            }
+        }
+        tracker.complete();
+    }
+
+    /**
+     * 后台渲染
+     *
+     * @return 渲染耗时，纳秒
+     */
+    private static CompletableFuture<Long> render(TemplateRenderer renderer, CharPipe pipe) {
+        return CompletableFuture.supplyAsync(() -> {
+            long startTime = System.nanoTime();
+            try (Writer out = pipe.writer()) {
+                renderer.render(out);
+            } catch (Exception e) {
+                throw ExcelBuildException.of("Failed to render template", e);
+            }
+            return System.nanoTime() - startTime;
+        }, DefaultExecutors.background());
+    }
+
+    private static long awaitRendering(CompletableFuture<Long> rendering) {
+        try {
+            return rendering.join();
+        } catch (CompletionException e) {
+            throw ExcelBuildException.of("Failed to build excel", e.getCause());
+        }
+    }
+
+    /**
+     * 统计写出字节数，不关闭被包装的输出流
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    /**
+     * 模板渲染，将渲染结果写入指定输出
+     */
+    @FunctionalInterface
+    protected interface TemplateRenderer {
+
+        /**
+         * 渲染
+         *
+         * @param out 输出
+         * @throws Exception 渲染异常
+         */
+        void render(Writer out) throws Exception;
+    }
 }
@@ -0,0 +1,331 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+import com.github.liaochong.html2excel.core.parser.StreamingTableParser;
+import com.github.liaochong.html2excel.core.parser.Table;
+import com.github.liaochong.html2excel.core.style.DefaultCellStyle;
+import com.github.liaochong.html2excel.core.style.TdDefaultCellStyle;
+import com.github.liaochong.html2excel.core.style.ThDefaultCellStyle;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * excel引擎
+ * <p>
+ * 仅持有不可变的构建配置，线程安全，可在应用启动时创建一次并全局共享；
+ * 每次构建都会创建独立的构建上下文{@link ExcelBuildContext}，workbook、样式映射等可变状态均不会在多次构建间共享
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public final class ExcelEngine {
+
+    static final DefaultCellStyle TH_DEFAULT_CELL_STYLE = new ThDefaultCellStyle();
+
+    static final DefaultCellStyle TD_DEFAULT_CELL_STYLE = new TdDefaultCellStyle();
+
+    /**
+     * 是否使用默认样式
+     */
+    private final boolean useDefaultStyle;
+    /**
+     * 冻结区域
+     */
+    private final FreezePane[] freezePanes;
+    /**
+     * 内存数据保有量
+     */
+    private final int rowAccessWindowSize;
+    /**
+     * 工作簿类型
+     */
+    private final WorkbookType workbookType;
+    /**
+     * 导出监听
+     */
+    private final ExportListener[] listeners;
+    /**
+     * AUTO时的内存预算
+     */
+    private final long autoHeapBudget;
+
+    private ExcelEngine(Builder builder) {
+        this.useDefaultStyle = builder.useDefaultStyle;
+        this.freezePanes = copyOf(builder.freezePanes);
+        this.rowAccessWindowSize = builder.rowAccessWindowSize;
+        this.workbookType = builder.workbookType;
+        this.listeners = builder.listeners.toArray(new ExportListener[0]);
+        this.autoHeapBudget = builder.autoHeapBudget;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 以当前引擎配置为基础创建新的构建器，不影响当前引擎
+     *
+     * @return Builder
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.useDefaultStyle = useDefaultStyle;
+        builder.freezePanes = copyOf(freezePanes);
+        builder.rowAccessWindowSize = rowAccessWindowSize;
+        builder.workbookType = workbookType;
+        builder.listeners.addAll(Arrays.asList(listeners));
+        builder.autoHeapBudget = autoHeapBudget;
+        return builder;
+    }
+
+    /**
+     * 开始构建
+     *
+     * @param tables 表格
+     * @return Workbook
+     */
+    public Workbook build(List<Table> tables) {
+        ExportTracker tracker = this.newTracker();
+        Workbook workbook = this.build(tables, tracker);
+        tracker.complete();
+        return workbook;
+    }
+
+    /**
+     * 作为导出的一部分构建，由调用方完成导出
+     *
+     * @param tables  表格
+     * @param tracker 导出统计
+     * @return Workbook
+     */
+    Workbook build(List<Table> tables, ExportTracker tracker) {
+        WorkbookEstimate estimate = workbookType == WorkbookType.AUTO ? WorkbookEstimate.of(tables) : WorkbookEstimate.UNKNOWN;
+        return new ExcelBuildContext(this, this.createWorkbook(estimate), tracker).build(tables);
+    }
+
+    /**
+     * 流式构建，边解析html边写入，已完成的行立即写出到临时文件，内存占用仅与最宽行、最大跨行数相关；
+     * 固定生成xlsx，使用完毕后须调用{@link SXSSFWorkbook#dispose()}删除临时文件
+     *
+     * @param html    html字符流
+     * @param tracker 导出统计，解析耗时为总耗时扣除写入耗时
+     * @return SXSSFWorkbook
+     * @throws IOException 读取异常
+     */
+    SXSSFWorkbook buildStreaming(Reader html, ExportTracker tracker) throws IOException {
+        // 由写入者按跨行情况手动刷新
+        SXSSFWorkbook workbook = new SXSSFWorkbook(-1);
+        try {
+            long startTime = System.nanoTime();
+            TableStreamWriter writer = new TableStreamWriter(new ExcelBuildContext(this, workbook, tracker));
+            StreamingTableParser.parse(html, writer);
+            tracker.phase(ExportPhase.PARSE, System.nanoTime() - startTime - writer.getWriteNanos());
+            writer.finish();
+            return workbook;
+        } catch (IOException | RuntimeException e) {
+            workbook.dispose();
+            throw e;
+        }
+    }
+
+    /**
+     * 创建新的构建上下文
+     *
+     * @param tracker  导出统计
+     * @param estimate 规模估算，仅AUTO时使用
+     * @return ExcelBuildContext
+     */
+    ExcelBuildContext newContext(ExportTracker tracker, WorkbookEstimate estimate) {
+        return new ExcelBuildContext(this, this.createWorkbook(estimate), tracker);
+    }
+
+    /**
+     * 开始新的导出
+     *
+     * @return ExportTracker
+     */
+    ExportTracker newTracker() {
+        return new ExportTracker(listeners);
+    }
+
+    /**
+     * 创建新的工作簿
+     *
+     * @param estimate 规模估算，仅AUTO时使用
+     * @return Workbook
+     */
+    Workbook createWorkbook(WorkbookEstimate estimate) {
+        switch (workbookType) {
+            case XLS:
+                return new HSSFWorkbook();
+            case SXLSX:
+                return new SXSSFWorkbook(rowAccessWindowSize);
+            case AUTO:
+                return estimate.createWorkbook(autoHeapBudget, rowAccessWindowSize);
+            case XLSX:
+            default:
+                return new XSSFWorkbook();
+        }
+    }
+
+    boolean isUseDefaultStyle() {
+        return useDefaultStyle;
+    }
+
+    FreezePane getFreezePane(int index) {
+        if (Objects.isNull(freezePanes) || freezePanes.length <= index) {
+            return null;
+        }
+        FreezePane freezePane = freezePanes[index];
+        if (Objects.isNull(freezePane)) {
+            throw new IllegalStateException("FreezePane is null");
+        }
+        return freezePane;
+    }
+
+    int getRowAccessWindowSize() {
+        return rowAccessWindowSize;
+    }
+
+    WorkbookType getWorkbookType() {
+        return workbookType;
+    }
+
+    /**
+     * 冻结区域为可变对象，需复制以保证引擎不可变
+     *
+     * @param freezePanes 冻结区域
+     * @return 副本
+     */
+    private static FreezePane[] copyOf(FreezePane[] freezePanes) {
+        if (Objects.isNull(freezePanes)) {
+            return null;
+        }
+        return Arrays.stream(freezePanes)
+                .map(f -> Objects.isNull(f) ? null : new FreezePane(f.getRowSplit(), f.getColSplit()))
+                .toArray(FreezePane[]::new);
+    }
+
+    /**
+     * 引擎构建器，非线程安全
+     */
+    public static final class Builder {
+
+        private boolean useDefaultStyle;
+
+        private FreezePane[] freezePanes;
+
+        private int rowAccessWindowSize = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+
+        private WorkbookType workbookType = WorkbookType.XLSX;
+
+        private final List<ExportListener> listeners = new ArrayList<>();
+
+        private long autoHeapBudget = WorkbookEstimate.defaultHeapBudget();
+
+        private Builder() {
+        }
+
+        /**
+         * 设置使用默认样式
+         *
+         * @return Builder
+         */
+        public Builder useDefaultStyle() {
+            this.useDefaultStyle = true;
+            return this;
+        }
+
+        /**
+         * 创建固定区域
+         *
+         * @param freezePanes 固定区域
+         * @return Builder
+         */
+        public Builder freezePanes(FreezePane... freezePanes) {
+            this.freezePanes = freezePanes;
+            return this;
+        }
+
+        /**
+         * 设置workbookType为SXSSFWorkbook的内存数据保有量，AUTO时为期望值
+         *
+         * @param rowAccessWindowSize 内存数据保有量
+         * @return Builder
+         */
+        public Builder rowAccessWindowSize(int rowAccessWindowSize) {
+            if (rowAccessWindowSize <= 0) {
+                return this;
+            }
+            this.rowAccessWindowSize = rowAccessWindowSize;
+            return this;
+        }
+
+        /**
+         * 设置workbook类型
+         *
+         * @param workbookType 工作簿类型
+         * @return Builder
+         */
+        public Builder workbookType(WorkbookType workbookType) {
+            if (Objects.isNull(workbookType) || workbookType == WorkbookType.NONE) {
+                throw new IllegalArgumentException("WorkbookType must be specified,or remove this method, use the default workbookType");
+            }
+            this.workbookType = workbookType;
+            return this;
+        }
+
+        /**
+         * 设置workbookType为AUTO时的内存预算，估算的工作簿常驻内存不超过该值
+         *
+         * @param autoHeapBudget 字节数
+         * @return Builder
+         */
+        public Builder autoHeapBudget(long autoHeapBudget) {
+            if (autoHeapBudget <= 0) {
+                throw new IllegalArgumentException("AutoHeapBudget must be greater than 0");
+            }
+            this.autoHeapBudget = autoHeapBudget;
+            return this;
+        }
+
+        /**
+         * 添加导出监听，按添加顺序回调
+         *
+         * @param listener 导出监听
+         * @return Builder
+         */
+        public Builder listener(ExportListener listener) {
+            listeners.add(Objects.requireNonNull(listener, "ExportListener can not be null"));
+            return this;
+        }
+
+        public ExcelEngine build() {
+            return new ExcelEngine(this);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+import com.github.liaochong.html2excel.core.annotation.ExcelColumn;
+import com.github.liaochong.html2excel.core.annotation.ExcelTable;
+import com.github.liaochong.html2excel.core.annotation.ExcludeColumn;
+import com.github.liaochong.html2excel.core.reflect.ClassFieldContainer;
+import com.github.liaochong.html2excel.utils.ReflectUtil;
+import com.github.liaochong.html2excel.utils.StringUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 类的导出结构，包含已排序的字段列、标题以及{@link ExcelTable}设置
+ * <p>
+ * 按类缓存于ClassValue中，同一类多次构建时无需再次反射；缓存值仅由对应类持有，类卸载时随之回收，不会导致类加载器泄漏
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@Slf4j
+final class ExcelSchema {
+
+    private static final ClassValue<ExcelSchema> SCHEMA_CACHE = new ClassValue<ExcelSchema>() {
+        @Override
+        protected ExcelSchema computeValue(Class<?> type) {
+            return new ExcelSchema(type);
+        }
+    };
+
+    private final ClassFieldContainer classFieldContainer;
+    /**
+     * 类上的ExcelTable注解，不存在为null
+     */
+    private final ExcelTable excelTable;
+    /**
+     * 是否需要由fieldDisplayOrder指定字段
+     */
+    private final boolean requireFieldDisplayOrder;
+    /**
+     * 已排序的字段列
+     */
+    private final List<FieldColumn> columns;
+    /**
+     * 注解标题，不存在任何标题时为null
+     */
+    private final List<String> titles;
+    /**
+     * 按字段名称获取的字段列
+     */
+    private final Map<String, FieldColumn> namedColumns = new ConcurrentHashMap<>();
+    /**
+     * 编译期生成的行写入者，不存在时为null
+     */
+    private final RowWriter<?> rowWriter;
+
+    private ExcelSchema(Class<?> clazz) {
+        this.classFieldContainer = ReflectUtil.getAllFieldsOfClass(clazz);
+        this.excelTable = clazz.getAnnotation(ExcelTable.class);
+
+        List<Field> preelectionFields;
+        if (Objects.nonNull(excelTable) && excelTable.includeAllField()) {
+            if (excelTable.excludeParent()) {
+                preelectionFields = classFieldContainer.getDeclaredFields();
+            } else {
+                preelectionFields = classFieldContainer.getFields();
+            }
+        } else {
+            preelectionFields = classFieldContainer.getFieldsByAnnotation(ExcelColumn.class);
+        }
+        this.requireFieldDisplayOrder = preelectionFields.isEmpty() && (Objects.isNull(excelTable) || !excelTable.includeAllField());
+
+        List<Field> sortedFields = preelectionFields.stream()
+                .filter(field -> !field.isAnnotationPresent(ExcludeColumn.class))
+                .sorted(Comparator.comparingInt(ExcelSchema::getOrder))
+                .collect(Collectors.toList());
+        List<String> titles = sortedFields.stream()
+                .map(field -> field.getAnnotation(ExcelColumn.class))
+                .map(excelColumn -> Objects.isNull(excelColumn) ? null : excelColumn.title())
+                .collect(Collectors.toList());
+
+        this.columns = Collections.unmodifiableList(sortedFields.stream().map(FieldColumn::of).collect(Collectors.toList()));
+        boolean hasTitle = titles.stream().anyMatch(StringUtil::isNotBlank);
+        this.titles = hasTitle ? Collections.unmodifiableList(new ArrayList<>(titles)) : null;
+        this.rowWriter = requireFieldDisplayOrder ? null : loadRowWriter(clazz);
+    }
+
+    /**
+     * 加载编译期生成的行写入者
+     *
+     * @param clazz 类
+     * @return 行写入者，不存在时为null
+     */
+    private static RowWriter<?> loadRowWriter(Class<?> clazz) {
+        ClassLoader classLoader = clazz.getClassLoader();
+        if (Objects.isNull(classLoader)) {
+            return null;
+        }
+        String className = clazz.getName();
+        int packageEnd = className.lastIndexOf('.');
+        String writerName = className.substring(0, packageEnd + 1)
+                + className.substring(packageEnd + 1).replace('$', '_') + RowWriter.GENERATED_SUFFIX;
+        try {
+            Class<?> writerClass = Class.forName(writerName, true, classLoader);
+            if (!RowWriter.class.isAssignableFrom(writerClass)) {
+                return null;
+            }
+            return (RowWriter<?>) writerClass.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("Failed to load generated row writer {}, use reflection instead", writerName, e);
+            return null;
+        }
+    }
+
+    static ExcelSchema of(Class<?> clazz) {
+        return SCHEMA_CACHE.get(clazz);
+    }
+
+    private static int getOrder(Field field) {
+        ExcelColumn excelColumn = field.getAnnotation(ExcelColumn.class);
+        return Objects.isNull(excelColumn) ? 0 : excelColumn.order();
+    }
+
+    ExcelTable getExcelTable() {
+        return excelTable;
+    }
+
+    List<FieldColumn> getColumns() {
+        return columns;
+    }
+
+    List<String> getTitles() {
+        return titles;
+    }
+
+    /**
+     * 编译期生成的行写入者
+     *
+     * @return 行写入者，不存在时为null
+     */
+    RowWriter<?> getRowWriter() {
+        return rowWriter;
+    }
+
+    /**
+     * 是否需要由fieldDisplayOrder指定字段
+     *
+     * @return true/false
+     */
+    boolean isRequireFieldDisplayOrder() {
+        return requireFieldDisplayOrder;
+    }
+
+    /**
+     * 按字段名称获取字段列，字段不存在时为占位列；名称可为address.city形式的嵌套属性路径
+     *
+     * @param fieldName 字段名称或属性路径
+     * @return 字段列
+     */
+    FieldColumn getColumn(String fieldName) {
+        if (Objects.isNull(fieldName)) {
+            return FieldColumn.EMPTY;
+        }
+        return namedColumns.computeIfAbsent(fieldName, name -> {
+            int dot = name.indexOf('.');
+            if (dot < 0) {
+                return FieldColumn.of(classFieldContainer.getFieldByName(name));
+            }
+            return FieldColumn.of(classFieldContainer.getFieldByName(name.substring(0, dot)), name.substring(dot + 1));
+        });
+    }
+}
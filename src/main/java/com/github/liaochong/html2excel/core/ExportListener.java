@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+/**
+ * 导出生命周期监听
+ * <p>
+ * 通过{@link HtmlToExcelFactory}、{@link ExcelBuilder}、{@link DefaultExcelBuilder}或{@link ExcelEngine.Builder}注册，
+ * 回调在执行导出的线程上同步调用，同一监听可能被多个导出同时调用，实现须线程安全且尽量轻量；
+ * 回调抛出的异常仅记录日志，不影响导出
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public interface ExportListener {
+
+    /**
+     * 阶段完成
+     *
+     * @param phase   阶段
+     * @param nanos   本阶段耗时，纳秒
+     * @param metrics 当前导出已累计的统计，仅在回调期间有效
+     */
+    default void afterPhase(ExportPhase phase, long nanos, ExportMetrics metrics) {
+    }
+
+    /**
+     * 导出完成
+     *
+     * @param metrics 本次导出的统计
+     */
+    default void afterExport(ExportMetrics metrics) {
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次导出的统计
+ * <p>
+ * 由执行导出的线程累计，不可跨导出复用；需保留时请在回调中读取所需的值
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@Getter
+public final class ExportMetrics {
+
+    @Getter(AccessLevel.NONE)
+    private final long[] phaseNanos = new long[ExportPhase.values().length];
+    /**
+     * 导出总耗时，纳秒，导出完成后有效
+     */
+    private long totalNanos;
+    /**
+     * sheet数
+     */
+    private int sheetCount;
+    /**
+     * 行数
+     */
+    private long rowCount;
+    /**
+     * 单元格数，含合并区域覆盖的单元格
+     */
+    private long cellCount;
+    /**
+     * 合并区域数
+     */
+    private int mergedRegionCount;
+    /**
+     * 工作簿中不同单元格样式数
+     */
+    private int styleCount;
+    /**
+     * 工作簿中不同字体数
+     */
+    private int fontCount;
+    /**
+     * 写出的字节数，未由本库写出时为0
+     */
+    private long bytesWritten;
+
+    ExportMetrics() {
+    }
+
+    /**
+     * 阶段耗时，未执行的阶段为0
+     *
+     * @param phase 阶段
+     * @return 纳秒
+     */
+    public long getNanos(ExportPhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * 阶段耗时
+     *
+     * @param phase 阶段
+     * @param unit  时间单位
+     * @return 耗时
+     */
+    public long getDuration(ExportPhase phase, TimeUnit unit) {
+        return unit.convert(phaseNanos[phase.ordinal()], TimeUnit.NANOSECONDS);
+    }
+
+    void addNanos(ExportPhase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+    }
+
+    void setTotalNanos(long totalNanos) {
+        this.totalNanos = totalNanos;
+    }
+
+    void setSheetCount(int sheetCount) {
+        this.sheetCount = sheetCount;
+    }
+
+    void addRow(int cellCount) {
+        this.rowCount++;
+        this.cellCount += cellCount;
+    }
+
+    void addMergedRegion() {
+        this.mergedRegionCount++;
+    }
+
+    void setStyleCount(int styleCount) {
+        this.styleCount = styleCount;
+    }
+
+    void setFontCount(int fontCount) {
+        this.fontCount = fontCount;
+    }
+
+    void setBytesWritten(long bytesWritten) {
+        this.bytesWritten = bytesWritten;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("ExportMetrics(");
+        ExportPhase[] phases = ExportPhase.values();
+        for (int i = 0; i < phases.length; i++) {
+            builder.append(phases[i].name().toLowerCase()).append('=')
+                    .append(TimeUnit.NANOSECONDS.toMillis(phaseNanos[i])).append("ms, ");
+        }
+        return builder.append("total=").append(TimeUnit.NANOSECONDS.toMillis(totalNanos))
+                .append("ms, sheets=").append(sheetCount)
+                .append(", rows=").append(rowCount)
+                .append(", cells=").append(cellCount)
+                .append(", mergedRegions=").append(mergedRegionCount)
+                .append(", styles=").append(styleCount)
+                .append(", fonts=").append(fontCount)
+                .append(", bytes=").append(bytesWritten)
+                .append(')').toString();
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+/**
+ * 导出阶段
+ * <p>
+ * 模板渲染与解析在不同线程上同时进行，流式构建中解析与写入交替进行，各阶段耗时可能重叠，回调顺序不保证与声明顺序一致
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public enum ExportPhase {
+    /**
+     * 模板渲染，仅模板创建者
+     */
+    RENDER,
+    /**
+     * html解析，含读取html以及等待渲染输出的时间
+     */
+    PARSE,
+    /**
+     * 布局，计算单元格位置、列宽，或布局计划绑定数据；流式构建中包含在解析阶段内
+     */
+    LAYOUT,
+    /**
+     * 样式解析，创建单元格样式、字体
+     */
+    STYLE,
+    /**
+     * 单元格写入，含合并区域，不含样式创建
+     */
+    WRITE,
+    /**
+     * 工作簿写出到输出流，仅由本库写出时
+     */
+    SERIALIZE
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+import com.github.liaochong.html2excel.core.parser.HtmlTableParser;
+import com.github.liaochong.html2excel.core.parser.Table;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * 单次导出的统计与回调分发，随导出创建，非线程安全
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@Slf4j
+final class ExportTracker {
+
+    private final ExportListener[] listeners;
+
+    private final ExportMetrics metrics = new ExportMetrics();
+
+    private final long startTime = System.nanoTime();
+
+    ExportTracker(ExportListener[] listeners) {
+        this.listeners = listeners;
+    }
+
+    ExportMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 提取表格，上报解析、布局耗时
+     *
+     * @param parser        已读取html的解析器
+     * @param documentNanos 读取html的耗时
+     * @return 所有表格
+     */
+    List<Table> getAllTable(HtmlTableParser parser, long documentNanos) {
+        long startTime = System.nanoTime();
+        List<Table> tables = parser.getAllTable();
+        long layoutNanos = parser.getLayoutNanos();
+        this.phase(ExportPhase.PARSE, documentNanos + System.nanoTime() - startTime - layoutNanos);
+        this.phase(ExportPhase.LAYOUT, layoutNanos);
+        return tables;
+    }
+
+    /**
+     * 阶段完成
+     *
+     * @param phase 阶段
+     * @param nanos 耗时
+     */
+    void phase(ExportPhase phase, long nanos) {
+        metrics.addNanos(phase, nanos);
+        for (ExportListener listener : listeners) {
+            try {
+                listener.afterPhase(phase, nanos, metrics);
+            } catch (RuntimeException e) {
+                log.warn("Export listener {} failed after phase {}", listener.getClass().getName(), phase, e);
+            }
+        }
+    }
+
+    /**
+     * 导出完成
+     */
+    void complete() {
+        metrics.setTotalNanos(System.nanoTime() - startTime);
+        for (ExportListener listener : listeners) {
+            try {
+                listener.afterExport(metrics);
+            } catch (RuntimeException e) {
+                log.warn("Export listener {} failed after export", listener.getClass().getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+import com.github.liaochong.html2excel.core.annotation.ExcelColumn;
+import com.github.liaochong.html2excel.core.converter.ValueConverter;
+import com.github.liaochong.html2excel.core.reflect.FieldAccessor;
+import com.github.liaochong.html2excel.core.reflect.FieldAccessors;
+import com.github.liaochong.html2excel.exception.ExcelBuildException;
+import com.github.liaochong.html2excel.utils.DataFormatUtil;
+import com.github.liaochong.html2excel.utils.ReflectUtil;
+import com.github.liaochong.html2excel.utils.StringUtil;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 字段列，字段取值器、值转换器以及单元格格式在创建时解析完成，取值时不再进行反射或查找；
+ * 嵌套属性路径在创建时编译为串联的取值器，逐行复用
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+final class FieldColumn {
+
+    /**
+     * 不存在对应字段的占位列
+     */
+    static final FieldColumn EMPTY = new FieldColumn(null, null, null);
+
+    private final FieldAccessor accessor;
+    /**
+     * 值转换，无需转换时为null
+     */
+    private final Function<Object, Object> converter;
+    /**
+     * excel单元格格式，无格式时为null
+     */
+    private final String cellFormat;
+
+    private FieldColumn(FieldAccessor accessor, Function<Object, Object> converter, String cellFormat) {
+        this.accessor = accessor;
+        this.converter = converter;
+        this.cellFormat = cellFormat;
+    }
+
+    static FieldColumn of(Field field) {
+        if (Objects.isNull(field)) {
+            return EMPTY;
+        }
+        ExcelColumn excelColumn = field.getAnnotation(ExcelColumn.class);
+        if (Objects.nonNull(excelColumn) && StringUtil.isNotBlank(excelColumn.path())) {
+            List<Field> path = resolvePath(field, excelColumn.path());
+            if (Objects.isNull(path)) {
+                throw ExcelBuildException.of("Unknown path " + excelColumn.path() + " of field " + field, null);
+            }
+            return of(path, excelColumn);
+        }
+        return of(Collections.singletonList(field), excelColumn);
+    }
+
+    /**
+     * 嵌套属性列，格式、转换按路径末端字段及其注解处理
+     *
+     * @param root 起始字段
+     * @param path 相对于起始字段的属性路径，如address.city
+     * @return 字段列，路径不存在时为占位列
+     */
+    static FieldColumn of(Field root, String path) {
+        if (Objects.isNull(root)) {
+            return EMPTY;
+        }
+        List<Field> fields = resolvePath(root, path);
+        if (Objects.isNull(fields)) {
+            return EMPTY;
+        }
+        return of(fields, fields.get(fields.size() - 1).getAnnotation(ExcelColumn.class));
+    }
+
+    private static FieldColumn of(List<Field> path, ExcelColumn excelColumn) {
+        Class<?> valueType = path.get(path.size() - 1).getType();
+        return new FieldColumn(chain(path), getConverter(valueType, excelColumn), getCellFormat(valueType, excelColumn));
+    }
+
+    /**
+     * 按字段声明类型逐级解析属性路径
+     *
+     * @param root 起始字段
+     * @param path 属性路径
+     * @return 路径上的字段，含起始字段，任一级不存在时为null
+     */
+    private static List<Field> resolvePath(Field root, String path) {
+        List<Field> fields = new ArrayList<>();
+        fields.add(root);
+        Field current = root;
+        for (String name : path.split("\\.")) {
+            current = ReflectUtil.getAllFieldsOfClass(current.getType()).getFieldByName(name.trim());
+            if (Objects.isNull(current)) {
+                return null;
+            }
+            fields.add(current);
+        }
+        return fields;
+    }
+
+    /**
+     * 将路径上的取值器串联为一个取值器，中间值为null时直接返回null
+     *
+     * @param path 路径上的字段
+     * @return 取值器
+     */
+    private static FieldAccessor chain(List<Field> path) {
+        if (path.size() == 1) {
+            return FieldAccessors.of(path.get(0));
+        }
+        FieldAccessor[] accessors = path.stream().map(FieldAccessors::of).toArray(FieldAccessor[]::new);
+        return target -> {
+            Object value = target;
+            for (int i = 0; i < accessors.length && Objects.nonNull(value); i++) {
+                value = accessors[i].get(value);
+            }
+            return value;
+        };
+    }
+
+    /**
+     * 获取并且转换字段值
+     *
+     * @param data 数据
+     * @return 结果
+     */
+    Object getValue(Object data) {
+        if (Objects.isNull(accessor) || Objects.isNull(data)) {
+            return null;
+        }
+        Object result = accessor.get(data);
+        if (Objects.isNull(converter) || Objects.isNull(result)) {
+            return result;
+        }
+        return converter.apply(result);
+    }
+
+    String getCellFormat() {
+        return cellFormat;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getConverter(Class<?> fieldType, ExcelColumn excelColumn) {
+        if (Objects.nonNull(excelColumn) && excelColumn.converter() != ValueConverter.class) {
+            ValueConverter<Object> valueConverter = newConverter(excelColumn.converter());
+            return valueConverter::convert;
+        }
+        if (fieldType.isEnum()) {
+            // 枚举显示值按序号预先计算
+            Object[] constants = fieldType.getEnumConstants();
+            String[] enumLabels = Objects.isNull(excelColumn) ? new String[0] : excelColumn.enumLabels();
+            String[] labels = new String[constants.length];
+            for (int i = 0; i < constants.length; i++) {
+                labels[i] = i < enumLabels.length ? enumLabels[i] : constants[i].toString();
+            }
+            return value -> labels[((Enum<?>) value).ordinal()];
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ValueConverter<Object> newConverter(Class<?> converterClass) {
+        try {
+            Constructor<?> constructor = converterClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            // 转换器的泛型与字段类型一致，由使用者保证
+            return (ValueConverter<Object>) constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw ExcelBuildException.of("Failed to instantiate converter " + converterClass.getName(), e);
+        }
+    }
+
+    private static String getCellFormat(Class<?> fieldType, ExcelColumn excelColumn) {
+        if (Objects.nonNull(excelColumn)) {
+            if (StringUtil.isNotBlank(excelColumn.numberFormat())) {
+                return excelColumn.numberFormat();
+            }
+            if (StringUtil.isNotBlank(excelColumn.dateFormatPattern())) {
+                return DataFormatUtil.toExcelDateFormat(excelColumn.dateFormatPattern());
+            }
+        }
+        if (fieldType == LocalDate.class) {
+            return DataFormatUtil.DEFAULT_DATE_FORMAT;
+        }
+        if (fieldType == LocalDateTime.class || fieldType == Date.class) {
+            return DataFormatUtil.DEFAULT_DATETIME_FORMAT;
+        }
+        return null;
+    }
+}
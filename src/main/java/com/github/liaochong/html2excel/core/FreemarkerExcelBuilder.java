@@ -15,8 +15,7 @@
  */
 package com.github.liaochong.html2excel.core;
 
-import com.github.liaochong.html2excel.core.io.TempFileOperator;
-import com.github.liaochong.html2excel.exception.ExcelBuildException;
+import freemarker.cache.URLTemplateLoader;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateExceptionHandler;
@@ -24,42 +23,49 @@ import org.apache.commons.codec.CharEncoding;
 import org.apache.poi.ss.usermodel.Workbook;
 
 import java.io.IOException;
-import java.io.Writer;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.lang.ref.WeakReference;
+import java.net.URL;
 import java.util.Map;
 import java.util.Objects;
 
 /**
  * freemarker的excel创建者
+ * <p>
+ * 已编译模板按类加载器、路径缓存，多次创建构建者时不会重复编译模板；
+ * 模板中include、import的绝对路径相对于模板所在目录解析
+ * </p>
  *
  * @author liaochong
  * @version 1.0
  */
 public class FreemarkerExcelBuilder extends ExcelBuilder {
 
+    private static final TemplateCache<Template> TEMPLATE_CACHE = new TemplateCache<>(FreemarkerExcelBuilder::compile);
+
     private Template template;
 
+    /**
+     * 预加载模板，通常在应用启动时调用
+     *
+     * @param paths 模板路径
+     */
+    public static void preload(String... paths) {
+        for (String path : paths) {
+            TEMPLATE_CACHE.get(path);
+        }
+    }
+
     /**
      * 设置模板信息
      *
-     * @param path 模板路径，相对路径
+     * @param path 模板路径，classpath路径
      */
     @Override
     public ExcelBuilder template(String path) {
-        try {
-            Configuration cfg = new Configuration(Configuration.VERSION_2_3_23);
-            cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
-            cfg.setDefaultEncoding(CharEncoding.UTF_8);
-
-            String[] filePath = this.splitFilePath(path);
-            cfg.setClassLoaderForTemplateLoading(Thread.currentThread().getContextClassLoader(), filePath[0]);
-            template = cfg.getTemplate(filePath[1]);
-            return this;
-        } catch (IOException e) {
-            throw ExcelBuildException.of("Failed to get freemarker template", e);
-        }
+        template = TEMPLATE_CACHE.get(path);
+        return this;
     }
 
     /**
@@ -71,15 +77,52 @@ public class FreemarkerExcelBuilder extends ExcelBuilder {
     @Override
     public Workbook build(Map<String, Object> data) {
         Objects.requireNonNull(template, "The template cannot be empty. Please set the template first.");
-        Path htmlFile = tempFileOperator.createTempFile("freemarker_temp_", TempFileOperator.HTML_SUFFIX);
-        try (Writer out = Files.newBufferedWriter(htmlFile, StandardCharsets.UTF_8)) {
-            template.process(data, out);
-            return HtmlToExcelFactory.readHtml(htmlFile.toFile(), htmlToExcelFactory).build();
-        } catch (Exception e) {
-            throw ExcelBuildException.of("Failed to build excel", e);
-        } finally {
-            tempFileOperator.deleteTempFile();
-        }
+        return renderAndBuild(out -> template.process(data, out));
+    }
+
+    @Override
+    public void build(Map<String, Object> data, OutputStream out) {
+        Objects.requireNonNull(template, "The template cannot be empty. Please set the template first.");
+        renderAndWrite(writer -> template.process(data, writer), out);
     }
 
+    /**
+     * 编译模板，每个模板使用单独的Configuration，以模板所在目录为加载根路径
+     *
+     * @param classLoader 类加载器
+     * @param path        模板路径
+     * @param reader      模板内容
+     * @return Template
+     * @throws IOException 编译异常
+     */
+    private static Template compile(ClassLoader classLoader, String path, Reader reader) throws IOException {
+        int index = path.lastIndexOf('/');
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_23);
+        cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+        cfg.setDefaultEncoding(CharEncoding.UTF_8);
+        cfg.setTemplateLoader(new WeakClassTemplateLoader(classLoader, index < 0 ? "" : path.substring(0, index)));
+        return new Template(path.substring(index + 1), reader, cfg);
+    }
+
+    /**
+     * 弱引用类加载器的模板加载，避免已缓存的模板阻止应用卸载
+     */
+    private static final class WeakClassTemplateLoader extends URLTemplateLoader {
+
+        private final WeakReference<ClassLoader> classLoader;
+
+        private final String basePath;
+
+        private WeakClassTemplateLoader(ClassLoader classLoader, String basePath) {
+            this.classLoader = new WeakReference<>(classLoader);
+            String path = basePath.startsWith("/") ? basePath.substring(1) : basePath;
+            this.basePath = path.isEmpty() || path.endsWith("/") ? path : path + "/";
+        }
+
+        @Override
+        protected URL getURL(String name) {
+            ClassLoader loader = classLoader.get();
+            return Objects.isNull(loader) ? null : loader.getResource(basePath + name);
+        }
+    }
 }
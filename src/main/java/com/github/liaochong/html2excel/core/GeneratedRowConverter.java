@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 编译期生成的行写入者适配
+ * <p>
+ * 生成代码直接调用getter并写入单元格，取值开销很小，始终在写入线程中顺序写入，不参与并行转换；
+ * {@link #convert(Object, Object[])}仅为满足行转换器约定，将单元格写入转换为值
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+final class GeneratedRowConverter implements RowConverter {
+
+    private final RowWriter<Object> rowWriter;
+
+    private final String[] columnFormats;
+
+    @SuppressWarnings("unchecked")
+    GeneratedRowConverter(RowWriter<?> rowWriter) {
+        this.rowWriter = (RowWriter<Object>) rowWriter;
+        this.columnFormats = rowWriter.getColumnFormats().clone();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnFormats.length;
+    }
+
+    @Override
+    public String[] getColumnFormats() {
+        return columnFormats.clone();
+    }
+
+    @Override
+    public void convert(Object rowData, Object[] values) {
+        if (Objects.isNull(rowData)) {
+            Arrays.fill(values, null);
+            return;
+        }
+        rowWriter.write(rowData, new ValueCapture(values));
+    }
+
+    @Override
+    public void write(Object rowData, Object[] values, GridSheetWriter writer) {
+        writer.startRow();
+        if (Objects.isNull(rowData)) {
+            for (int i = 0; i < columnFormats.length; i++) {
+                writer.writeBlank(i);
+            }
+        } else {
+            rowWriter.write(rowData, writer);
+        }
+        writer.endRow();
+    }
+
+    /**
+     * 将单元格写入转换为值
+     */
+    private static final class ValueCapture implements CellWriter {
+
+        private final Object[] values;
+
+        ValueCapture(Object[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public void writeString(int col, String content) {
+            values[col] = content;
+        }
+
+        @Override
+        public void writeNumber(int col, double value) {
+            values[col] = Double.isNaN(value) ? null : value;
+        }
+
+        @Override
+        public void writeValue(int col, Object value) {
+            values[col] = value;
+        }
+
+        @Override
+        public void writeBlank(int col) {
+            values[col] = null;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+import com.github.liaochong.html2excel.core.jfr.JfrEvents;
+import com.github.liaochong.html2excel.utils.DataFormatUtil;
+import com.github.liaochong.html2excel.utils.TdUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 表格型sheet写入者
+ * <p>
+ * 逐行直接写入sheet，不经过Table/Tr/Td中间模型；表头、奇数行、偶数行样式在首次使用时创建一次，
+ * 列宽随写入累计，配合SXSSF可在恒定内存下写入任意行数。非线程安全。
+ * 日期值写入为日期单元格，指定了列格式的数值写入为数值单元格，带格式的样式按格式缓存，其余值按字符串写入。
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@Slf4j
+final class GridSheetWriter implements CellWriter {
+
+    private static final Map<String, String> COMMON_STYLE;
+
+    private static final Map<String, String> TH_STYLE;
+
+    private static final Map<String, String> ODD_TD_STYLE;
+    /**
+     * 1970-01-01在excel中的日期序号
+     */
+    private static final int EPOCH_EXCEL_DATE = 25569;
+
+    private static final double NANOS_PER_DAY = 86_400_000_000_000D;
+    /**
+     * 常规格式下数值最大显示宽度
+     */
+    private static final int GENERAL_MAX_WIDTH = 11;
+
+    static {
+        Map<String, String> commonStyle = new HashMap<>();
+        commonStyle.put("border-bottom-style", "thin");
+        commonStyle.put("border-left-style", "thin");
+        commonStyle.put("border-right-style", "thin");
+        COMMON_STYLE = Collections.unmodifiableMap(commonStyle);
+
+        Map<String, String> thStyle = new HashMap<>();
+        thStyle.put("font-weight", "bold");
+        thStyle.put("font-size", "14");
+        thStyle.put("text-align", "center");
+        thStyle.put("vertical-align", "center");
+        thStyle.putAll(commonStyle);
+        TH_STYLE = Collections.unmodifiableMap(thStyle);
+
+        Map<String, String> oddTdStyle = new HashMap<>(commonStyle);
+        oddTdStyle.put("background-color", "#f6f8fa");
+        ODD_TD_STYLE = Collections.unmodifiableMap(oddTdStyle);
+    }
+
+    private final ExcelBuildContext context;
+
+    private final Sheet sheet;
+    /**
+     * 每列最大宽度
+     */
+    private int[] colMaxWidths;
+
+    private CellStyle evenCellStyle;
+
+    private CellStyle oddCellStyle;
+    /**
+     * 列格式，无格式的列为null
+     */
+    private String[] columnFormats = new String[0];
+    /**
+     * 带格式的偶数行、奇数行样式，按格式缓存
+     */
+    private final Map<String, CellStyle> evenFormatStyles = new HashMap<>();
+
+    private final Map<String, CellStyle> oddFormatStyles = new HashMap<>();
+
+    private DataFormat dataFormat;
+
+    private Row currentRow;
+
+    private CellStyle currentRowStyle;
+    /**
+     * 下一行行号
+     */
+    private int rowIndex;
+
+    private final long startTime = System.currentTimeMillis();
+
+    private final long startNanos = System.nanoTime();
+
+    private final Object sheetEvent = JfrEvents.beginSheetBuild();
+
+    GridSheetWriter(ExcelBuildContext context, String sheetName, int columnCount) {
+        this.context = context;
+        Workbook workbook = context.getWorkbook();
+        this.sheet = workbook.createSheet(Objects.isNull(sheetName) || sheetName.isEmpty() ? "sheet1" : sheetName);
+        this.colMaxWidths = new int[Math.max(columnCount, 1)];
+    }
+
+    /**
+     * 设置列格式
+     *
+     * @param columnFormats 列格式，按列顺序，无格式的列为null
+     */
+    void setColumnFormats(String[] columnFormats) {
+        this.columnFormats = Objects.isNull(columnFormats) ? new String[0] : columnFormats;
+    }
+
+    /**
+     * 写入标题行
+     *
+     * @param titles 标题
+     */
+    void writeTitles(List<String> titles) {
+        Row row = sheet.createRow(rowIndex++);
+        for (int i = 0, size = titles.size(); i < size; i++) {
+            Cell cell = row.createCell(i);
+            String title = titles.get(i);
+            cell.setCellValue(title);
+            cell.setCellStyle(context.getCellStyle(row, TH_STYLE, true));
+            this.updateWidth(i, TdUtil.getStringWidth(title));
+        }
+        context.setRowHeight(row);
+    }
+
+    /**
+     * 写入数据行
+     *
+     * @param values 行数据，按列顺序
+     */
+    void writeRow(Object[] values) {
+        this.startRow();
+        for (int i = 0; i < values.length; i++) {
+            this.writeValue(i, values[i]);
+        }
+        this.endRow();
+    }
+
+    /**
+     * 开始新的数据行，其后按列写入，最后调用{@link #endRow()}
+     */
+    void startRow() {
+        currentRow = sheet.createRow(rowIndex);
+        currentRowStyle = this.getRowStyle(currentRow);
+    }
+
+    /**
+     * 结束当前数据行
+     */
+    void endRow() {
+        context.setRowHeight(currentRow);
+        currentRow = null;
+        rowIndex++;
+    }
+
+    @Override
+    public void writeValue(int col, Object value) {
+        if (Objects.isNull(value)) {
+            this.writeBlank(col);
+            return;
+        }
+        String format = col < columnFormats.length ? columnFormats[col] : null;
+        if (value instanceof Date) {
+            Cell cell = currentRow.createCell(col);
+            cell.setCellValue((Date) value);
+            this.setDateStyle(cell, col, Objects.isNull(format) ? DataFormatUtil.DEFAULT_DATETIME_FORMAT : format);
+        } else if (value instanceof LocalDateTime) {
+            LocalDateTime dateTime = (LocalDateTime) value;
+            Cell cell = currentRow.createCell(col);
+            cell.setCellValue(dateTime.toLocalDate().toEpochDay() + EPOCH_EXCEL_DATE + dateTime.toLocalTime().toNanoOfDay() / NANOS_PER_DAY);
+            this.setDateStyle(cell, col, Objects.isNull(format) ? DataFormatUtil.DEFAULT_DATETIME_FORMAT : format);
+        } else if (value instanceof LocalDate) {
+            Cell cell = currentRow.createCell(col);
+            cell.setCellValue(((LocalDate) value).toEpochDay() + EPOCH_EXCEL_DATE);
+            this.setDateStyle(cell, col, Objects.isNull(format) ? DataFormatUtil.DEFAULT_DATE_FORMAT : format);
+        } else if (value instanceof Number && Objects.nonNull(format)) {
+            this.writeNumber(col, ((Number) value).doubleValue());
+        } else {
+            this.writeString(col, String.valueOf(value));
+        }
+    }
+
+    /**
+     * 当前行写入字符串单元格
+     *
+     * @param col     列
+     * @param content 内容
+     */
+    @Override
+    public void writeString(int col, String content) {
+        Cell cell = currentRow.createCell(col);
+        cell.setCellValue(content);
+        cell.setCellStyle(currentRowStyle);
+        this.updateWidth(col, TdUtil.getStringWidth(content));
+    }
+
+    /**
+     * 当前行写入数值单元格，不装箱、不转换为字符串，NaN写入为空单元格；列指定了格式时使用该格式
+     *
+     * @param col   列
+     * @param value 数值
+     */
+    @Override
+    public void writeNumber(int col, double value) {
+        if (Double.isNaN(value)) {
+            this.writeBlank(col);
+            return;
+        }
+        Cell cell = currentRow.createCell(col);
+        cell.setCellValue(value);
+        String format = col < columnFormats.length ? columnFormats[col] : null;
+        cell.setCellStyle(Objects.isNull(format) ? currentRowStyle : this.getFormatStyle(format));
+        this.updateWidth(col, numberWidth(value));
+    }
+
+    /**
+     * 当前行写入空单元格
+     *
+     * @param col 列
+     */
+    @Override
+    public void writeBlank(int col) {
+        currentRow.createCell(col).setCellStyle(currentRowStyle);
+    }
+
+    /**
+     * 日期按格式长度估算宽度
+     */
+    private void setDateStyle(Cell cell, int col, String format) {
+        cell.setCellStyle(this.getFormatStyle(format));
+        this.updateWidth(col, format.length());
+    }
+
+    /**
+     * 估算数值在常规格式下的显示宽度，整数按位数计算，小数按常规格式最多显示11个字符计算
+     *
+     * @param value 数值
+     * @return 宽度
+     */
+    static int numberWidth(double value) {
+        if (Double.isInfinite(value)) {
+            return GENERAL_MAX_WIDTH;
+        }
+        double abs = Math.abs(value);
+        int sign = value < 0 ? 1 : 0;
+        if (abs < 1E11 && abs == Math.rint(abs)) {
+            long integer = (long) abs;
+            int digits = 1;
+            while (integer >= 10) {
+                integer /= 10;
+                digits++;
+            }
+            return digits + sign;
+        }
+        return GENERAL_MAX_WIDTH;
+    }
+
+    /**
+     * 完成写入，设置列宽以及冻结区域，同时完成导出
+     *
+     * @return Workbook
+     */
+    Workbook finish() {
+        for (int i = 0; i < colMaxWidths.length; i++) {
+            if (colMaxWidths[i] > 0) {
+                ExcelBuildContext.setColumnWidth(sheet, i, colMaxWidths[i]);
+            }
+        }
+        context.freezePane(sheet, 0);
+        JfrEvents.commitSheetBuild(sheetEvent, sheet);
+        log.info("Write {} rows takes {} ms", rowIndex, System.currentTimeMillis() - startTime);
+        context.completeWrite(System.nanoTime() - startNanos);
+        context.getTracker().complete();
+        return context.getWorkbook();
+    }
+
+    /**
+     * 奇偶行使用不同样式，与行号一致（含标题行）
+     */
+    private CellStyle getRowStyle(Row row) {
+        if (rowIndex % 2 == 0) {
+            if (Objects.isNull(evenCellStyle)) {
+                evenCellStyle = context.getCellStyle(row, COMMON_STYLE, false);
+            }
+            return evenCellStyle;
+        }
+        if (Objects.isNull(oddCellStyle)) {
+            oddCellStyle = context.getCellStyle(row, ODD_TD_STYLE, false);
+        }
+        return oddCellStyle;
+    }
+
+    /**
+     * 获取带格式的行样式，相同格式在同一奇偶行中只创建一次
+     */
+    private CellStyle getFormatStyle(String format) {
+        Map<String, CellStyle> formatStyles = rowIndex % 2 == 0 ? evenFormatStyles : oddFormatStyles;
+        CellStyle cellStyle = formatStyles.get(format);
+        if (Objects.nonNull(cellStyle)) {
+            return cellStyle;
+        }
+        long startTime = System.nanoTime();
+        Object event = JfrEvents.beginStyleCreation();
+        if (Objects.isNull(dataFormat)) {
+            dataFormat = context.getWorkbook().createDataFormat();
+        }
+        cellStyle = context.getWorkbook().createCellStyle();
+        cellStyle.cloneStyleFrom(currentRowStyle);
+        cellStyle.setDataFormat(dataFormat.getFormat(format));
+        formatStyles.put(format, cellStyle);
+        context.addStyleNanos(System.nanoTime() - startTime);
+        JfrEvents.commitStyleCreation(event, sheet, 1);
+        return cellStyle;
+    }
+
+    private void updateWidth(int col, int width) {
+        if (col >= colMaxWidths.length) {
+            colMaxWidths = Arrays.copyOf(colMaxWidths, col + 1);
+        }
+        if (width > colMaxWidths[col]) {
+            colMaxWidths[col] = width;
+        }
+    }
+}
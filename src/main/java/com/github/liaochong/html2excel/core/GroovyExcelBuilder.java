@@ -15,58 +15,58 @@
  */
 package com.github.liaochong.html2excel.core;
 
-import com.github.liaochong.html2excel.core.io.TempFileOperator;
-import com.github.liaochong.html2excel.exception.ExcelBuildException;
-import groovy.lang.Writable;
 import groovy.text.Template;
 import groovy.text.markup.MarkupTemplateEngine;
 import groovy.text.markup.TemplateConfiguration;
 import org.apache.poi.ss.usermodel.Workbook;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.io.Writer;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.OutputStream;
 import java.util.Map;
 import java.util.Objects;
 
 /**
+ * groovy excel创建者
+ * <p>
+ * MarkupTemplateEngine全局唯一，已编译模板按类加载器、路径缓存，避免重复编译生成类导致Metaspace持续增长
+ * </p>
+ *
  * @author liaochong
  * @version 1.0
  */
 public class GroovyExcelBuilder extends ExcelBuilder {
 
+    private static final MarkupTemplateEngine ENGINE = new MarkupTemplateEngine(new TemplateConfiguration());
+
+    private static final TemplateCache<Template> TEMPLATE_CACHE = new TemplateCache<>((classLoader, path, reader) -> ENGINE.createTemplate(reader));
+
     private Template template;
 
+    /**
+     * 预加载模板，通常在应用启动时调用
+     *
+     * @param paths 模板路径
+     */
+    public static void preload(String... paths) {
+        for (String path : paths) {
+            TEMPLATE_CACHE.get(path);
+        }
+    }
+
     @Override
     public ExcelBuilder template(String path) {
-        TemplateConfiguration config = new TemplateConfiguration();
-        MarkupTemplateEngine engine = new MarkupTemplateEngine(config);
-        try (InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream(path);
-             Reader reader = new InputStreamReader(is)) {
-            template = engine.createTemplate(reader);
-            return this;
-        } catch (ClassNotFoundException | IOException e) {
-            throw ExcelBuildException.of("Failed to get groovy template", e);
-        }
+        template = TEMPLATE_CACHE.get(path);
+        return this;
     }
 
     @Override
     public Workbook build(Map<String, Object> renderData) {
         Objects.requireNonNull(template, "The template cannot be empty. Please set the template first.");
-        Path htmlFile = tempFileOperator.createTempFile("groovy_temp_", TempFileOperator.HTML_SUFFIX);
-        try (Writer out = Files.newBufferedWriter(htmlFile, StandardCharsets.UTF_8)) {
-            Writable output = template.make(renderData);
-            output.writeTo(out);
-            return HtmlToExcelFactory.readHtml(htmlFile.toFile(), htmlToExcelFactory).build();
-        } catch (Exception e) {
-            throw ExcelBuildException.of("Failed to build excel", e);
-        } finally {
-            tempFileOperator.deleteTempFile();
-        }
+        return renderAndBuild(out -> template.make(renderData).writeTo(out));
+    }
+
+    @Override
+    public void build(Map<String, Object> renderData, OutputStream out) {
+        Objects.requireNonNull(template, "The template cannot be empty. Please set the template first.");
+        renderAndWrite(writer -> template.make(renderData).writeTo(writer), out);
     }
 }
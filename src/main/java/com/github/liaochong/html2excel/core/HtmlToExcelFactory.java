@@ -17,86 +17,46 @@ package com.github.liaochong.html2excel.core;
 
 import com.github.liaochong.html2excel.core.parser.HtmlTableParser;
 import com.github.liaochong.html2excel.core.parser.Table;
-import com.github.liaochong.html2excel.core.parser.Td;
-import com.github.liaochong.html2excel.core.parser.Tr;
-import com.github.liaochong.html2excel.core.style.BackgroundStyle;
-import com.github.liaochong.html2excel.core.style.BorderStyle;
-import com.github.liaochong.html2excel.core.style.FontStyle;
-import com.github.liaochong.html2excel.core.style.TdDefaultCellStyle;
-import com.github.liaochong.html2excel.core.style.TextAlignStyle;
-import com.github.liaochong.html2excel.core.style.ThDefaultCellStyle;
-import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.Font;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.xssf.streaming.SXSSFWorkbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.File;
 import java.nio.file.NoSuchFileException;
-import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * HtmlToExcelFactory
  * <p>
- * 用于将html table解析成excel
+ * 用于将html table解析成excel，仅负责收集配置，实际构建委托给{@link ExcelEngine}；
+ * 需要在多线程间共享配置时，请直接使用{@link ExcelEngine}
  * </p>
  *
  * @author liaochong
  * @version 1.0
  */
-@Slf4j
 public class HtmlToExcelFactory {
 
     private HtmlTableParser htmlTableParser;
     /**
-     * excel workbook
+     * 读取html的耗时，计入解析阶段
      */
-    private Workbook workbook;
+    private long documentNanos;
     /**
-     * 冻结区域
+     * 引擎配置
      */
-    private FreezePane[] freezePanes;
-    /**
-     * 样式容器
-     */
-    private Map<HtmlTableParser.TableTag, CellStyle> defaultCellStyleMap;
-    /**
-     * 单元格样式映射
-     */
-    private Map<Map<String, String>, CellStyle> cellStyleMap;
-    /**
-     * 每行的单元格最大高度map
-     */
-    private Map<Integer, Short> maxTdHeightMap;
-    /**
-     * 字体map
-     */
-    private Map<String, Font> fontMap;
-    /**
-     * 是否使用默认样式
-     */
-    private boolean useDefaultStyle;
-    /**
-     * 内存数据保有量
-     */
-    private Integer rowAccessWindowSize = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
-    /**
-     * 自定义颜色索引
-     */
-    private AtomicInteger colorIndex = new AtomicInteger(56);
+    private ExcelEngine.Builder engineBuilder;
 
     public HtmlToExcelFactory() {
+        this(ExcelEngine.builder());
+    }
+
+    /**
+     * 使用指定的引擎配置，配置变更对本工厂可见
+     *
+     * @param engineBuilder 引擎配置
+     */
+    HtmlToExcelFactory(ExcelEngine.Builder engineBuilder) {
+        this.engineBuilder = engineBuilder;
     }
 
     /**
@@ -111,7 +71,9 @@ public class HtmlToExcelFactory {
             throw new NoSuchFileException("html file is not exist");
         }
         HtmlToExcelFactory factory = new HtmlToExcelFactory();
+        long startTime = System.nanoTime();
         factory.htmlTableParser = HtmlTableParser.of(htmlFile);
+        factory.documentNanos = System.nanoTime() - startTime;
         return factory;
     }
 
@@ -124,7 +86,9 @@ public class HtmlToExcelFactory {
     public static HtmlToExcelFactory readHtml(String html) {
         Objects.requireNonNull(html);
         HtmlToExcelFactory factory = new HtmlToExcelFactory();
+        long startTime = System.nanoTime();
         factory.htmlTableParser = HtmlTableParser.of(html);
+        factory.documentNanos = System.nanoTime() - startTime;
         return factory;
     }
 
@@ -143,17 +107,28 @@ public class HtmlToExcelFactory {
         if (Objects.isNull(htmlToExcelFactory)) {
             throw new NullPointerException("HtmlToExcelFactory can not be null");
         }
+        long startTime = System.nanoTime();
         htmlToExcelFactory.htmlTableParser = HtmlTableParser.of(htmlFile);
+        htmlToExcelFactory.documentNanos = System.nanoTime() - startTime;
         return htmlToExcelFactory;
     }
 
+    /**
+     * 替换引擎配置
+     *
+     * @param engineBuilder 引擎配置
+     */
+    void setEngineBuilder(ExcelEngine.Builder engineBuilder) {
+        this.engineBuilder = Objects.requireNonNull(engineBuilder);
+    }
+
     /**
      * 设置使用默认样式
      *
      * @return HtmlToExcelFactory
      */
     public HtmlToExcelFactory useDefaultStyle() {
-        this.useDefaultStyle = true;
+        engineBuilder.useDefaultStyle();
         return this;
     }
 
@@ -164,7 +139,7 @@ public class HtmlToExcelFactory {
      * @return HtmlToExcelFactory
      */
     public HtmlToExcelFactory freezePanes(FreezePane... freezePanes) {
-        this.freezePanes = freezePanes;
+        engineBuilder.freezePanes(freezePanes);
         return this;
     }
 
@@ -175,10 +150,7 @@ public class HtmlToExcelFactory {
      * @return HtmlToExcelFactory
      */
     public HtmlToExcelFactory rowAccessWindowSize(int rowAccessWindowSize) {
-        if (rowAccessWindowSize <= 0) {
-            return this;
-        }
-        this.rowAccessWindowSize = rowAccessWindowSize;
+        engineBuilder.rowAccessWindowSize(rowAccessWindowSize);
         return this;
     }
 
@@ -189,188 +161,52 @@ public class HtmlToExcelFactory {
      * @return HtmlToExcelFactory
      */
     public HtmlToExcelFactory workbookType(WorkbookType workbookType) {
-        if (Objects.isNull(workbookType)) {
-            throw new IllegalArgumentException("WorkbookType must be specified,or remove this method, use the default workbookType");
-        }
-        switch (workbookType) {
-            case XLS:
-                workbook = new HSSFWorkbook();
-                break;
-            case XLSX:
-                workbook = new XSSFWorkbook();
-                break;
-            case SXLSX:
-                workbook = new SXSSFWorkbook(rowAccessWindowSize);
-                break;
-            default:
-        }
+        engineBuilder.workbookType(workbookType);
         return this;
     }
 
     /**
-     * 开始构建
+     * 设置workbookType为AUTO时的内存预算
      *
-     * @return Workbook
+     * @param autoHeapBudget 字节数
+     * @return HtmlToExcelFactory
      */
-    public Workbook build() {
-        List<Table> tables = htmlTableParser.getAllTable();
-        return this.build(tables);
+    public HtmlToExcelFactory autoHeapBudget(long autoHeapBudget) {
+        engineBuilder.autoHeapBudget(autoHeapBudget);
+        return this;
     }
 
     /**
-     * 开始构建
+     * 添加导出监听
      *
-     * @return Workbook
+     * @param listener 导出监听
+     * @return HtmlToExcelFactory
      */
-    public Workbook build(List<Table> tables) {
-        if (Objects.isNull(tables) || tables.isEmpty()) {
-            log.warn("There is no any table exist");
-            return emptyWorkbook();
-        }
-        log.info("Start building excel");
-        long startTime = System.currentTimeMillis();
-        // 1、创建工作簿
-        if (Objects.isNull(workbook)) {
-            workbook = new XSSFWorkbook();
-        }
-        if (useDefaultStyle) {
-            defaultCellStyleMap = new EnumMap<>(HtmlTableParser.TableTag.class);
-            defaultCellStyleMap.put(HtmlTableParser.TableTag.th, new ThDefaultCellStyle().supply(workbook));
-            defaultCellStyleMap.put(HtmlTableParser.TableTag.td, new TdDefaultCellStyle().supply(workbook));
-        }
-        // 2、处理解析表格
-        cellStyleMap = new HashMap<>();
-        fontMap = new HashMap<>();
-        for (int i = 0, size = tables.size(); i < size; i++) {
-            Table table = tables.get(i);
-            String sheetName = Objects.isNull(table.getCaption()) || table.getCaption().length() < 1 ? "sheet" + (i + 1) : table.getCaption();
-            Sheet sheet = workbook.createSheet(sheetName);
-
-            // 设置单元格样式
-            this.setTdOfTable(table, sheet);
-
-            if (Objects.nonNull(freezePanes) && freezePanes.length > i) {
-                FreezePane freezePane = freezePanes[i];
-                if (Objects.isNull(freezePane)) {
-                    throw new IllegalStateException("FreezePane is null");
-                }
-                sheet.createFreezePane(freezePane.getColSplit(), freezePane.getRowSplit());
-            }
-        }
-        log.info("Build excel takes {} ms", System.currentTimeMillis() - startTime);
-        return workbook;
+    public HtmlToExcelFactory listener(ExportListener listener) {
+        engineBuilder.listener(listener);
+        return this;
     }
 
     /**
-     * 空工作簿
+     * 开始构建
      *
      * @return Workbook
      */
-    private Workbook emptyWorkbook() {
-        if (Objects.isNull(workbook)) {
-            workbook = new XSSFWorkbook();
-        }
-        Sheet sheet = workbook.createSheet();
-        Row row = sheet.createRow(0);
-        row.createCell(0);
+    public Workbook build() {
+        ExcelEngine engine = engineBuilder.build();
+        ExportTracker tracker = engine.newTracker();
+        List<Table> tables = tracker.getAllTable(htmlTableParser, documentNanos);
+        Workbook workbook = engine.build(tables, tracker);
+        tracker.complete();
         return workbook;
     }
 
     /**
-     * 设置所有单元格，自适应列宽，单元格最大支持字符长度255
-     */
-    private void setTdOfTable(Table table, Sheet sheet) {
-        maxTdHeightMap = new HashMap<>();
-        for (int i = 0, size = table.getTrList().size(); i < size; i++) {
-            Tr tr = table.getTrList().get(i);
-            tr.getTdList().forEach(td -> this.setCell(td, sheet));
-
-            // 设置行高，最小12
-            Row row = sheet.getRow(tr.getIndex());
-            if (Objects.isNull(maxTdHeightMap.get(row.getRowNum()))) {
-                row.setHeightInPoints(row.getHeightInPoints() + 5);
-            } else {
-                row.setHeightInPoints((short) (maxTdHeightMap.get(row.getRowNum()) + 5));
-            }
-            table.getTrList().set(i, null);
-        }
-
-        table.getColMaxWidthMap().forEach((key, value) -> {
-            int contentLength = value << 1;
-            if (contentLength > 255) {
-                contentLength = 255;
-            }
-            sheet.setColumnWidth(key, contentLength << 8);
-        });
-    }
-
-    /**
-     * 设置单元格
-     *
-     * @param td    单元格
-     * @param sheet 单元格所在的sheet
-     */
-    private void setCell(Td td, Sheet sheet) {
-        Row currentRow = sheet.getRow(td.getRow());
-        if (Objects.isNull(currentRow)) {
-            currentRow = sheet.createRow(td.getRow());
-        }
-
-        Cell cell = currentRow.getCell(td.getCol());
-        if (Objects.isNull(cell)) {
-            cell = currentRow.createCell(td.getCol());
-        }
-        cell.setCellValue(td.getContent());
-
-
-        // 设置单元格样式
-        for (int i = td.getRow(), rowBound = td.getRowBound(); i <= rowBound; i++) {
-            Row row = sheet.getRow(i);
-            if (Objects.isNull(row)) {
-                row = sheet.createRow(i);
-            }
-            for (int j = td.getCol(), colBound = td.getColBound(); j <= colBound; j++) {
-                cell = row.getCell(j);
-                if (Objects.isNull(cell)) {
-                    cell = row.createCell(j);
-                }
-                this.setCellStyle(row, cell, td);
-            }
-        }
-        if (td.getColSpan() > 0 || td.getRowSpan() > 0) {
-            sheet.addMergedRegion(new CellRangeAddress(td.getRow(), td.getRowBound(), td.getCol(), td.getColBound()));
-        }
-    }
-
-    /**
-     * 设置单元格样式
+     * 开始构建
      *
-     * @param cell 单元格
-     * @param td   td单元格
+     * @return Workbook
      */
-    private void setCellStyle(Row row, Cell cell, Td td) {
-        if (useDefaultStyle) {
-            if (td.isTh()) {
-                cell.setCellStyle(defaultCellStyleMap.get(HtmlTableParser.TableTag.th));
-            } else {
-                cell.setCellStyle(defaultCellStyleMap.get(HtmlTableParser.TableTag.td));
-            }
-        } else {
-            if (cellStyleMap.containsKey(td.getStyle())) {
-                cell.setCellStyle(cellStyleMap.get(td.getStyle()));
-                return;
-            }
-            CellStyle cellStyle = workbook.createCellStyle();
-            // background-color
-            BackgroundStyle.setBackgroundColor(workbook, cellStyle, td.getStyle(), colorIndex);
-            // text-align
-            TextAlignStyle.setTextAlign(cellStyle, td.getStyle());
-            // border
-            BorderStyle.setBorder(cellStyle, td.getStyle());
-            // font
-            FontStyle.setFont(workbook, row, cellStyle, td.getStyle(), fontMap, maxTdHeightMap);
-            cell.setCellStyle(cellStyle);
-            cellStyleMap.put(td.getStyle(), cellStyle);
-        }
+    public Workbook build(List<Table> tables) {
+        return engineBuilder.build().build(tables);
     }
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Map行转换器
+ * <p>
+ * 列顺序对应的key在创建时解析为key到列序号的索引，转换时遍历行内元素并按索引放入对应列，
+ * 无需反射，也无需逐列在key列表中查找
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+final class MapRowConverter implements RowConverter {
+
+    private final int columnCount;
+
+    private final Map<Object, Integer> columnIndex;
+
+    /**
+     * @param keys 按列顺序排列的key，为null的列为空列
+     */
+    MapRowConverter(List<?> keys) {
+        this.columnCount = keys.size();
+        this.columnIndex = new HashMap<>(keys.size() << 1);
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            Object key = keys.get(i);
+            if (Objects.nonNull(key)) {
+                // 重复的key取首次出现的列
+                columnIndex.put(key, i);
+            }
+        }
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    @Override
+    public String[] getColumnFormats() {
+        return new String[columnCount];
+    }
+
+    @Override
+    public void convert(Object rowData, Object[] values) {
+        Arrays.fill(values, null);
+        if (Objects.isNull(rowData)) {
+            return;
+        }
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) rowData).entrySet()) {
+            Integer index = columnIndex.get(entry.getKey());
+            if (Objects.nonNull(index)) {
+                values[index] = entry.getValue();
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+import java.util.List;
+
+/**
+ * 分页数据提供者
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface PageSupplier<T> {
+
+    /**
+     * 获取分页数据，在后台线程中按页序号依次调用
+     *
+     * @param pageIndex 页序号，从0开始
+     * @return 分页数据，返回null或空集合表示数据已结束
+     */
+    List<T> getPage(int pageIndex);
+}
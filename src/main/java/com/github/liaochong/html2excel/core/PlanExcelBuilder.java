@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+import com.github.liaochong.html2excel.core.parser.Table;
+import com.github.liaochong.html2excel.core.plan.LayoutPlan;
+import com.github.liaochong.html2excel.exception.ExcelBuildException;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.io.BufferedReader;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * 布局计划excel创建者
+ * <p>
+ * 模板为含占位符的静态html，同一路径的模板只编译一次，之后每次构建仅绑定数据，详见{@link LayoutPlan}；
+ * 布局计划与其他模板一样按类加载器、路径缓存，并遵循模板修改检查
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class PlanExcelBuilder extends ExcelBuilder {
+
+    private static final TemplateCache<LayoutPlan> TEMPLATE_CACHE = new TemplateCache<>((classLoader, path, reader) ->
+            LayoutPlan.compile(new BufferedReader(reader).lines().collect(Collectors.joining("\n"))));
+
+    private LayoutPlan layoutPlan;
+
+    /**
+     * 预加载模板，通常在应用启动时调用
+     *
+     * @param paths 模板路径
+     */
+    public static void preload(String... paths) {
+        for (String path : paths) {
+            TEMPLATE_CACHE.get(path);
+        }
+    }
+
+    /**
+     * 设置模板信息
+     *
+     * @param path 模板路径，classpath下路径
+     */
+    @Override
+    public ExcelBuilder template(String path) {
+        layoutPlan = TEMPLATE_CACHE.get(path);
+        return this;
+    }
+
+    /**
+     * 使用已编译的布局计划
+     *
+     * @param layoutPlan 布局计划
+     * @return ExcelBuilder
+     */
+    public ExcelBuilder layoutPlan(LayoutPlan layoutPlan) {
+        this.layoutPlan = Objects.requireNonNull(layoutPlan);
+        return this;
+    }
+
+    @Override
+    public Workbook build(Map<String, Object> renderData) {
+        ExportTracker tracker = getEngine().newTracker();
+        Workbook workbook = this.build(renderData, tracker);
+        tracker.complete();
+        return workbook;
+    }
+
+    /**
+     * 绑定数据后构建并写入输出流，工作簿类型以引擎设置为准
+     *
+     * @param renderData 渲染数据
+     * @param out        输出流
+     */
+    @Override
+    public void build(Map<String, Object> renderData, OutputStream out) {
+        Objects.requireNonNull(out);
+        ExportTracker tracker = getEngine().newTracker();
+        write(this.build(renderData, tracker), tracker, out);
+    }
+
+    private Workbook build(Map<String, Object> renderData, ExportTracker tracker) {
+        Objects.requireNonNull(layoutPlan, "The template cannot be empty. Please set the template first.");
+        try {
+            long startTime = System.nanoTime();
+            List<Table> tables = layoutPlan.bind(renderData);
+            tracker.phase(ExportPhase.LAYOUT, System.nanoTime() - startTime);
+            return getEngine().build(tables, tracker);
+        } catch (Exception e) {
+            throw ExcelBuildException.of("Failed to build excel", e);
+        }
+    }
+}
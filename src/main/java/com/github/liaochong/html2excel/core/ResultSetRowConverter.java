@@ -0,0 +1,147 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+import com.github.liaochong.html2excel.exception.ExcelBuildException;
+import com.github.liaochong.html2excel.utils.DataFormatUtil;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 结果集行转换器
+ * <p>
+ * 创建时读取一次ResultSetMetaData，按列类型生成取值器以及单元格格式：数值列写入为数值单元格，
+ * 日期、时间列写入为日期单元格，其余列按字符串写入。转换的行数据为已定位到当前行的ResultSet，非线程安全。
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+final class ResultSetRowConverter implements RowConverter {
+
+    private static final String NUMBER_FORMAT = "General";
+
+    private static final String TIME_FORMAT = "hh:mm:ss";
+
+    private final ColumnReader[] columnReaders;
+
+    private final String[] columnFormats;
+
+    private final List<String> columnLabels;
+
+    ResultSetRowConverter(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        this.columnReaders = new ColumnReader[columnCount];
+        this.columnFormats = new String[columnCount];
+        this.columnLabels = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            int column = i + 1;
+            columnLabels.add(metaData.getColumnLabel(column));
+            switch (metaData.getColumnType(column)) {
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                    columnReaders[i] = rs -> {
+                        int value = rs.getInt(column);
+                        return rs.wasNull() ? null : value;
+                    };
+                    columnFormats[i] = NUMBER_FORMAT;
+                    break;
+                case Types.BIGINT:
+                    columnReaders[i] = rs -> {
+                        long value = rs.getLong(column);
+                        return rs.wasNull() ? null : value;
+                    };
+                    columnFormats[i] = NUMBER_FORMAT;
+                    break;
+                case Types.REAL:
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                    columnReaders[i] = rs -> {
+                        double value = rs.getDouble(column);
+                        return rs.wasNull() ? null : value;
+                    };
+                    columnFormats[i] = NUMBER_FORMAT;
+                    break;
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                    columnReaders[i] = rs -> rs.getBigDecimal(column);
+                    columnFormats[i] = NUMBER_FORMAT;
+                    break;
+                case Types.DATE:
+                    columnReaders[i] = rs -> rs.getDate(column);
+                    columnFormats[i] = DataFormatUtil.DEFAULT_DATE_FORMAT;
+                    break;
+                case Types.TIME:
+                    columnReaders[i] = rs -> rs.getTime(column);
+                    columnFormats[i] = TIME_FORMAT;
+                    break;
+                case Types.TIMESTAMP:
+                    columnReaders[i] = rs -> rs.getTimestamp(column);
+                    columnFormats[i] = DataFormatUtil.DEFAULT_DATETIME_FORMAT;
+                    break;
+                default:
+                    columnReaders[i] = rs -> rs.getString(column);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 列标签，可作为默认标题
+     *
+     * @return 列标签
+     */
+    List<String> getColumnLabels() {
+        return columnLabels;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnReaders.length;
+    }
+
+    @Override
+    public String[] getColumnFormats() {
+        return columnFormats.clone();
+    }
+
+    @Override
+    public void convert(Object rowData, Object[] values) {
+        ResultSet resultSet = (ResultSet) rowData;
+        try {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = columnReaders[i].read(resultSet);
+            }
+        } catch (SQLException e) {
+            throw ExcelBuildException.of("Failed to read result set", e);
+        }
+    }
+
+    /**
+     * 列取值器
+     */
+    @FunctionalInterface
+    private interface ColumnReader {
+
+        Object read(ResultSet resultSet) throws SQLException;
+    }
+}
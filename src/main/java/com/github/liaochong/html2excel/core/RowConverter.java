@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+/**
+ * 行转换器，将一行数据转换为按列顺序排列的单元格值；创建时完成列解析，转换时不再查找列
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+interface RowConverter {
+
+    /**
+     * 列数
+     *
+     * @return 列数
+     */
+    int getColumnCount();
+
+    /**
+     * 列格式，无格式的列为null
+     *
+     * @return 列格式
+     */
+    String[] getColumnFormats();
+
+    /**
+     * 转换行数据，须线程安全
+     *
+     * @param rowData 行数据，可能为null
+     * @param values  转换结果容器，长度与列数一致
+     */
+    void convert(Object rowData, Object[] values);
+
+    /**
+     * 转换并写入一行，默认转换至容器后按值写入
+     *
+     * @param rowData 行数据，可能为null
+     * @param values  转换结果容器，长度与列数一致
+     * @param writer  写入者
+     */
+    default void write(Object rowData, Object[] values, GridSheetWriter writer) {
+        this.convert(rowData, values);
+        writer.writeRow(values);
+    }
+}
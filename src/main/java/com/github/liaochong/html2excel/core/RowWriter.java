@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+import java.util.List;
+
+/**
+ * 行写入者，将一个对象写入为一行单元格
+ * <p>
+ * 通常由html2excel-processor在编译期为{@link com.github.liaochong.html2excel.core.annotation.ExcelTable}类生成，
+ * 生成类与目标类位于同一包下，命名为目标类名（嵌套类以_连接）加{@link #GENERATED_SUFFIX}；
+ * {@link DefaultExcelBuilder}会自动发现并优先使用，不存在时使用反射取值。实现须无状态、线程安全，并提供无参构造函数。
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public interface RowWriter<T> {
+
+    /**
+     * 生成类名后缀
+     */
+    String GENERATED_SUFFIX = "_RowWriter";
+
+    /**
+     * 标题，不存在任何标题时为null
+     *
+     * @return 标题
+     */
+    List<String> getTitles();
+
+    /**
+     * 列格式，无格式的列为null
+     *
+     * @return 列格式
+     */
+    String[] getColumnFormats();
+
+    /**
+     * 写入一行
+     *
+     * @param data       数据，不为null
+     * @param cellWriter 单元格写入者
+     */
+    void write(T data, CellWriter cellWriter);
+}
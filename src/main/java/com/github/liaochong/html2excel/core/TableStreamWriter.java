@@ -0,0 +1,146 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+import com.github.liaochong.html2excel.core.jfr.JfrEvents;
+import com.github.liaochong.html2excel.core.parser.StreamingTableParser;
+import com.github.liaochong.html2excel.core.parser.Table;
+import com.github.liaochong.html2excel.core.parser.Td;
+import com.github.liaochong.html2excel.core.parser.Tr;
+import com.github.liaochong.html2excel.exception.ExcelBuildException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * 表格流式写入者
+ * <p>
+ * 逐行接收{@link StreamingTableParser}解析完成的行并写入sheet，每行写入后仅保留仍会被跨行单元格写入的行，
+ * 其余行立即刷新到临时文件。非线程安全。
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@Slf4j
+final class TableStreamWriter implements StreamingTableParser.Handler {
+
+    private final ExcelBuildContext context;
+
+    private Sheet sheet;
+
+    private Object sheetEvent;
+    /**
+     * 当前表格中跨行单元格的最大行边界
+     */
+    private int maxRowBound;
+
+    private int rowCount;
+
+    private final long startTime = System.currentTimeMillis();
+    /**
+     * 写入累计耗时，不含解析
+     */
+    private long writeNanos;
+
+    TableStreamWriter(ExcelBuildContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public void startTable(Table table) {
+        long startNanos = System.nanoTime();
+        sheetEvent = JfrEvents.beginSheetBuild();
+        String caption = table.getCaption();
+        String sheetName = Objects.isNull(caption) || caption.isEmpty() ? "sheet" + (table.getIndex() + 1) : caption;
+        sheet = context.getWorkbook().createSheet(sheetName);
+        maxRowBound = -1;
+        writeNanos += System.nanoTime() - startNanos;
+    }
+
+    @Override
+    public void row(Tr tr) {
+        long startNanos = System.nanoTime();
+        for (Td td : tr.getTdList()) {
+            context.setCell(td, sheet);
+            if (td.getRowBound() > maxRowBound) {
+                maxRowBound = td.getRowBound();
+            }
+        }
+        Row row = sheet.getRow(tr.getIndex());
+        if (Objects.isNull(row)) {
+            row = sheet.createRow(tr.getIndex());
+        }
+        context.setRowHeight(row);
+        rowCount++;
+        this.flushRows(Math.max(maxRowBound - tr.getIndex(), 0));
+        writeNanos += System.nanoTime() - startNanos;
+    }
+
+    @Override
+    public void endTable(Table table) {
+        long startNanos = System.nanoTime();
+        table.getColMaxWidthMap().forEach((col, width) -> ExcelBuildContext.setColumnWidth(sheet, col, width));
+        context.freezePane(sheet, table.getIndex());
+        this.flushRows(0);
+        JfrEvents.commitSheetBuild(sheetEvent, sheet);
+        sheetEvent = null;
+        writeNanos += System.nanoTime() - startNanos;
+    }
+
+    long getWriteNanos() {
+        return writeNanos;
+    }
+
+    /**
+     * 完成写入
+     *
+     * @return Workbook
+     */
+    Workbook finish() {
+        if (Objects.isNull(sheet)) {
+            log.warn("There is no any table exist");
+            context.emptyWorkbook();
+        } else {
+            log.info("Stream {} rows takes {} ms", rowCount, System.currentTimeMillis() - startTime);
+        }
+        context.completeWrite(writeNanos);
+        return context.getWorkbook();
+    }
+
+    /**
+     * 刷新已完成的行
+     *
+     * @param remaining 保留在内存中的行数
+     */
+    private void flushRows(int remaining) {
+        if (!(sheet instanceof SXSSFSheet)) {
+            return;
+        }
+        Object event = JfrEvents.beginFlush();
+        try {
+            ((SXSSFSheet) sheet).flushRows(remaining);
+            JfrEvents.commitFlush(event, (SXSSFSheet) sheet, remaining);
+        } catch (IOException e) {
+            throw ExcelBuildException.of("Failed to flush rows", e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+import com.github.liaochong.html2excel.exception.ExcelBuildException;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 已编译模板缓存
+ * <p>
+ * 按类加载器、classpath路径缓存已编译的模板，同一模板只编译一次，供所有构建者共享；
+ * 类加载器取自获取模板时的线程上下文，仅被弱引用，应用卸载后其模板随之释放，已编译模板不得强引用类加载器。
+ * 开启修改检查后，位于文件系统中的模板按检查间隔比较修改时间，修改后重新编译，jar中的模板不检查
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+final class TemplateCache<T> {
+
+    /**
+     * 修改检查间隔，小于0时不检查
+     */
+    private static volatile long checkInterval = -1;
+    /**
+     * 修改检查开关变化的监听，用于同步自行缓存模板的引擎
+     */
+    private static final CopyOnWriteArrayList<Consumer<Boolean>> CHECK_LISTENERS = new CopyOnWriteArrayList<>();
+
+    private final TemplateCompiler<T> compiler;
+    /**
+     * 各类加载器的模板，访问须持有该对象锁
+     */
+    private final Map<ClassLoader, ConcurrentMap<String, CachedTemplate<T>>> templates = new WeakHashMap<>();
+
+    TemplateCache(TemplateCompiler<T> compiler) {
+        this.compiler = Objects.requireNonNull(compiler);
+    }
+
+    static synchronized void setCheckInterval(long intervalMillis) {
+        boolean checkModified = isCheckModified();
+        checkInterval = intervalMillis;
+        if (checkModified != isCheckModified()) {
+            CHECK_LISTENERS.forEach(listener -> listener.accept(!checkModified));
+        }
+    }
+
+    /**
+     * 添加修改检查开关变化的监听
+     *
+     * @param listener 监听，参数为是否检查修改
+     */
+    static void addCheckListener(Consumer<Boolean> listener) {
+        CHECK_LISTENERS.add(Objects.requireNonNull(listener));
+    }
+
+    static boolean isCheckModified() {
+        return checkInterval >= 0;
+    }
+
+    /**
+     * 获取已编译模板，不存在或已修改时编译
+     *
+     * @param path 模板路径
+     * @return 模板
+     */
+    T get(String path) {
+        Objects.requireNonNull(path);
+        ClassLoader classLoader = currentClassLoader();
+        ConcurrentMap<String, CachedTemplate<T>> loaderTemplates;
+        synchronized (templates) {
+            loaderTemplates = templates.computeIfAbsent(classLoader, key -> new ConcurrentHashMap<>());
+        }
+        CachedTemplate<T> cached = loaderTemplates.computeIfAbsent(path, key -> this.load(classLoader, key));
+        if (cached.isModified()) {
+            cached = this.load(classLoader, path);
+            loaderTemplates.put(path, cached);
+        }
+        return cached.template;
+    }
+
+    /**
+     * 当前线程上下文类加载器，未设置时为本类的类加载器
+     *
+     * @return ClassLoader
+     */
+    static ClassLoader currentClassLoader() {
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        return Objects.isNull(contextClassLoader) ? TemplateCache.class.getClassLoader() : contextClassLoader;
+    }
+
+    private CachedTemplate<T> load(ClassLoader classLoader, String path) {
+        URL url = getResource(classLoader, path);
+        if (Objects.isNull(url)) {
+            throw ExcelBuildException.of("Template " + path + " does not exist", null);
+        }
+        File file = null;
+        try {
+            if ("file".equals(url.getProtocol())) {
+                file = Paths.get(url.toURI()).toFile();
+            }
+            long lastModified = Objects.isNull(file) ? 0 : file.lastModified();
+            try (InputStream is = url.openStream();
+                 Reader reader = new InputStreamReader(is, StandardCharsets.UTF_8)) {
+                return new CachedTemplate<>(compiler.compile(classLoader, path, reader), file, lastModified);
+            }
+        } catch (Exception e) {
+            throw ExcelBuildException.of("Failed to compile template " + path, e);
+        }
+    }
+
+    /**
+     * 优先使用指定类加载器查找模板
+     *
+     * @param classLoader 类加载器
+     * @param path        模板路径
+     * @return 模板资源，不存在为null
+     */
+    private static URL getResource(ClassLoader classLoader, String path) {
+        String name = path.startsWith("/") ? path.substring(1) : path;
+        URL url = classLoader.getResource(name);
+        return Objects.isNull(url) ? TemplateCache.class.getClassLoader().getResource(name) : url;
+    }
+
+    /**
+     * 模板编译
+     */
+    @FunctionalInterface
+    interface TemplateCompiler<T> {
+
+        /**
+         * 编译模板
+         *
+         * @param classLoader 加载模板的类加载器，已编译模板不得强引用
+         * @param path        模板路径
+         * @param reader      模板内容
+         * @return 已编译模板
+         * @throws Exception 编译异常
+         */
+        T compile(ClassLoader classLoader, String path, Reader reader) throws Exception;
+    }
+
+    private static final class CachedTemplate<T> {
+
+        private final T template;
+        /**
+         * 模板文件，不在文件系统中时为null
+         */
+        private final File file;
+
+        private final long lastModified;
+
+        private volatile long lastChecked = System.currentTimeMillis();
+
+        private CachedTemplate(T template, File file, long lastModified) {
+            this.template = template;
+            this.file = file;
+            this.lastModified = lastModified;
+        }
+
+        private boolean isModified() {
+            long interval = checkInterval;
+            if (interval < 0 || Objects.isNull(file)) {
+                return false;
+            }
+            long now = System.currentTimeMillis();
+            if (now - lastChecked < interval) {
+                return false;
+            }
+            lastChecked = now;
+            return file.lastModified() != lastModified;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core;
+
+import com.github.liaochong.html2excel.core.parser.Table;
+import com.github.liaochong.html2excel.core.parser.Td;
+import com.github.liaochong.html2excel.core.parser.Tr;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 工作簿规模估算，用于{@link WorkbookType#AUTO}选择工作簿类型以及内存行数保有量
+ * <p>
+ * 每单元格占用按实测取整：XSSF全部单元格常驻内存，约1.25KB；SXSSF仅内存窗口中的行常驻，约320B
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@Slf4j
+final class WorkbookEstimate {
+
+    static final String HEAP_BUDGET_PROPERTY = "html2excel.auto.budget";
+
+    static final long XSSF_CELL_BYTES = 1280;
+
+    static final long SXSSF_CELL_BYTES = 320;
+    /**
+     * 规模未知，如迭代器、结果集
+     */
+    static final WorkbookEstimate UNKNOWN = new WorkbookEstimate(-1, -1, 1, 1);
+    /**
+     * 单元格数，含合并区域覆盖的单元格，未知时为-1
+     */
+    private final long cellCount;
+    /**
+     * 行数，未知时为-1
+     */
+    private final long rowCount;
+    /**
+     * 最大列数
+     */
+    private final int columnCount;
+    /**
+     * 最高单元格覆盖的行数
+     */
+    private final int maxRowSpan;
+
+    private WorkbookEstimate(long cellCount, long rowCount, int columnCount, int maxRowSpan) {
+        this.cellCount = cellCount;
+        this.rowCount = rowCount;
+        this.columnCount = Math.max(columnCount, 1);
+        this.maxRowSpan = Math.max(maxRowSpan, 1);
+    }
+
+    /**
+     * 扫描已解析的表格
+     *
+     * @param tables 表格
+     * @return WorkbookEstimate
+     */
+    static WorkbookEstimate of(List<Table> tables) {
+        if (Objects.isNull(tables)) {
+            return new WorkbookEstimate(0, 0, 1, 1);
+        }
+        long cellCount = 0;
+        long rowCount = 0;
+        int columnCount = 1;
+        int maxRowSpan = 1;
+        for (Table table : tables) {
+            List<Tr> trList = table.getTrList();
+            if (Objects.isNull(trList)) {
+                continue;
+            }
+            rowCount += trList.size();
+            for (Tr tr : trList) {
+                for (Td td : tr.getTdList()) {
+                    int rows = td.getRowBound() - td.getRow() + 1;
+                    int cols = td.getColBound() - td.getCol() + 1;
+                    cellCount += (long) rows * cols;
+                    maxRowSpan = Math.max(maxRowSpan, rows);
+                    columnCount = Math.max(columnCount, td.getColBound() + 1);
+                }
+            }
+        }
+        return new WorkbookEstimate(cellCount, rowCount, columnCount, maxRowSpan);
+    }
+
+    /**
+     * 按行数、列数估算，无跨行单元格
+     *
+     * @param rowCount    行数，未知时为-1
+     * @param columnCount 列数
+     * @return WorkbookEstimate
+     */
+    static WorkbookEstimate ofRows(long rowCount, int columnCount) {
+        return new WorkbookEstimate(rowCount < 0 ? -1 : rowCount * Math.max(columnCount, 1), rowCount, columnCount, 1);
+    }
+
+    /**
+     * 使用XSSF时的常驻内存估算
+     *
+     * @return 字节数，规模未知时为-1
+     */
+    long getXssfBytes() {
+        return cellCount < 0 ? -1 : cellCount * XSSF_CELL_BYTES;
+    }
+
+    /**
+     * 选择工作簿：XSSF估算占用不超过预算时使用XSSF，否则使用SXSSF；
+     * 内存行数取期望值与预算可容纳行数中的较小者，但不小于最高单元格覆盖的行数，否则跨行单元格覆盖的行会在写入前被刷新
+     *
+     * @param heapBudget      内存预算
+     * @param preferredWindow 期望的内存行数
+     * @return Workbook
+     */
+    Workbook createWorkbook(long heapBudget, int preferredWindow) {
+        long xssfBytes = this.getXssfBytes();
+        if (xssfBytes >= 0 && xssfBytes <= heapBudget) {
+            log.info("Auto select XLSX for {} cells, estimated {} bytes within budget {} bytes", cellCount, xssfBytes, heapBudget);
+            return new XSSFWorkbook();
+        }
+        long affordableWindow = heapBudget / (columnCount * SXSSF_CELL_BYTES);
+        if (affordableWindow < maxRowSpan) {
+            log.warn("Tallest cell spans {} rows, exceeds {} rows allowed by budget {} bytes", maxRowSpan, affordableWindow, heapBudget);
+        }
+        int window = (int) Math.max(maxRowSpan, Math.min(preferredWindow, affordableWindow));
+        log.info("Auto select SXLSX with window {} for {} rows, {} cells", window, rowCount, cellCount);
+        return new SXSSFWorkbook(window);
+    }
+
+    /**
+     * 默认内存预算，系统属性{@value #HEAP_BUDGET_PROPERTY}指定字节数，未指定时为最大堆的1/4
+     *
+     * @return 字节数
+     */
+    static long defaultHeapBudget() {
+        long fallback = Runtime.getRuntime().maxMemory() / 4;
+        String configured = System.getProperty(HEAP_BUDGET_PROPERTY);
+        if (Objects.isNull(configured) || configured.trim().isEmpty()) {
+            return fallback;
+        }
+        try {
+            long budget = Long.parseLong(configured.trim());
+            if (budget > 0) {
+                return budget;
+            }
+        } catch (NumberFormatException e) {
+            // 使用默认值
+        }
+        log.warn("Invalid {} value {}, use default {} bytes", HEAP_BUDGET_PROPERTY, configured, fallback);
+        return fallback;
+    }
+}
@@ -31,7 +31,17 @@ public enum WorkbookType {
     /**
      * .xlsx，not supported at this version
      */
-    SXLSX;
+    SXLSX,
+    /**
+     * .xlsx，构建前按单元格数、最高跨行估算内存占用，不超过内存预算时使用XLSX，否则使用SXLSX，
+     * 内存行数不小于最高单元格覆盖的行数
+     */
+    AUTO,
+    /**
+     * 未指定，仅作为{@link com.github.liaochong.html2excel.core.annotation.ExcelTable#workbookType()}的默认值，
+     * 由创建者、引擎的设置决定
+     */
+    NONE;
 
     public static boolean isXls(WorkbookType workbookType) {
         return XLS.equals(workbookType);
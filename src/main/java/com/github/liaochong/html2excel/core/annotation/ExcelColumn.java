@@ -15,6 +15,8 @@
  */
 package com.github.liaochong.html2excel.core.annotation;
 
+import com.github.liaochong.html2excel.core.converter.ValueConverter;
+
 import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
@@ -35,9 +37,40 @@ public @interface ExcelColumn {
     int order() default 0;
 
     /**
-     * 时间格式化
+     * 时间格式化，日期类型字段写入为日期单元格，以此格式显示
      *
      * @return 时间格式化
      */
     String dateFormatPattern() default "";
+
+    /**
+     * 数值格式，如#,##0.00，指定后数值写入为数值单元格
+     *
+     * @return 数值格式
+     */
+    String numberFormat() default "";
+
+    /**
+     * 枚举显示值，按枚举序号对应，未指定时使用枚举的toString
+     *
+     * @return 枚举显示值
+     */
+    String[] enumLabels() default {};
+
+    /**
+     * 自定义值转换器，未指定时按字段类型转换
+     *
+     * @return 转换器类型
+     */
+    // 默认值只能使用类字面量，即原始类型的ValueConverter.class
+    @SuppressWarnings("rawtypes")
+    Class<? extends ValueConverter> converter() default ValueConverter.class;
+
+    /**
+     * 嵌套属性路径，如address.city，相对于当前字段取值，路径中任一值为null时写入空单元格；
+     * 指定后格式、转换按路径末端字段的类型处理
+     *
+     * @return 属性路径
+     */
+    String path() default "";
 }
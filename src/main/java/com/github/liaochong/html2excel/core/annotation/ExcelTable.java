@@ -47,11 +47,12 @@ public @interface ExcelTable {
     boolean excludeParent() default false;
 
     /**
-     * 工作簿类型，.xls、.xlsx
+     * 工作簿类型，.xls、.xlsx，AUTO时按数据量选择；
+     * 默认NONE，由创建者、引擎的设置决定，流式构建时为SXLSX
      *
      * @return WorkbookType
      */
-    WorkbookType workbookType() default WorkbookType.XLSX;
+    WorkbookType workbookType() default WorkbookType.NONE;
 
     /**
      * sheeName
@@ -61,7 +62,7 @@ public @interface ExcelTable {
     String sheetName() default "";
 
     /**
-     * 内存行数保有量，只在WorkbookType.SXLSX有效
+     * 内存行数保有量，只在WorkbookType.SXLSX、AUTO有效
      *
      * @return 行数
      */
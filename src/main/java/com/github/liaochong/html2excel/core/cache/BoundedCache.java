@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.cache;
+
+/**
+ * 有容量上限的缓存，可获取当前大小与淘汰次数，容量可在运行时调整
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public interface BoundedCache<E, T> extends Cache<E, T> {
+
+    /**
+     * 当前缓存条目数
+     *
+     * @return 条目数
+     */
+    int size();
+
+    /**
+     * 容量上限
+     *
+     * @return 容量
+     */
+    int getCapacity();
+
+    /**
+     * 调整容量，缩小时立即淘汰超出的条目
+     *
+     * @param capacity 容量
+     */
+    void setCapacity(int capacity);
+
+    /**
+     * 累计淘汰次数
+     *
+     * @return 淘汰次数
+     */
+    long evictionCount();
+
+    /**
+     * 估算的占用字节数
+     *
+     * @return 字节数，未估算时为-1
+     */
+    default long weight() {
+        return -1;
+    }
+}
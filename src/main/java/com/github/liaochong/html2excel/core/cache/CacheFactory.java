@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.cache;
+
+/**
+ * 缓存工厂，用于替换内置缓存的实现
+ *
+ * @author liaochong
+ * @version 1.0
+ * @see CacheRegistry#setCacheFactory(CacheFactory)
+ */
+public interface CacheFactory {
+
+    /**
+     * 创建缓存
+     *
+     * @param name     缓存名称
+     * @param capacity 容量
+     * @param <E>      key类型
+     * @param <T>      value类型
+     * @return 缓存
+     */
+    <E, T> Cache<E, T> create(String name, int capacity);
+
+    /**
+     * 创建按字节数估算的缓存，默认忽略weigher
+     *
+     * @param name     缓存名称
+     * @param capacity 容量
+     * @param weigher  条目字节数估算，可能为null
+     * @param <E>      key类型
+     * @param <T>      value类型
+     * @return 缓存
+     */
+    default <E, T> Cache<E, T> create(String name, int capacity, Weigher<? super E, ? super T> weigher) {
+        return this.create(name, capacity);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.cache;
+
+/**
+ * 缓存JMX管理接口，注册名称为com.github.liaochong.html2excel:type=Cache,name=缓存名称
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public interface CacheMXBean {
+
+    String getName();
+
+    String getImplementation();
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRate();
+
+    long getEvictionCount();
+
+    int getSize();
+
+    int getCapacity();
+
+    void setCapacity(int capacity);
+
+    long getWeight();
+
+    /**
+     * 估算占用字节数上限，未限制时为Long.MAX_VALUE
+     *
+     * @return 字节数
+     */
+    long getMaxWeight();
+
+    void setMaxWeight(long maxWeight);
+
+    void clear();
+}
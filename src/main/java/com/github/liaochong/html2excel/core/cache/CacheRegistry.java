@@ -0,0 +1,259 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 内置缓存注册中心
+ * <p>
+ * 内置缓存按名称注册，可查询统计、运行时调整容量以及替换实现；每个缓存同时以{@link CacheMXBean}注册到平台MBeanServer。
+ * 内置缓存：style（行内样式解析结果）、span（rowspan/colspan取值）
+ * </p>
+ * <p>
+ * 指定{@link Weigher}的缓存按估算字节数共享进程级内存预算，默认16MB，可通过系统属性html2excel.cache.budget（字节数）
+ * 或{@link #setMemoryBudget(long)}设置。预算超出时按份额淘汰，份额为预算除以计入预算的缓存数，
+ * 超出份额的缓存淘汰自身条目，未超出的缓存不受其他缓存影响；单个缓存的字节数上限可通过{@link #setMaxWeight(String, long)}设置
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@Slf4j
+public final class CacheRegistry {
+
+    public static final String JMX_DOMAIN = "com.github.liaochong.html2excel";
+
+    public static final String MEMORY_BUDGET_PROPERTY = "html2excel.cache.budget";
+
+    private static final long DEFAULT_MEMORY_BUDGET = 16L << 20;
+
+    private static final MemoryBudget MEMORY_BUDGET = new MemoryBudget(initialMemoryBudget());
+
+    private static final CacheFactory DEFAULT_FACTORY = new CacheFactory() {
+        @Override
+        public <E, T> Cache<E, T> create(String name, int capacity) {
+            return new ConcurrentCache<>(capacity);
+        }
+
+        @Override
+        public <E, T> Cache<E, T> create(String name, int capacity, Weigher<? super E, ? super T> weigher) {
+            return new ConcurrentCache<>(capacity, Long.MAX_VALUE, weigher, MEMORY_BUDGET);
+        }
+    };
+
+    private static final ConcurrentMap<String, NamedCache<?, ?>> CACHES = new ConcurrentHashMap<>();
+
+    private static volatile CacheFactory cacheFactory = DEFAULT_FACTORY;
+
+    private CacheRegistry() {
+    }
+
+    /**
+     * 注册缓存，名称已存在时返回已注册的缓存
+     *
+     * @param name     缓存名称
+     * @param capacity 容量
+     * @param <E>      key类型
+     * @param <T>      value类型
+     * @return 缓存
+     */
+    public static <E, T> NamedCache<E, T> register(String name, int capacity) {
+        return register(name, capacity, null);
+    }
+
+    /**
+     * 注册按估算字节数计入内存预算的缓存，名称已存在时返回已注册的缓存
+     *
+     * @param name     缓存名称
+     * @param capacity 容量
+     * @param weigher  条目字节数估算，null时不计入预算
+     * @param <E>      key类型
+     * @param <T>      value类型
+     * @return 缓存
+     */
+    @SuppressWarnings("unchecked")
+    public static <E, T> NamedCache<E, T> register(String name, int capacity, Weigher<? super E, ? super T> weigher) {
+        Objects.requireNonNull(name);
+        ConcurrentCache.checkCapacity(capacity);
+        return (NamedCache<E, T>) CACHES.computeIfAbsent(name, key -> {
+            NamedCache<E, T> cache = new NamedCache<>(key, capacity, weigher, cacheFactory.create(key, capacity, weigher));
+            registerMBean(cache);
+            return cache;
+        });
+    }
+
+    /**
+     * 设置缓存工厂，已注册的缓存立即替换为新工厂创建的实现
+     *
+     * @param factory 缓存工厂，null时恢复默认实现
+     */
+    public static synchronized void setCacheFactory(CacheFactory factory) {
+        cacheFactory = Objects.isNull(factory) ? DEFAULT_FACTORY : factory;
+        CACHES.values().forEach(CacheRegistry::recreate);
+    }
+
+    /**
+     * 替换指定缓存的实现
+     *
+     * @param name  缓存名称
+     * @param cache 缓存实现
+     * @param <E>   key类型
+     * @param <T>   value类型
+     */
+    @SuppressWarnings("unchecked")
+    public static <E, T> void replace(String name, Cache<E, T> cache) {
+        ((NamedCache<E, T>) getCache(name)).replace(cache);
+    }
+
+    /**
+     * 调整指定缓存的容量
+     *
+     * @param name     缓存名称
+     * @param capacity 容量
+     */
+    public static void setCapacity(String name, int capacity) {
+        getCache(name).setCapacity(capacity);
+    }
+
+    /**
+     * 调整指定缓存的估算占用字节数上限，仅对指定了字节数估算的缓存生效，缩小时立即淘汰超出的条目
+     *
+     * @param name      缓存名称
+     * @param maxWeight 字节数
+     */
+    public static void setMaxWeight(String name, long maxWeight) {
+        getCache(name).setMaxWeight(maxWeight);
+    }
+
+    /**
+     * 替换指定缓存的字节数估算，缓存随即按当前工厂重新创建
+     *
+     * @param name    缓存名称
+     * @param weigher 条目字节数估算，null时不计入预算
+     * @param <E>     key类型
+     * @param <T>     value类型
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized <E, T> void setWeigher(String name, Weigher<? super E, ? super T> weigher) {
+        NamedCache<E, T> cache = (NamedCache<E, T>) getCache(name);
+        cache.setWeigher(weigher);
+        recreate(cache);
+    }
+
+    /**
+     * 设置进程级内存预算，缩小时各缓存立即淘汰超出的条目
+     *
+     * @param bytes 字节数
+     */
+    public static void setMemoryBudget(long bytes) {
+        MEMORY_BUDGET.setLimit(bytes);
+        MEMORY_BUDGET.rebalance();
+    }
+
+    public static long getMemoryBudget() {
+        return MEMORY_BUDGET.getLimit();
+    }
+
+    /**
+     * 计入预算的缓存估算占用字节数
+     *
+     * @return 字节数
+     */
+    public static long getMemoryUsage() {
+        return MEMORY_BUDGET.getUsed();
+    }
+
+    /**
+     * 获取指定缓存的统计
+     *
+     * @param name 缓存名称
+     * @return 统计快照
+     */
+    public static CacheStats getStats(String name) {
+        return getCache(name).getStats();
+    }
+
+    /**
+     * 获取全部缓存的统计
+     *
+     * @return 缓存名称-统计快照
+     */
+    public static Map<String, CacheStats> getAllStats() {
+        Map<String, CacheStats> stats = new TreeMap<>();
+        CACHES.forEach((name, cache) -> stats.put(name, cache.getStats()));
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * 清空全部缓存
+     */
+    public static void clearAll() {
+        CACHES.values().forEach(NamedCache::clearAll);
+    }
+
+    private static NamedCache<?, ?> getCache(String name) {
+        NamedCache<?, ?> cache = CACHES.get(name);
+        if (Objects.isNull(cache)) {
+            throw new IllegalArgumentException("Cache " + name + " is not registered");
+        }
+        return cache;
+    }
+
+    private static <E, T> void recreate(NamedCache<E, T> cache) {
+        cache.replace(cacheFactory.create(cache.getName(), cache.getConfiguredCapacity(), cache.getWeigher()));
+    }
+
+    private static long initialMemoryBudget() {
+        String configured = System.getProperty(MEMORY_BUDGET_PROPERTY);
+        if (Objects.isNull(configured) || configured.trim().isEmpty()) {
+            return DEFAULT_MEMORY_BUDGET;
+        }
+        try {
+            long budget = Long.parseLong(configured.trim());
+            if (budget > 0) {
+                return budget;
+            }
+        } catch (NumberFormatException e) {
+            // 使用默认值
+        }
+        log.warn("Invalid {} value {}, use default {} bytes", MEMORY_BUDGET_PROPERTY, configured, DEFAULT_MEMORY_BUDGET);
+        return DEFAULT_MEMORY_BUDGET;
+    }
+
+    private static void registerMBean(NamedCache<?, ?> cache) {
+        try {
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=Cache,name=" + ObjectName.quote(cache.getName()));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(cache, objectName);
+        } catch (InstanceAlreadyExistsException e) {
+            // 同一进程内其他类加载器已注册
+            log.debug("Cache MBean {} already registered", cache.getName());
+        } catch (JMException | SecurityException e) {
+            log.warn("Failed to register cache MBean {}", cache.getName(), e);
+        }
+    }
+}
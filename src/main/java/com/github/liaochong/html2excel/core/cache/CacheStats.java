@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.cache;
+
+import lombok.Value;
+
+/**
+ * 缓存统计快照
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@Value
+public class CacheStats {
+
+    String name;
+
+    String implementation;
+
+    long hitCount;
+
+    long missCount;
+
+    long evictionCount;
+    /**
+     * 当前条目数，实现不支持时为-1
+     */
+    int size;
+
+    int capacity;
+    /**
+     * 估算的占用字节数，未估算时为-1
+     */
+    long weight;
+
+    /**
+     * 命中率，无访问时为0
+     *
+     * @return 命中率
+     */
+    public double hitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+}
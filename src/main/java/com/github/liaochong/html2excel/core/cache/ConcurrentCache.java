@@ -0,0 +1,303 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.cache;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 高并发缓存
+ * <p>
+ * 基于ConcurrentHashMap，读取无锁；淘汰采用CLOCK（二次机会）算法近似LRU：
+ * 读取时仅标记访问位，超出容量时按写入顺序扫描，最近被访问过的条目清除访问位后保留，未被访问的条目淘汰。
+ * 淘汰由一个线程执行，其余写入线程不等待。
+ * </p>
+ * <p>
+ * 指定{@link Weigher}时同时按估算的占用字节数限制，条目数与字节数任一超出即淘汰；
+ * 关联内存预算时，预算超出且本缓存超出份额时淘汰自身条目，未超出份额时由占用最多的缓存淘汰
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class ConcurrentCache<E, T> implements BoundedCache<E, T> {
+
+    private static final int DEFAULT_CACHE_SIZE = 500;
+
+    private final ConcurrentMap<E, Node<T>> cacheMap = new ConcurrentHashMap<>();
+    /**
+     * 按写入顺序排列的key，即CLOCK的环
+     */
+    private final Queue<E> clock = new ConcurrentLinkedQueue<>();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final Weigher<? super E, ? super T> weigher;
+
+    private final MemoryBudget budget;
+
+    private final AtomicLong weight = new AtomicLong();
+
+    private volatile int cacheSize;
+
+    private volatile long maxWeight;
+
+    public ConcurrentCache() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    public ConcurrentCache(int cacheSize) {
+        this(cacheSize, Long.MAX_VALUE, null, null);
+    }
+
+    /**
+     * 按条目数与字节数限制的缓存
+     *
+     * @param cacheSize 最大条目数
+     * @param maxWeight 最大字节数
+     * @param weigher   条目字节数估算
+     */
+    public ConcurrentCache(int cacheSize, long maxWeight, Weigher<? super E, ? super T> weigher) {
+        this(cacheSize, maxWeight, Objects.requireNonNull(weigher), null);
+    }
+
+    ConcurrentCache(int cacheSize, long maxWeight, Weigher<? super E, ? super T> weigher, MemoryBudget budget) {
+        checkCapacity(cacheSize);
+        checkMaxWeight(maxWeight);
+        this.cacheSize = cacheSize;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        // 无法估算字节数时不参与预算
+        this.budget = Objects.isNull(weigher) ? null : budget;
+        if (Objects.nonNull(this.budget)) {
+            this.budget.join(this);
+        }
+    }
+
+    @Override
+    public void cache(E key, T value) {
+        // ConcurrentHashMap不支持null，此类条目不缓存
+        if (Objects.isNull(key) || Objects.isNull(value)) {
+            return;
+        }
+        long entryWeight = Objects.isNull(weigher) ? 0 : weigher.weigh(key, value);
+        Node<T> previous = cacheMap.put(key, new Node<>(value, entryWeight));
+        if (Objects.isNull(previous)) {
+            clock.offer(key);
+            this.addWeight(entryWeight);
+        } else {
+            this.addWeight(entryWeight - previous.weight);
+        }
+        if (this.isOverLimit()) {
+            this.evict();
+        }
+        // 本缓存在份额以内而预算仍超出时，由其他超出份额的缓存淘汰
+        if (Objects.nonNull(budget) && budget.isExceeded()) {
+            budget.rebalance();
+        }
+    }
+
+    @Override
+    public T get(E key) {
+        if (Objects.isNull(key)) {
+            return null;
+        }
+        Node<T> node = cacheMap.get(key);
+        if (Objects.isNull(node)) {
+            return null;
+        }
+        // 已标记时不再写入，避免多线程读取同一条目时的缓存行争用
+        if (!node.accessed) {
+            node.accessed = true;
+        }
+        return node.value;
+    }
+
+    @Override
+    public void clearAll() {
+        cacheMap.forEach((key, node) -> {
+            if (cacheMap.remove(key, node)) {
+                this.addWeight(-node.weight);
+            }
+        });
+        clock.clear();
+    }
+
+    @Override
+    public int size() {
+        return cacheMap.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return cacheSize;
+    }
+
+    @Override
+    public void setCapacity(int capacity) {
+        checkCapacity(capacity);
+        this.cacheSize = capacity;
+        this.trim();
+    }
+
+    @Override
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long weight() {
+        return Objects.isNull(weigher) ? -1 : weight.get();
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * 调整最大字节数，缩小时立即淘汰超出的条目
+     *
+     * @param maxWeight 最大字节数
+     */
+    public void setMaxWeight(long maxWeight) {
+        checkMaxWeight(maxWeight);
+        this.maxWeight = maxWeight;
+        this.trim();
+    }
+
+    /**
+     * 超出限制时立即淘汰
+     */
+    void trim() {
+        if (this.isOverLimit()) {
+            this.evict();
+        }
+    }
+
+    /**
+     * 清空并退出内存预算，被替换后调用
+     */
+    void detach() {
+        this.clearAll();
+        if (Objects.nonNull(budget)) {
+            budget.leave(this);
+        }
+    }
+
+    static void checkCapacity(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+    }
+
+    static void checkMaxWeight(long maxWeight) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("MaxWeight must be greater than 0");
+        }
+    }
+
+    private boolean isOverLimit() {
+        long currentWeight = weight.get();
+        return cacheMap.size() > cacheSize
+                || currentWeight > maxWeight
+                || (Objects.nonNull(budget) && budget.isExceeded() && currentWeight > budget.getShare());
+    }
+
+    private void addWeight(long delta) {
+        if (delta == 0) {
+            return;
+        }
+        weight.addAndGet(delta);
+        if (Objects.nonNull(budget)) {
+            budget.add(delta);
+        }
+    }
+
+    /**
+     * 淘汰至限制以内，每轮最多给予一圈保留机会。
+     * 释放锁后再次检查，避免淘汰期间其他线程写入而未能获取锁导致超出限制；
+     * 本缓存已无可淘汰条目或回到预算份额以内时停止
+     */
+    private void evict() {
+        boolean progressed;
+        do {
+            if (!evictionLock.tryLock()) {
+                return;
+            }
+            try {
+                progressed = this.evictRound();
+            } finally {
+                evictionLock.unlock();
+            }
+        } while (progressed && this.isOverLimit());
+    }
+
+    /**
+     * 一轮淘汰
+     *
+     * @return 是否回到限制以内或有条目被淘汰，false表示已无可淘汰条目
+     */
+    private boolean evictRound() {
+        boolean evicted = false;
+        int revolution = clock.size();
+        int scanned = 0;
+        while (this.isOverLimit()) {
+            E key = clock.poll();
+            if (Objects.isNull(key)) {
+                break;
+            }
+            Node<T> node = cacheMap.get(key);
+            if (Objects.isNull(node)) {
+                continue;
+            }
+            // 转过一圈后不再给予保留机会，避免读取频繁时访问位被不断重新标记而无法淘汰
+            if (node.accessed && scanned++ < revolution) {
+                node.accessed = false;
+                clock.offer(key);
+            } else if (cacheMap.remove(key, node)) {
+                this.addWeight(-node.weight);
+                evictions.increment();
+                evicted = true;
+            } else {
+                // 已被替换，继续参与淘汰
+                clock.offer(key);
+            }
+        }
+        return evicted || !this.isOverLimit();
+    }
+
+    private static final class Node<T> {
+
+        private final T value;
+
+        private final long weight;
+
+        private volatile boolean accessed;
+
+        private Node(T value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
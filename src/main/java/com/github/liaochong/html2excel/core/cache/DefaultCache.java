@@ -15,23 +15,32 @@
  */
 package com.github.liaochong.html2excel.core.cache;
 
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
+ * 基于LinkedHashMap的缓存，读写均需加锁，并发读取较多时使用{@link ConcurrentCache}
+ *
  * @author liaochong
  * @version 1.0
  */
-public class DefaultCache<E, T> implements Cache<E, T> {
+public class DefaultCache<E, T> implements BoundedCache<E, T> {
 
     private static final int DEFAULT_CACHE_SIZE = 500;
 
     private int cacheSize = DEFAULT_CACHE_SIZE;
 
+    private long evictions;
+
     private LinkedHashMap<E, T> cacheMap = new LinkedHashMap<E, T>() {
         @Override
         protected boolean removeEldestEntry(Map.Entry<E, T> eldest) {
-            return this.size() > cacheSize;
+            if (this.size() > cacheSize) {
+                evictions++;
+                return true;
+            }
+            return false;
         }
     };
 
@@ -39,6 +48,7 @@ public class DefaultCache<E, T> implements Cache<E, T> {
     }
 
     public DefaultCache(int cacheSize) {
+        ConcurrentCache.checkCapacity(cacheSize);
         this.cacheSize = cacheSize;
     }
 
@@ -48,7 +58,7 @@ public class DefaultCache<E, T> implements Cache<E, T> {
     }
 
     @Override
-    public T get(E key) {
+    public synchronized T get(E key) {
         return cacheMap.get(key);
     }
 
@@ -56,4 +66,31 @@ public class DefaultCache<E, T> implements Cache<E, T> {
     public synchronized void clearAll() {
         cacheMap.clear();
     }
+
+    @Override
+    public synchronized int size() {
+        return cacheMap.size();
+    }
+
+    @Override
+    public synchronized int getCapacity() {
+        return cacheSize;
+    }
+
+    @Override
+    public synchronized void setCapacity(int capacity) {
+        ConcurrentCache.checkCapacity(capacity);
+        this.cacheSize = capacity;
+        Iterator<E> iterator = cacheMap.keySet().iterator();
+        while (cacheMap.size() > capacity && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    @Override
+    public synchronized long evictionCount() {
+        return evictions;
+    }
 }
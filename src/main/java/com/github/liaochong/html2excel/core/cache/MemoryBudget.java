@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.cache;
+
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 多个缓存共享的内存预算
+ * <p>
+ * 预算超出时按份额淘汰：份额为预算除以参与的缓存数，仅超出份额的缓存淘汰自身条目；
+ * 预算未超出时各缓存可使用其他缓存未使用的部分
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+final class MemoryBudget {
+
+    private final AtomicLong used = new AtomicLong();
+
+    private final Set<ConcurrentCache<?, ?>> members = ConcurrentHashMap.newKeySet();
+
+    private volatile long limit;
+
+    MemoryBudget(long limit) {
+        this.setLimit(limit);
+    }
+
+    void add(long delta) {
+        used.addAndGet(delta);
+    }
+
+    boolean isExceeded() {
+        return used.get() > limit;
+    }
+
+    void join(ConcurrentCache<?, ?> cache) {
+        members.add(cache);
+    }
+
+    void leave(ConcurrentCache<?, ?> cache) {
+        members.remove(cache);
+    }
+
+    /**
+     * 每个缓存在预算超出时可保留的字节数
+     *
+     * @return 字节数
+     */
+    long getShare() {
+        int count = members.size();
+        return count == 0 ? limit : limit / count;
+    }
+
+    /**
+     * 预算超出时，由占用最多的缓存依次淘汰至份额以内，直至回到预算以内
+     */
+    void rebalance() {
+        ConcurrentCache<?, ?>[] caches = members.stream()
+                .sorted(Comparator.comparingLong((ConcurrentCache<?, ?> cache) -> cache.weight()).reversed())
+                .toArray(ConcurrentCache<?, ?>[]::new);
+        for (ConcurrentCache<?, ?> cache : caches) {
+            if (!this.isExceeded()) {
+                return;
+            }
+            cache.trim();
+        }
+    }
+
+    long getUsed() {
+        return used.get();
+    }
+
+    long getLimit() {
+        return limit;
+    }
+
+    void setLimit(long limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Memory budget must be greater than 0");
+        }
+        this.limit = limit;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.cache;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 已注册的命名缓存
+ * <p>
+ * 统计命中、未命中次数，实际存储委托给可替换的缓存实现，替换后原有内容丢弃，统计累计保留
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ * @see CacheRegistry
+ */
+public final class NamedCache<E, T> implements Cache<E, T>, CacheMXBean {
+
+    private final String name;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private volatile Cache<E, T> delegate;
+
+    private volatile int capacity;
+
+    private volatile Weigher<? super E, ? super T> weigher;
+
+    private volatile long maxWeight = Long.MAX_VALUE;
+    /**
+     * 已替换的缓存实现的淘汰次数
+     */
+    private volatile long replacedEvictions;
+
+    NamedCache(String name, int capacity, Weigher<? super E, ? super T> weigher, Cache<E, T> delegate) {
+        this.name = name;
+        this.capacity = capacity;
+        this.weigher = weigher;
+        this.delegate = Objects.requireNonNull(delegate);
+    }
+
+    @Override
+    public void cache(E key, T value) {
+        delegate.cache(key, value);
+    }
+
+    @Override
+    public T get(E key) {
+        T value = delegate.get(key);
+        if (Objects.isNull(value)) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    @Override
+    public void clearAll() {
+        delegate.clearAll();
+    }
+
+    /**
+     * 替换缓存实现
+     *
+     * @param cache 缓存实现
+     */
+    synchronized void replace(Cache<E, T> cache) {
+        Objects.requireNonNull(cache);
+        Cache<E, T> previous = delegate;
+        if (previous instanceof BoundedCache) {
+            replacedEvictions += ((BoundedCache<E, T>) previous).evictionCount();
+        }
+        if (cache instanceof ConcurrentCache && maxWeight != Long.MAX_VALUE) {
+            ((ConcurrentCache<E, T>) cache).setMaxWeight(maxWeight);
+        }
+        delegate = cache;
+        if (previous instanceof ConcurrentCache) {
+            ((ConcurrentCache<E, T>) previous).detach();
+        } else {
+            previous.clearAll();
+        }
+    }
+
+    /**
+     * 配置的容量，用于创建替换的缓存实现
+     */
+    int getConfiguredCapacity() {
+        return capacity;
+    }
+
+    Weigher<? super E, ? super T> getWeigher() {
+        return weigher;
+    }
+
+    void setWeigher(Weigher<? super E, ? super T> weigher) {
+        this.weigher = weigher;
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(name, getImplementation(), getHitCount(), getMissCount(), getEvictionCount(), getSize(), getCapacity(), getWeight());
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getImplementation() {
+        return delegate.getClass().getName();
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public long getEvictionCount() {
+        Cache<E, T> current = delegate;
+        long evictions = replacedEvictions;
+        if (current instanceof BoundedCache) {
+            evictions += ((BoundedCache<E, T>) current).evictionCount();
+        }
+        return evictions;
+    }
+
+    @Override
+    public int getSize() {
+        Cache<E, T> current = delegate;
+        return current instanceof BoundedCache ? ((BoundedCache<E, T>) current).size() : -1;
+    }
+
+    @Override
+    public int getCapacity() {
+        Cache<E, T> current = delegate;
+        return current instanceof BoundedCache ? ((BoundedCache<E, T>) current).getCapacity() : capacity;
+    }
+
+    @Override
+    public synchronized void setCapacity(int capacity) {
+        ConcurrentCache.checkCapacity(capacity);
+        this.capacity = capacity;
+        if (delegate instanceof BoundedCache) {
+            ((BoundedCache<E, T>) delegate).setCapacity(capacity);
+        }
+    }
+
+    @Override
+    public long getWeight() {
+        Cache<E, T> current = delegate;
+        return current instanceof BoundedCache ? ((BoundedCache<E, T>) current).weight() : -1;
+    }
+
+    @Override
+    public long getMaxWeight() {
+        Cache<E, T> current = delegate;
+        return current instanceof ConcurrentCache ? ((ConcurrentCache<E, T>) current).getMaxWeight() : maxWeight;
+    }
+
+    @Override
+    public synchronized void setMaxWeight(long maxWeight) {
+        ConcurrentCache.checkMaxWeight(maxWeight);
+        this.maxWeight = maxWeight;
+        if (delegate instanceof ConcurrentCache) {
+            ((ConcurrentCache<E, T>) delegate).setMaxWeight(maxWeight);
+        }
+    }
+
+    @Override
+    public void clear() {
+        delegate.clearAll();
+    }
+}
@@ -13,28 +13,24 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package com.github.liaochong.html2excel.core.parallel;
-
-import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.experimental.FieldDefaults;
+package com.github.liaochong.html2excel.core.cache;
 
 /**
+ * 缓存条目占用字节数估算
+ *
  * @author liaochong
  * @version 1.0
+ * @see Weighers
  */
-@Data
-@FieldDefaults(level = AccessLevel.PRIVATE)
-@AllArgsConstructor
-public class ParallelContainer<T> {
-    /**
-     * 序号
-     */
-    int index;
+@FunctionalInterface
+public interface Weigher<E, T> {
 
     /**
-     * 数据
+     * 估算条目占用的字节数，包括key与value
+     *
+     * @param key   key
+     * @param value value
+     * @return 字节数，不小于0
      */
-    T data;
+    long weigh(E key, T value);
 }
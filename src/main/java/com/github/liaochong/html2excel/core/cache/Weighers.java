@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.cache;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 常用条目的字节数估算，按64位JVM开启压缩指针估算，字符串按每字符2字节计
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public final class Weighers {
+
+    /**
+     * 缓存自身每个条目的开销：ConcurrentHashMap节点、缓存节点以及淘汰队列节点
+     */
+    public static final long ENTRY_OVERHEAD = 80;
+
+    private static final long STRING_SHALLOW = 24;
+
+    private static final long ARRAY_HEADER = 16;
+
+    private static final long HASH_MAP_SHALLOW = 48;
+
+    private static final long HASH_MAP_NODE = 32;
+
+    private static final long INTEGER = 16;
+
+    private static final Weigher<String, Object> STRING_KEY = (key, value) -> ENTRY_OVERHEAD + sizeOf(key) + INTEGER;
+
+    private static final Weigher<String, Map<String, String>> STYLE_MAP = (key, value) -> ENTRY_OVERHEAD + sizeOf(key) + sizeOf(value);
+
+    private Weighers() {
+    }
+
+    /**
+     * 字符串key、小对象value，如跨度缓存
+     *
+     * @return Weigher
+     */
+    public static Weigher<String, Object> stringKey() {
+        return STRING_KEY;
+    }
+
+    /**
+     * 字符串key、字符串map value，如样式缓存
+     *
+     * @return Weigher
+     */
+    public static Weigher<String, Map<String, String>> styleMap() {
+        return STYLE_MAP;
+    }
+
+    /**
+     * 字符串占用字节数
+     *
+     * @param value 字符串
+     * @return 字节数
+     */
+    public static long sizeOf(String value) {
+        if (Objects.isNull(value)) {
+            return 0;
+        }
+        return STRING_SHALLOW + align(ARRAY_HEADER + ((long) value.length() << 1));
+    }
+
+    /**
+     * HashMap及其中字符串占用字节数，共享的空map计为0
+     *
+     * @param map map
+     * @return 字节数
+     */
+    public static long sizeOf(Map<String, String> map) {
+        if (Objects.isNull(map) || map.isEmpty()) {
+            return 0;
+        }
+        int tableSize = 16;
+        while (tableSize * 0.75f < map.size()) {
+            tableSize <<= 1;
+        }
+        long size = HASH_MAP_SHALLOW + align(ARRAY_HEADER + 4L * tableSize);
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            size += HASH_MAP_NODE + sizeOf(entry.getKey()) + sizeOf(entry.getValue());
+        }
+        return size;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
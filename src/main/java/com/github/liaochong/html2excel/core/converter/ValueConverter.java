@@ -0,0 +1,39 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.converter;
+
+/**
+ * 字段值转换器
+ * <p>
+ * 通过{@link com.github.liaochong.html2excel.core.annotation.ExcelColumn#converter()}指定，每列仅实例化一次，
+ * 需提供无参构造函数并保证线程安全。转换结果为Number、Date、LocalDate、LocalDateTime时可配合
+ * numberFormat、dateFormatPattern写入为数值或日期单元格，其余结果按字符串写入。
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface ValueConverter<T> {
+
+    /**
+     * 转换字段值
+     *
+     * @param value 字段值，不为null
+     * @return 单元格值
+     */
+    Object convert(T value);
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内存字符管道
+ * <p>
+ * 写入端按块缓冲字符，块写满后交给读取端，最多缓存maxChunks块，写入过快时阻塞，内存占用与输出总量无关。
+ * 与PipedWriter逐字符同步不同，每块仅同步一次。写入端与读取端须分别由一个线程使用；
+ * 写入端关闭后读取端读到流结束，读取端关闭后写入端抛出IOException。
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public final class CharPipe {
+
+    private static final char[] END = new char[0];
+
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final BlockingQueue<char[]> chunkQueue;
+
+    private final int chunkSize;
+
+    private final Writer writer = new PipeWriter();
+
+    private final Reader reader = new PipeReader();
+    /**
+     * 读取端是否已关闭
+     */
+    private volatile boolean closed;
+
+    public CharPipe(int chunkSize, int maxChunks) {
+        if (chunkSize <= 0 || maxChunks <= 0) {
+            throw new IllegalArgumentException("ChunkSize and maxChunks must be greater than 0");
+        }
+        this.chunkSize = chunkSize;
+        this.chunkQueue = new ArrayBlockingQueue<>(maxChunks);
+    }
+
+    public Writer writer() {
+        return writer;
+    }
+
+    public Reader reader() {
+        return reader;
+    }
+
+    private void put(char[] chunk) throws IOException {
+        try {
+            while (!closed) {
+                if (chunkQueue.offer(chunk, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        throw new IOException("Pipe closed");
+    }
+
+    private final class PipeWriter extends Writer {
+
+        private char[] buffer = new char[chunkSize];
+
+        private int count;
+
+        private boolean writerClosed;
+
+        @Override
+        public void write(int c) throws IOException {
+            this.ensureOpen();
+            if (count == buffer.length) {
+                this.send();
+            }
+            buffer[count++] = (char) c;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            this.ensureOpen();
+            while (len > 0) {
+                if (count == buffer.length) {
+                    this.send();
+                }
+                int n = Math.min(len, buffer.length - count);
+                System.arraycopy(cbuf, off, buffer, count, n);
+                count += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            this.ensureOpen();
+            while (len > 0) {
+                if (count == buffer.length) {
+                    this.send();
+                }
+                int n = Math.min(len, buffer.length - count);
+                str.getChars(off, off + n, buffer, count);
+                count += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.ensureOpen();
+            if (count > 0) {
+                this.send();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writerClosed) {
+                return;
+            }
+            writerClosed = true;
+            if (count > 0) {
+                this.send();
+            }
+            put(END);
+        }
+
+        /**
+         * 已写入的字符交给读取端，块已被读取端持有，不可复用
+         */
+        private void send() throws IOException {
+            char[] chunk = count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
+            put(chunk);
+            buffer = new char[chunkSize];
+            count = 0;
+        }
+
+        private void ensureOpen() throws IOException {
+            if (writerClosed) {
+                throw new IOException("Writer closed");
+            }
+        }
+    }
+
+    private final class PipeReader extends Reader {
+
+        private char[] chunk = new char[0];
+
+        private int position;
+
+        private boolean finished;
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Pipe closed");
+            }
+            if (len == 0) {
+                return 0;
+            }
+            if (position == chunk.length) {
+                if (finished || !this.next()) {
+                    return -1;
+                }
+            }
+            int n = Math.min(len, chunk.length - position);
+            System.arraycopy(chunk, position, cbuf, off, n);
+            position += n;
+            return n;
+        }
+
+        /**
+         * 获取下一个非空块
+         *
+         * @return 是否存在下一块
+         */
+        private boolean next() throws IOException {
+            try {
+                do {
+                    chunk = chunkQueue.take();
+                    position = 0;
+                    if (chunk == END) {
+                        finished = true;
+                        return false;
+                    }
+                } while (chunk.length == 0);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            chunkQueue.clear();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.io;
+
+import com.github.liaochong.html2excel.core.jfr.JfrEvents;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 可溢出到磁盘的缓冲区
+ * <p>
+ * 写入内容不超过阈值时仅保存在内存中，超过后转存到{@link TempFileOperator}工作目录中的临时文件，后续内容直接写入文件。
+ * 写入完成后可多次读取，关闭时删除临时文件。非线程安全。
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public final class SpillableBuffer extends OutputStream {
+
+    /**
+     * 默认内存阈值，4MB
+     */
+    public static final int DEFAULT_THRESHOLD = 4 << 20;
+
+    private static final String PREFIX = "buffer_";
+
+    private static final String SUFFIX = ".tmp";
+
+    private final int threshold;
+
+    private byte[] memory = new byte[256];
+
+    private long size;
+
+    private Path file;
+
+    private OutputStream fileOutput;
+
+    private boolean closed;
+
+    public SpillableBuffer() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    public SpillableBuffer(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative");
+        }
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        this.ensureCapacity(1);
+        if (Objects.isNull(fileOutput)) {
+            memory[(int) size] = (byte) b;
+        } else {
+            fileOutput.write(b);
+        }
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
+        this.ensureCapacity(len);
+        if (Objects.isNull(fileOutput)) {
+            System.arraycopy(b, off, memory, (int) size, len);
+        } else {
+            fileOutput.write(b, off, len);
+        }
+        size += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (Objects.nonNull(fileOutput)) {
+            fileOutput.flush();
+        }
+    }
+
+    /**
+     * 已写入的字节数
+     *
+     * @return 字节数
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * 是否已转存到临时文件
+     *
+     * @return true/false
+     */
+    public boolean isSpilled() {
+        return Objects.nonNull(file);
+    }
+
+    /**
+     * 读取已写入的内容，读取期间不可继续写入
+     *
+     * @return 输入流
+     * @throws IOException 读取异常
+     */
+    public InputStream getInputStream() throws IOException {
+        this.ensureOpen();
+        if (Objects.isNull(file)) {
+            return new ByteArrayInputStream(memory, 0, (int) size);
+        }
+        fileOutput.flush();
+        return Files.newInputStream(file);
+    }
+
+    /**
+     * 将已写入的内容写入到输出流
+     *
+     * @param out 输出流
+     * @throws IOException 写入异常
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        this.ensureOpen();
+        if (Objects.isNull(file)) {
+            out.write(memory, 0, (int) size);
+            return;
+        }
+        fileOutput.flush();
+        Files.copy(file, out);
+    }
+
+    /**
+     * 关闭并删除临时文件
+     *
+     * @throws IOException 删除异常
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        memory = null;
+        if (Objects.nonNull(file)) {
+            try {
+                fileOutput.close();
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private void ensureCapacity(int len) throws IOException {
+        this.ensureOpen();
+        if (Objects.nonNull(fileOutput)) {
+            return;
+        }
+        long required = size + len;
+        if (required > threshold) {
+            this.spill();
+            return;
+        }
+        if (required > memory.length) {
+            memory = Arrays.copyOf(memory, (int) Math.min(Math.max(required, (long) memory.length << 1), threshold));
+        }
+    }
+
+    private void spill() throws IOException {
+        Object event = JfrEvents.beginSpill();
+        file = TempFileOperator.createFile(PREFIX, SUFFIX);
+        try {
+            fileOutput = new BufferedOutputStream(Files.newOutputStream(file));
+            fileOutput.write(memory, 0, (int) size);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            file = null;
+            fileOutput = null;
+            throw e;
+        }
+        memory = null;
+        JfrEvents.commitSpill(event, file, size, threshold);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Buffer closed");
+        }
+    }
+}
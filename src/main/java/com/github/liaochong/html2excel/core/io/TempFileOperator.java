@@ -18,15 +18,43 @@ package com.github.liaochong.html2excel.core.io;
 
 import com.github.liaochong.html2excel.exception.ExcelBuildException;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.util.DefaultTempFileCreationStrategy;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.util.TempFileCreationStrategy;
 
-import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 /**
  * 临时文件操作类
+ * <p>
+ * 临时文件统一创建在临时目录下本进程独占的工作目录中，工作目录由锁文件标识归属，进程退出时删除；
+ * 进程异常退出遗留的工作目录在下次初始化时清理。临时目录默认为系统临时目录下的html2excel，
+ * 可通过系统属性html2excel.tmpdir或{@link #setTempDirectory(Path)}指定。
+ * POI的临时文件策略为JVM全局设置，默认不修改，可通过系统属性html2excel.tmpdir.poi=true或{@link #routePoiTempFiles(boolean)}
+ * 使POI的临时文件也创建于工作目录
+ * </p>
  *
  * @author liaochong
  * @version 1.0
@@ -36,59 +64,164 @@ public class TempFileOperator {
 
     public static final String HTML_SUFFIX = ".html";
 
-    private static final int MAX_CREATE_NO = 9_999;
+    public static final String TEMP_DIRECTORY_PROPERTY = "html2excel.tmpdir";
 
-    private static int createNo;
+    public static final String ROUTE_POI_PROPERTY = "html2excel.tmpdir.poi";
 
-    private static Path templateDir;
+    private static final String WORKSPACE_PREFIX = "jvm-";
+    /**
+     * 本进程工作目录的名称前缀，同一进程内其他类加载器创建的工作目录同样以此开头
+     */
+    private static final String PROCESS_PREFIX = WORKSPACE_PREFIX + processId() + "-";
+
+    private static final String LOCK_FILE = ".lock";
+    /**
+     * 锁文件锁定前的名称，锁定后更名为{@link #LOCK_FILE}，其他进程不会看到未锁定的锁文件
+     */
+    private static final String STAGING_LOCK_FILE = ".lock.staging";
+    /**
+     * 缺少锁文件的工作目录超过该时间视为遗留
+     */
+    private static final long ORPHAN_MIN_AGE_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static final AtomicLong CREATE_NO = new AtomicLong();
+
+    private static volatile Workspace workspace;
+    /**
+     * 已被替换但仍有临时文件的工作目录，进程退出时删除
+     */
+    private static final List<Workspace> RETIRED_WORKSPACES = new ArrayList<>();
+    /**
+     * 本类创建且尚未删除的工作目录，清理遗留目录时跳过，不打开其锁文件
+     */
+    private static final Set<Path> OWNED_WORKSPACES = ConcurrentHashMap.newKeySet();
+
+    private static boolean shutdownHookRegistered;
+    /**
+     * POI临时文件是否创建于工作目录
+     */
+    private static boolean poiTempFilesRouted;
+    /**
+     * 接管前POI的临时文件策略，停止接管时恢复
+     */
+    private static TempFileCreationStrategy previousPoiStrategy;
 
     private Path templateFile;
 
-    static {
+    /**
+     * 设置临时目录，已创建的临时文件不受影响；原工作目录释放锁，为空时立即删除，否则在进程退出时删除
+     *
+     * @param directory 临时目录
+     */
+    public static synchronized void setTempDirectory(Path directory) {
+        Objects.requireNonNull(directory);
+        Workspace previous = workspace;
+        workspace = Workspace.create(directory);
+        if (poiTempFilesRouted) {
+            TempFile.setTempFileCreationStrategy(new DefaultTempFileCreationStrategy(workspace.directory.toFile()));
+        }
+        if (Objects.nonNull(previous) && !previous.retire()) {
+            RETIRED_WORKSPACES.add(previous);
+        }
+    }
+
+    /**
+     * 设置POI的临时文件是否创建于工作目录，该设置影响JVM内所有POI使用者；
+     * 开启后随工作目录变更而变更，关闭时恢复开启前的策略
+     *
+     * @param route 是否创建于工作目录
+     */
+    public static synchronized void routePoiTempFiles(boolean route) {
+        if (route == poiTempFilesRouted) {
+            return;
+        }
+        if (route) {
+            previousPoiStrategy = getPoiStrategy();
+            TempFile.setTempFileCreationStrategy(new DefaultTempFileCreationStrategy(getWorkDirectory().toFile()));
+        } else {
+            TempFile.setTempFileCreationStrategy(previousPoiStrategy);
+            previousPoiStrategy = null;
+        }
+        poiTempFilesRouted = route;
+    }
+
+    /**
+     * POI未提供获取策略的方法，读取失败时视为默认策略
+     */
+    private static TempFileCreationStrategy getPoiStrategy() {
         try {
-            templateDir = Paths.get(new File("").getCanonicalPath());
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            Field field = TempFile.class.getDeclaredField("strategy");
+            field.setAccessible(true);
+            return (TempFileCreationStrategy) field.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Failed to get POI temp file creation strategy", e);
+            return new DefaultTempFileCreationStrategy();
         }
     }
 
     /**
-     * 依据前缀名称创建临时文件
+     * 本进程的临时文件工作目录
+     *
+     * @return 工作目录
+     */
+    public static Path getWorkDirectory() {
+        return getWorkspace().directory;
+    }
+
+    private static Workspace getWorkspace() {
+        Workspace current = workspace;
+        if (Objects.nonNull(current)) {
+            return current;
+        }
+        synchronized (TempFileOperator.class) {
+            if (Objects.isNull(workspace)) {
+                String configured = System.getProperty(TEMP_DIRECTORY_PROPERTY);
+                Path root = Objects.isNull(configured) || configured.trim().isEmpty()
+                        ? Paths.get(System.getProperty("java.io.tmpdir"), "html2excel") : Paths.get(configured.trim());
+                workspace = Workspace.create(root);
+                if (Boolean.getBoolean(ROUTE_POI_PROPERTY)) {
+                    routePoiTempFiles(true);
+                }
+            }
+            return workspace;
+        }
+    }
+
+    /**
+     * 依据前缀名称创建临时文件，文件名在进程内唯一
      *
      * @param prefix 临时文件前缀
      * @param suffix 临时文件后缀
      * @return Path
      */
     public Path createTempFile(String prefix, String suffix) {
-        try {
-            templateFile = Files.createTempFile(templateDir, this.getTempFileName(prefix), suffix);
-            return templateFile;
-        } catch (IOException e) {
-            throw ExcelBuildException.of("Failed to create temp file", e);
-        }
+        templateFile = createFile(prefix, suffix);
+        return templateFile;
     }
 
     /**
-     * 获取临时文件名称
+     * 创建临时文件，由调用方负责删除
      *
-     * @param prefix 文件前缀
-     * @return 文件名称
-     */
-    private String getTempFileName(String prefix) {
-        long currentTimeMillis = System.currentTimeMillis();
-        synchronized (this) {
-            if (createNo > MAX_CREATE_NO) {
-                createNo = 0;
-            }
-            createNo++;
+     * @param prefix 临时文件前缀
+     * @param suffix 临时文件后缀
+     * @return Path
+     */
+    static Path createFile(String prefix, String suffix) {
+        Path directory = getWorkDirectory();
+        try {
+            return Files.createFile(directory.resolve(prefix + CREATE_NO.incrementAndGet() + suffix));
+        } catch (IOException e) {
+            throw ExcelBuildException.of("Failed to create temp file", e);
         }
-        return prefix + "_" + Thread.currentThread().getId() + "_" + currentTimeMillis + "_" + createNo;
     }
 
     /**
      * 删除临时文件
      */
     public void deleteTempFile() {
+        if (Objects.isNull(templateFile)) {
+            return;
+        }
         try {
             Files.deleteIfExists(templateFile);
         } catch (IOException e) {
@@ -96,4 +229,169 @@ public class TempFileOperator {
         }
     }
 
+    /**
+     * 注册唯一的退出清理，删除当前以及已被替换的工作目录，须持有类锁调用
+     */
+    private static void registerShutdownHook() {
+        if (shutdownHookRegistered) {
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(TempFileOperator::deleteWorkspaces, "html2excel-temp-cleaner"));
+        shutdownHookRegistered = true;
+    }
+
+    private static synchronized void deleteWorkspaces() {
+        if (poiTempFilesRouted) {
+            routePoiTempFiles(false);
+        }
+        if (Objects.nonNull(workspace)) {
+            workspace.delete();
+        }
+        RETIRED_WORKSPACES.forEach(Workspace::delete);
+    }
+
+    /**
+     * 清理临时目录中其他进程异常退出后遗留的工作目录
+     * <p>
+     * 本进程的工作目录在打开锁文件前跳过：关闭锁文件的任一通道会释放本进程在该文件上的所有锁
+     * </p>
+     *
+     * @param root 临时目录
+     */
+    static void cleanOrphans(Path root) {
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(root, WORKSPACE_PREFIX + "*")) {
+            for (Path directory : directories) {
+                if (isOwned(directory)) {
+                    continue;
+                }
+                if (isOrphan(directory)) {
+                    log.info("Delete orphan temp directory {}", directory);
+                    deleteRecursively(directory);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to clean orphan temp directories in {}", root, e);
+        }
+    }
+
+    private static boolean isOwned(Path directory) {
+        return OWNED_WORKSPACES.contains(directory) || directory.getFileName().toString().startsWith(PROCESS_PREFIX);
+    }
+
+    /**
+     * 进程号，无法获取时使用随机数，此时仅能识别本类创建的工作目录
+     */
+    private static String processId() {
+        String name = ManagementFactory.getRuntimeMXBean().getName();
+        int index = name.indexOf('@');
+        return index > 0 ? name.substring(0, index) : Long.toHexString(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * 锁文件可被锁定说明所属进程已退出
+     */
+    private static boolean isOrphan(Path directory) throws IOException {
+        Path lockFile = directory.resolve(LOCK_FILE);
+        if (!Files.exists(lockFile)) {
+            return System.currentTimeMillis() - Files.getLastModifiedTime(directory).toMillis() > ORPHAN_MIN_AGE_MILLIS;
+        }
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.tryLock();
+            if (Objects.isNull(lock)) {
+                return false;
+            }
+            lock.release();
+            return true;
+        } catch (OverlappingFileLockException e) {
+            // 同一进程内其他类加载器持有
+            return false;
+        }
+    }
+
+    private static void deleteRecursively(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.warn("Failed to delete {}", path);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to delete {}", directory, e);
+        }
+    }
+
+    /**
+     * 本进程的工作目录，进程存活期间持有锁文件的锁
+     */
+    private static final class Workspace {
+
+        private final Path directory;
+
+        private final FileChannel lockChannel;
+
+        private Workspace(Path directory, FileChannel lockChannel) {
+            this.directory = directory;
+            this.lockChannel = lockChannel;
+        }
+
+        private static Workspace create(Path root) {
+            try {
+                Files.createDirectories(root);
+                Path directory = Files.createTempDirectory(root, PROCESS_PREFIX);
+                OWNED_WORKSPACES.add(directory);
+                Path stagingLockFile = directory.resolve(STAGING_LOCK_FILE);
+                FileChannel lockChannel = FileChannel.open(stagingLockFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                try {
+                    lockChannel.lock();
+                    Files.move(stagingLockFile, directory.resolve(LOCK_FILE), StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    lockChannel.close();
+                    throw e;
+                }
+                Workspace workspace = new Workspace(directory, lockChannel);
+                registerShutdownHook();
+                cleanOrphans(root);
+                return workspace;
+            } catch (IOException e) {
+                throw ExcelBuildException.of("Failed to create temp directory in " + root, e);
+            }
+        }
+
+        private void delete() {
+            this.releaseLock();
+            deleteRecursively(directory);
+            OWNED_WORKSPACES.remove(directory);
+        }
+
+        /**
+         * 停止使用，释放锁并删除锁文件，目录为空时一并删除；
+         * 仍有临时文件时保留目录，进程异常退出后按缺少锁文件的遗留目录清理
+         *
+         * @return 目录是否已删除
+         */
+        private boolean retire() {
+            this.releaseLock();
+            try {
+                Files.deleteIfExists(directory.resolve(LOCK_FILE));
+                Files.deleteIfExists(directory);
+                OWNED_WORKSPACES.remove(directory);
+                return true;
+            } catch (DirectoryNotEmptyException e) {
+                return false;
+            } catch (IOException e) {
+                log.warn("Failed to delete temp directory {}", directory, e);
+                return false;
+            }
+        }
+
+        private void releaseLock() {
+            try {
+                lockChannel.close();
+            } catch (IOException e) {
+                log.debug("Failed to release temp directory lock", e);
+            }
+        }
+    }
 }
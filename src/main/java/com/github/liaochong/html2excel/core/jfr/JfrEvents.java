@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.jfr;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Java Flight Recorder事件
+ * <p>
+ * 运行环境提供jdk.jfr（Java 8u262及以上、Java 11及以上）时，解析、sheet构建、新建样式、添加合并区域、
+ * 流式sheet刷新以及缓冲区溢出到临时文件均记录为事件，事件名以{@value #NAME_PREFIX}开头，
+ * 可通过JFR配置按名称开启并设置耗时阈值；不提供时或设置{@value #ENABLED_PROPERTY}=false时全部方法不执行任何操作，
+ * 事件类不会被加载。
+ * </p>
+ * <p>
+ * begin方法返回的事件仅用于传入对应的commit方法，可能为null
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@Slf4j
+public final class JfrEvents {
+
+    public static final String NAME_PREFIX = "com.github.liaochong.html2excel.";
+
+    public static final String CATEGORY = "html2excel";
+
+    public static final String ENABLED_PROPERTY = "html2excel.jfr";
+
+    private static final boolean AVAILABLE = isJfrAvailable();
+
+    private JfrEvents() {
+    }
+
+    /**
+     * 是否记录事件
+     *
+     * @return true/false
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    public static Object beginParse() {
+        return AVAILABLE ? JfrRecorder.beginParse() : null;
+    }
+
+    /**
+     * 提交解析事件
+     *
+     * @param event      事件
+     * @param streaming  是否流式解析
+     * @param tableCount 表格数
+     * @param rowCount   行数
+     * @param charCount  读取的字符数，未知时为-1
+     */
+    public static void commitParse(Object event, boolean streaming, int tableCount, long rowCount, long charCount) {
+        if (Objects.nonNull(event)) {
+            JfrRecorder.commitParse(event, streaming, tableCount, rowCount, charCount);
+        }
+    }
+
+    public static Object beginSheetBuild() {
+        return AVAILABLE ? JfrRecorder.beginSheetBuild() : null;
+    }
+
+    /**
+     * 提交sheet构建事件，行数、合并区域数在提交时从sheet读取
+     *
+     * @param event 事件
+     * @param sheet sheet
+     */
+    public static void commitSheetBuild(Object event, Sheet sheet) {
+        if (Objects.nonNull(event)) {
+            JfrRecorder.commitSheetBuild(event, sheet);
+        }
+    }
+
+    public static Object beginStyleCreation() {
+        return AVAILABLE ? JfrRecorder.beginStyleCreation() : null;
+    }
+
+    /**
+     * 提交新建样式事件
+     *
+     * @param event            事件
+     * @param sheet            使用该样式的sheet
+     * @param declarationCount 样式声明数
+     */
+    public static void commitStyleCreation(Object event, Sheet sheet, int declarationCount) {
+        if (Objects.nonNull(event)) {
+            JfrRecorder.commitStyleCreation(event, sheet, declarationCount);
+        }
+    }
+
+    public static Object beginMergedRegion() {
+        return AVAILABLE ? JfrRecorder.beginMergedRegion() : null;
+    }
+
+    /**
+     * 提交添加合并区域事件
+     *
+     * @param event  事件
+     * @param sheet  sheet
+     * @param region 合并区域
+     */
+    public static void commitMergedRegion(Object event, Sheet sheet, CellRangeAddress region) {
+        if (Objects.nonNull(event)) {
+            JfrRecorder.commitMergedRegion(event, sheet, region);
+        }
+    }
+
+    public static Object beginFlush() {
+        return AVAILABLE ? JfrRecorder.beginFlush() : null;
+    }
+
+    /**
+     * 提交流式sheet刷新事件
+     *
+     * @param event        事件
+     * @param sheet        sheet
+     * @param retainedRows 保留在内存中的行数
+     */
+    public static void commitFlush(Object event, SXSSFSheet sheet, int retainedRows) {
+        if (Objects.nonNull(event)) {
+            JfrRecorder.commitFlush(event, sheet, retainedRows);
+        }
+    }
+
+    public static Object beginSpill() {
+        return AVAILABLE ? JfrRecorder.beginSpill() : null;
+    }
+
+    /**
+     * 提交溢出到临时文件事件
+     *
+     * @param event     事件
+     * @param file      临时文件
+     * @param bytes     溢出时已写入的字节数
+     * @param threshold 内存阈值
+     */
+    public static void commitSpill(Object event, Path file, long bytes, long threshold) {
+        if (Objects.nonNull(event)) {
+            JfrRecorder.commitSpill(event, file, bytes, threshold);
+        }
+    }
+
+    private static boolean isJfrAvailable() {
+        if (!Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true").trim())) {
+            return false;
+        }
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            log.debug("Java Flight Recorder is not available, events are disabled");
+            return false;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.jfr;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+
+import java.nio.file.Path;
+
+/**
+ * 事件的实际创建与提交，仅在jdk.jfr可用时由{@link JfrEvents}调用，其他类不得直接引用本类或事件类；
+ * 方法签名不出现事件类型，保证{@link JfrEvents}校验时不会加载事件类
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+final class JfrRecorder {
+
+    private JfrRecorder() {
+    }
+
+    static Object beginParse() {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitParse(Object e, boolean streaming, int tableCount, long rowCount, long charCount) {
+        ParseEvent event = (ParseEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.streaming = streaming;
+            event.tableCount = tableCount;
+            event.rowCount = rowCount;
+            event.charCount = charCount;
+            event.commit();
+        }
+    }
+
+    static Object beginSheetBuild() {
+        SheetBuildEvent event = new SheetBuildEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitSheetBuild(Object e, Sheet sheet) {
+        SheetBuildEvent event = (SheetBuildEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            Workbook workbook = sheet.getWorkbook();
+            event.tableIndex = workbook.getSheetIndex(sheet);
+            event.sheetName = sheet.getSheetName();
+            event.rowCount = sheet.getLastRowNum() + 1;
+            event.mergedRegionCount = sheet.getNumMergedRegions();
+            event.styleCount = workbook.getNumCellStyles();
+            event.commit();
+        }
+    }
+
+    static Object beginStyleCreation() {
+        StyleRegistryGrowthEvent event = new StyleRegistryGrowthEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitStyleCreation(Object e, Sheet sheet, int declarationCount) {
+        StyleRegistryGrowthEvent event = (StyleRegistryGrowthEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            Workbook workbook = sheet.getWorkbook();
+            event.tableIndex = workbook.getSheetIndex(sheet);
+            event.sheetName = sheet.getSheetName();
+            event.styleCount = workbook.getNumCellStyles();
+            event.fontCount = workbook.getNumberOfFontsAsInt();
+            event.declarationCount = declarationCount;
+            event.commit();
+        }
+    }
+
+    static Object beginMergedRegion() {
+        MergedRegionEvent event = new MergedRegionEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitMergedRegion(Object e, Sheet sheet, CellRangeAddress region) {
+        MergedRegionEvent event = (MergedRegionEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.tableIndex = sheet.getWorkbook().getSheetIndex(sheet);
+            event.sheetName = sheet.getSheetName();
+            event.firstRow = region.getFirstRow();
+            event.lastRow = region.getLastRow();
+            event.firstColumn = region.getFirstColumn();
+            event.lastColumn = region.getLastColumn();
+            event.regionCount = sheet.getNumMergedRegions();
+            event.commit();
+        }
+    }
+
+    static Object beginFlush() {
+        SxssfFlushEvent event = new SxssfFlushEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitFlush(Object e, SXSSFSheet sheet, int retainedRows) {
+        SxssfFlushEvent event = (SxssfFlushEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.tableIndex = sheet.getWorkbook().getSheetIndex(sheet);
+            event.sheetName = sheet.getSheetName();
+            event.retainedRows = retainedRows;
+            event.lastFlushedRow = sheet.getLastFlushedRowNum();
+            event.commit();
+        }
+    }
+
+    static Object beginSpill() {
+        TempFileSpillEvent event = new TempFileSpillEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitSpill(Object e, Path file, long bytes, long threshold) {
+        TempFileSpillEvent event = (TempFileSpillEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = String.valueOf(file);
+            event.bytes = bytes;
+            event.threshold = threshold;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 添加合并区域，xlsx添加时会检查与已有区域是否重叠，耗时随区域数增长
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@Name(JfrEvents.NAME_PREFIX + "MergedRegion")
+@Label("Merged Region")
+@Category(JfrEvents.CATEGORY)
+@Description("Registering a merged region of a rowspan or colspan cell")
+class MergedRegionEvent extends jdk.jfr.Event {
+
+    @Label("Table Index")
+    int tableIndex;
+
+    @Label("Sheet Name")
+    String sheetName;
+
+    @Label("First Row")
+    int firstRow;
+
+    @Label("Last Row")
+    int lastRow;
+
+    @Label("First Column")
+    int firstColumn;
+
+    @Label("Last Column")
+    int lastColumn;
+
+    @Label("Region Count")
+    @Description("Merged regions in the sheet after registering")
+    int regionCount;
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * html解析
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@Name(JfrEvents.NAME_PREFIX + "Parse")
+@Label("Html Parse")
+@Category(JfrEvents.CATEGORY)
+@Description("Parsing html tables, streaming parse includes writing rows")
+class ParseEvent extends jdk.jfr.Event {
+
+    @Label("Streaming")
+    boolean streaming;
+
+    @Label("Table Count")
+    int tableCount;
+
+    @Label("Row Count")
+    long rowCount;
+
+    @Label("Characters")
+    @Description("Characters read, -1 if unknown")
+    long charCount;
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * sheet构建
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@Name(JfrEvents.NAME_PREFIX + "SheetBuild")
+@Label("Sheet Build")
+@Category(JfrEvents.CATEGORY)
+@Description("Writing cells, styles and merged regions of one sheet")
+class SheetBuildEvent extends jdk.jfr.Event {
+
+    @Label("Table Index")
+    int tableIndex;
+
+    @Label("Sheet Name")
+    String sheetName;
+
+    @Label("Row Count")
+    int rowCount;
+
+    @Label("Merged Region Count")
+    int mergedRegionCount;
+
+    @Label("Style Count")
+    @Description("Cell styles in the workbook after the sheet is built")
+    int styleCount;
+}
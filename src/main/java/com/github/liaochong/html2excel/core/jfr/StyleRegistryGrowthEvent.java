@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 新建单元格样式
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@Name(JfrEvents.NAME_PREFIX + "StyleRegistryGrowth")
+@Label("Style Registry Growth")
+@Category(JfrEvents.CATEGORY)
+@Description("A new cell style is created, workbooks support at most 64000 styles")
+class StyleRegistryGrowthEvent extends jdk.jfr.Event {
+
+    @Label("Table Index")
+    int tableIndex;
+
+    @Label("Sheet Name")
+    String sheetName;
+
+    @Label("Style Count")
+    int styleCount;
+
+    @Label("Font Count")
+    int fontCount;
+
+    @Label("Declaration Count")
+    @Description("Css declarations of the style")
+    int declarationCount;
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 流式sheet刷新行到临时文件
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@Name(JfrEvents.NAME_PREFIX + "SxssfFlush")
+@Label("SXSSF Flush")
+@Category(JfrEvents.CATEGORY)
+@Description("Flushing completed rows of a streaming sheet to its temp file")
+class SxssfFlushEvent extends jdk.jfr.Event {
+
+    @Label("Table Index")
+    int tableIndex;
+
+    @Label("Sheet Name")
+    String sheetName;
+
+    @Label("Retained Rows")
+    @Description("Rows kept in memory for pending rowspans")
+    int retainedRows;
+
+    @Label("Last Flushed Row")
+    int lastFlushedRow;
+}
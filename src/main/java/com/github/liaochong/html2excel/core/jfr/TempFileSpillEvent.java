@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 缓冲区溢出到临时文件
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@Name(JfrEvents.NAME_PREFIX + "TempFileSpill")
+@Label("Temp File Spill")
+@Category(JfrEvents.CATEGORY)
+@Description("A buffer exceeds its memory threshold and moves to a temp file")
+class TempFileSpillEvent extends jdk.jfr.Event {
+
+    @Label("Path")
+    String path;
+
+    @Label("Spilled Bytes")
+    @DataAmount(DataAmount.BYTES)
+    long bytes;
+
+    @Label("Threshold")
+    @DataAmount(DataAmount.BYTES)
+    long threshold;
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.parallel;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 默认共享线程池，守护线程，随JVM退出，无需关闭
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public final class DefaultExecutors {
+
+    private DefaultExecutors() {
+    }
+
+    /**
+     * 共享计算线程池，线程数为CPU核数，空闲线程60秒后回收；
+     * 队列已满时由提交线程执行，多个导出并发时线程数不随导出数增长。
+     * 仅用于不阻塞的计算任务，阻塞等待其他线程的任务须使用{@link #background()}
+     *
+     * @return ExecutorService
+     */
+    public static ExecutorService shared() {
+        return Holder.SHARED;
+    }
+
+    /**
+     * 后台线程池，用于分页预取、模板渲染等在整个导出期间阻塞等待调用线程的任务，每个导出至多占用一个线程，
+     * 空闲线程60秒后回收
+     *
+     * @return ExecutorService
+     */
+    public static ExecutorService background() {
+        return BackgroundHolder.BACKGROUND;
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger threadNo = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Holder {
+
+        private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+        private static final ExecutorService SHARED = newSharedExecutor();
+
+        private static ExecutorService newSharedExecutor() {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(THREADS << 1), daemonThreadFactory("html2excel-worker-"),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    private static final class BackgroundHolder {
+
+        private static final ExecutorService BACKGROUND = Executors.newCachedThreadPool(daemonThreadFactory("html2excel-background-"));
+    }
+}
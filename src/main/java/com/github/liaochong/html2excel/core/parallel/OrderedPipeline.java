@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.parallel;
+
+import com.github.liaochong.html2excel.exception.ExcelBuildException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 有序并行转换管道
+ * <p>
+ * 调用线程按块读取数据并提交至执行器并行转换，已提交的块按提交顺序排队，队首完成后由调用线程按序交给消费者；
+ * 在途块数达到上限时调用线程先消费队首再继续读取，内存占用不超过maxInFlight * chunkSize行，无需全量收集后排序。
+ * 消费者始终在调用线程中执行，可安全写入非线程安全的sheet。
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public final class OrderedPipeline<T, R> {
+
+    private final Function<T, R> converter;
+
+    private final Executor executor;
+
+    private final int chunkSize;
+
+    private final int maxInFlight;
+
+    /**
+     * @param converter   转换函数，在工作线程中执行，须线程安全
+     * @param executor    执行器
+     * @param chunkSize   每块行数
+     * @param maxInFlight 最大在途块数
+     */
+    public OrderedPipeline(Function<T, R> converter, Executor executor, int chunkSize, int maxInFlight) {
+        if (chunkSize <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("ChunkSize and maxInFlight must be greater than 0");
+        }
+        this.converter = Objects.requireNonNull(converter);
+        this.executor = Objects.requireNonNull(executor);
+        this.chunkSize = chunkSize;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * 执行管道
+     *
+     * @param source 数据源，在调用线程中读取
+     * @param sink   消费者，在调用线程中按数据源顺序执行
+     */
+    public void run(Iterator<? extends T> source, Consumer<? super R> sink) {
+        Deque<CompletableFuture<Object[]>> inFlight = new ArrayDeque<>(maxInFlight);
+        try {
+            while (source.hasNext()) {
+                Object[] chunk = new Object[chunkSize];
+                int size = 0;
+                while (size < chunkSize && source.hasNext()) {
+                    chunk[size++] = source.next();
+                }
+                if (inFlight.size() >= maxInFlight) {
+                    this.drain(inFlight.pollFirst(), sink);
+                }
+                int chunkLength = size;
+                inFlight.addLast(CompletableFuture.supplyAsync(() -> this.convert(chunk, chunkLength), executor));
+            }
+            while (!inFlight.isEmpty()) {
+                this.drain(inFlight.pollFirst(), sink);
+            }
+        } finally {
+            // 异常时取消尚未开始的转换
+            inFlight.forEach(future -> future.cancel(false));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object[] convert(Object[] chunk, int size) {
+        Object[] result = new Object[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = converter.apply((T) chunk[i]);
+            chunk[i] = null;
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drain(CompletableFuture<Object[]> future, Consumer<? super R> sink) {
+        Object[] result;
+        try {
+            result = future.join();
+        } catch (CompletionException e) {
+            Throwable cause = Objects.isNull(e.getCause()) ? e : e.getCause();
+            if (cause instanceof ExcelBuildException) {
+                throw (ExcelBuildException) cause;
+            }
+            throw ExcelBuildException.of("Failed to convert data", cause);
+        }
+        for (Object r : result) {
+            sink.accept((R) r);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.parallel;
+
+import com.github.liaochong.html2excel.exception.ExcelBuildException;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * 分页预取迭代器
+ * <p>
+ * 后台线程按页序号依次获取分页数据，最多提前获取prefetchDepth页，当前页被消费时下一页已在获取中，
+ * 获取与消费重叠执行。非线程安全，只能由一个线程消费，消费结束或异常时须调用{@link #close()}停止预取。
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public final class PagePrefetchIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private static final Object END = new Object();
+
+    private final BlockingQueue<Object> pageQueue;
+
+    private volatile boolean closed;
+
+    private Iterator<T> current = Collections.emptyIterator();
+
+    private boolean finished;
+
+    public PagePrefetchIterator(IntFunction<List<T>> pageSupplier, int prefetchDepth, Executor executor) {
+        Objects.requireNonNull(pageSupplier);
+        Objects.requireNonNull(executor);
+        if (prefetchDepth <= 0) {
+            throw new IllegalArgumentException("PrefetchDepth must be greater than 0");
+        }
+        this.pageQueue = new ArrayBlockingQueue<>(prefetchDepth);
+        executor.execute(() -> this.prefetch(pageSupplier));
+    }
+
+    private void prefetch(IntFunction<List<T>> pageSupplier) {
+        Object result;
+        try {
+            for (int pageIndex = 0; !closed; pageIndex++) {
+                List<T> page = pageSupplier.apply(pageIndex);
+                if (Objects.isNull(page) || page.isEmpty()) {
+                    break;
+                }
+                if (!this.put(page)) {
+                    return;
+                }
+            }
+            result = END;
+        } catch (Throwable e) {
+            result = e;
+        }
+        this.put(result);
+    }
+
+    /**
+     * 放入队列，队列满时等待消费，关闭后放弃
+     *
+     * @param item 分页数据或结束标识
+     * @return 是否放入成功
+     */
+    private boolean put(Object item) {
+        try {
+            while (!closed) {
+                if (pageQueue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (finished) {
+                return false;
+            }
+            Object item;
+            try {
+                item = pageQueue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw ExcelBuildException.of("Interrupted while waiting for page", e);
+            }
+            if (item == END) {
+                finished = true;
+                return false;
+            }
+            if (item instanceof Throwable) {
+                finished = true;
+                throw ExcelBuildException.of("Failed to get page", (Throwable) item);
+            }
+            current = ((List<T>) item).iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        pageQueue.clear();
+    }
+}
@@ -15,18 +15,22 @@
  */
 package com.github.liaochong.html2excel.core.parser;
 
+import com.github.liaochong.html2excel.core.jfr.JfrEvents;
 import com.github.liaochong.html2excel.utils.StyleUtil;
 import com.github.liaochong.html2excel.utils.TdUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.CharEncoding;
-import org.apache.commons.collections4.CollectionUtils;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
 import org.jsoup.select.Elements;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -50,6 +54,10 @@ public class HtmlTableParser {
      * html解析后文档
      */
     private Document document;
+    /**
+     * 最近一次获取表格时定位单元格、计算列宽的耗时
+     */
+    private long layoutNanos;
 
     private HtmlTableParser() {
 
@@ -69,6 +77,21 @@ public class HtmlTableParser {
         return parser;
     }
 
+    /**
+     * 从字符流读取并解析，字符流可边写入边读取
+     *
+     * @param reader html字符流
+     * @return HtmlTableParser
+     */
+    public static HtmlTableParser of(Reader reader) {
+        Objects.requireNonNull(reader);
+        HtmlTableParser parser = new HtmlTableParser();
+        // 解析器要求字符流支持mark
+        Reader input = reader.markSupported() ? reader : new BufferedReader(reader);
+        parser.document = Parser.htmlParser().parseInput(input, "");
+        return parser;
+    }
+
     /**
      * 获取所有表格
      *
@@ -77,6 +100,8 @@ public class HtmlTableParser {
     public List<Table> getAllTable() {
         log.info("Start parsing html file");
         long startTime = System.currentTimeMillis();
+        layoutNanos = 0;
+        Object event = JfrEvents.beginParse();
         Elements tableElements = document.getElementsByTag(TableTag.table.name());
         List<Table> result = IntStream.range(0, tableElements.size()).mapToObj(i -> {
             Element tableElement = tableElements.get(i);
@@ -94,9 +119,19 @@ public class HtmlTableParser {
             return table;
         }).collect(Collectors.toList());
         log.info("Complete html file parsing,takes {} ms", System.currentTimeMillis() - startTime);
+        JfrEvents.commitParse(event, false, result.size(), result.stream().mapToLong(table -> table.getTrList().size()).sum(), -1);
         return result;
     }
 
+    /**
+     * 最近一次{@link #getAllTable()}中定位单元格、计算列宽的耗时，包含在其总耗时内
+     *
+     * @return 纳秒
+     */
+    public long getLayoutNanos() {
+        return layoutNanos;
+    }
+
     /**
      * 解析table中的tr
      *
@@ -109,19 +144,14 @@ public class HtmlTableParser {
             table.setColMaxWidthMap(Collections.emptyMap());
             return;
         }
+        long layoutStartTime = System.nanoTime();
+        this.adjustTdPosition(sortedTrList);
 
         int lastColumnNum = sortedTrList.parallelStream().max(Comparator.comparing(Tr::getLastColumnNum)).get().getLastColumnNum();
         table.setLastColumnNum(lastColumnNum);
 
         this.setColMaxWidthMap(table);
-
-        // 调整td位置,排除第一行，第一行不需要进行调整
-        if (sortedTrList.size() == 1) {
-            return;
-        }
-        sortedTrList.subList(1, sortedTrList.size()).parallelStream().forEach(tr -> {
-            tr.getTdList().parallelStream().forEach(td -> this.adjustTdPosition(td, tr.getIndex(), sortedTrList));
-        });
+        layoutNanos += System.nanoTime() - layoutStartTime;
     }
 
     /**
@@ -185,8 +215,6 @@ public class HtmlTableParser {
             return;
         }
         tr.setColWidthMap(new HashMap<>(tdElements.size()));
-        // 单元格偏移量
-        int shift = 0;
         for (int i = 0, size = tdElements.size(); i < size; i++) {
             Element tdElement = tdElements.get(i);
             Td td = new Td();
@@ -195,8 +223,6 @@ public class HtmlTableParser {
             td.setTh(Objects.equals(TableTag.th.name(), tdElement.tagName()));
             td.setRow(tr.getIndex());
             td.setStyle(StyleUtil.mixStyle(tr.getStyle(), StyleUtil.parseStyle(tdElement)));
-            // 除每行第一个单元格外，修正含跨列的单元格位置
-            td.setCol(i + shift);
 
             String colSpan = tdElement.attr(TableTag.colspan.name());
             td.setColSpan(TdUtil.getSpan(colSpan));
@@ -207,50 +233,41 @@ public class HtmlTableParser {
             int rowBound = TdUtil.get(td::getRowSpan, td::getRow);
             td.setRowBound(rowBound);
 
-            int colBound = TdUtil.get(td::getColSpan, td::getCol);
-            td.setColBound(colBound);
-
-            if (td.getColSpan() > 0) {
-                shift += td.getColSpan() - 1;
-            }
-
             tr.getTdList().add(td);
-
-            // 设置每列宽度
-            int width = TdUtil.getStringWidth(td.getContent());
-            tr.getColWidthMap().put(td.getCol(), width);
         }
-
-        int lastColNumber = tr.getTdList().stream().mapToInt(td -> td.getColSpan() > 0 ? td.getColSpan() : 1).sum();
-        tr.setLastColumnNum(lastColNumber);
     }
 
     /**
-     * 调整表格单元格位置
+     * 调整表格单元格位置：按行顺序跳过被上方跨行单元格占用的列，并记录每列宽度
      *
-     * @param td      单元格
-     * @param trIndex 行索引
-     * @param trList  所有行
+     * @param trList 所有行
      */
-    private void adjustTdPosition(Td td, int trIndex, List<Tr> trList) {
-        List<Td> rowSpanTds = trList.subList(0, trIndex).stream()
-                .flatMap(tr -> tr.getTdList().stream())
-                .filter(t -> t.getRowSpan() > 0 && t.getCol() <= td.getCol()
-                        && t.getRowBound() >= td.getRow())
-                .collect(Collectors.toList());
-
-        if (CollectionUtils.isEmpty(rowSpanTds)) {
-            return;
+    private void adjustTdPosition(List<Tr> trList) {
+        // 每列被跨行单元格占用到的行
+        int[] occupiedUntil = new int[16];
+        Arrays.fill(occupiedUntil, -1);
+        for (Tr tr : trList) {
+            int col = 0;
+            for (Td td : tr.getTdList()) {
+                while (col < occupiedUntil.length && occupiedUntil[col] >= tr.getIndex()) {
+                    col++;
+                }
+                td.setCol(col);
+                td.setColBound(TdUtil.get(td::getColSpan, td::getCol));
+                if (td.getRowSpan() > 0) {
+                    if (td.getColBound() >= occupiedUntil.length) {
+                        int oldLength = occupiedUntil.length;
+                        occupiedUntil = Arrays.copyOf(occupiedUntil, Math.max(oldLength << 1, td.getColBound() + 1));
+                        Arrays.fill(occupiedUntil, oldLength, occupiedUntil.length, -1);
+                    }
+                    Arrays.fill(occupiedUntil, td.getCol(), td.getColBound() + 1, td.getRowBound());
+                }
+                col = td.getColBound() + 1;
+                // 设置每列宽度
+                tr.getColWidthMap().put(td.getCol(), TdUtil.getStringWidth(td.getContent()));
+            }
+            tr.setLastColumnNum(col);
         }
-        rowSpanTds.forEach(t -> {
-            int prevTdColSpan = t.getColSpan();
-            int realCol = prevTdColSpan > 0 ? td.getCol() + prevTdColSpan : td.getCol() + 1;
-            td.setCol(realCol);
-        });
-
-        // 重调
-        int colBound = TdUtil.get(td::getColSpan, td::getCol);
-        td.setColBound(colBound);
     }
 
     public enum TableTag {
@@ -0,0 +1,570 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.parser;
+
+import com.github.liaochong.html2excel.core.jfr.JfrEvents;
+import com.github.liaochong.html2excel.utils.StyleUtil;
+import com.github.liaochong.html2excel.utils.TdUtil;
+import org.jsoup.parser.Parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 流式html表格解析器
+ * <p>
+ * 从字符流中增量识别table、caption、thead/tbody/tfoot、tr、th/td标签，不构建DOM，每解析完成一行即交给处理者，
+ * 内存中仅保留当前行以及跨行占用的列信息。单元格位置按html跨行、跨列规则计算，样式继承规则与{@link HtmlTableParser}一致。
+ * 单元格内嵌套的表格不单独解析，其文本作为单元格内容。
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public final class StreamingTableParser {
+
+    private static final String STYLE = "style";
+
+    private final Reader reader;
+
+    private final Handler handler;
+
+    private final char[] buffer = new char[8192];
+
+    private int position;
+
+    private int limit;
+
+    private final StringBuilder text = new StringBuilder();
+
+    private int tableIndex;
+
+    private Table table;
+
+    private boolean tableStarted;
+
+    private boolean inCaption;
+    /**
+     * 单元格内嵌套表格的层数
+     */
+    private int nestedDepth;
+
+    private Map<String, String> sectionStyle;
+
+    private Tr tr;
+
+    private Td td;
+
+    private int rowIndex;
+
+    private int colCursor;
+    /**
+     * 每列被跨行单元格占用到的行
+     */
+    private int[] occupiedUntil = new int[16];
+
+    private Map<Integer, Integer> colMaxWidthMap;
+
+    private int lastColumnNum;
+    /**
+     * 已解析的总行数、总字符数
+     */
+    private long rowCount;
+
+    private long charCount;
+
+    private StreamingTableParser(Reader reader, Handler handler) {
+        this.reader = reader;
+        this.handler = handler;
+    }
+
+    /**
+     * 解析字符流中的所有表格
+     *
+     * @param reader  html字符流
+     * @param handler 处理者
+     * @throws IOException 读取异常
+     */
+    public static void parse(Reader reader, Handler handler) throws IOException {
+        Objects.requireNonNull(reader);
+        Objects.requireNonNull(handler);
+        new StreamingTableParser(reader, handler).parse();
+    }
+
+    private void parse() throws IOException {
+        Object event = JfrEvents.beginParse();
+        int c;
+        while ((c = this.next()) != -1) {
+            if (c == '<') {
+                this.readMarkup();
+            } else if (this.isCollectingText()) {
+                text.append((char) c);
+            }
+        }
+        if (Objects.nonNull(table)) {
+            this.endTable();
+        }
+        JfrEvents.commitParse(event, true, tableIndex, rowCount, charCount);
+    }
+
+    private boolean isCollectingText() {
+        return Objects.nonNull(td) || inCaption;
+    }
+
+    private int next() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+            charCount += limit;
+        }
+        return buffer[position++];
+    }
+
+    private void readMarkup() throws IOException {
+        int c = this.next();
+        if (c == '!') {
+            this.skipDeclaration();
+            return;
+        }
+        if (c == '?') {
+            this.skipTo('>');
+            return;
+        }
+        boolean endTag = c == '/';
+        if (endTag) {
+            c = this.next();
+        }
+        if (!Character.isLetter(c)) {
+            // 非标签，作为文本
+            if (this.isCollectingText()) {
+                text.append(endTag ? "</" : "<");
+            }
+            if (c != -1) {
+                position--;
+            }
+            return;
+        }
+        StringBuilder name = new StringBuilder();
+        while (c != -1 && !Character.isWhitespace(c) && c != '>' && c != '/') {
+            name.append(Character.toLowerCase((char) c));
+            c = this.next();
+        }
+        if (c != -1) {
+            position--;
+        }
+        String tagName = name.toString();
+        Map<String, String> attributes = this.readAttributes(!endTag && this.isTableTag(tagName));
+        if (endTag) {
+            this.endTag(tagName);
+            return;
+        }
+        this.startTag(tagName, attributes);
+        if ("script".equals(tagName) || "style".equals(tagName)) {
+            this.skipRawText(tagName);
+        }
+    }
+
+    private boolean isTableTag(String tagName) {
+        switch (tagName) {
+            case "table":
+            case "thead":
+            case "tbody":
+            case "tfoot":
+            case "tr":
+            case "td":
+            case "th":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 读取属性直至标签结束
+     *
+     * @param keep 是否保留属性
+     * @return 属性，不保留时为空
+     */
+    private Map<String, String> readAttributes(boolean keep) throws IOException {
+        Map<String, String> attributes = keep ? new HashMap<>() : Collections.emptyMap();
+        StringBuilder attribute = new StringBuilder();
+        int c = this.next();
+        while (c != -1 && c != '>') {
+            if (Character.isWhitespace(c) || c == '/') {
+                c = this.next();
+                continue;
+            }
+            attribute.setLength(0);
+            while (c != -1 && !Character.isWhitespace(c) && c != '=' && c != '>' && c != '/') {
+                attribute.append(Character.toLowerCase((char) c));
+                c = this.next();
+            }
+            while (c != -1 && Character.isWhitespace(c)) {
+                c = this.next();
+            }
+            String value = "";
+            if (c == '=') {
+                c = this.next();
+                while (c != -1 && Character.isWhitespace(c)) {
+                    c = this.next();
+                }
+                StringBuilder valueBuilder = new StringBuilder();
+                if (c == '"' || c == '\'') {
+                    int quote = c;
+                    c = this.next();
+                    while (c != -1 && c != quote) {
+                        valueBuilder.append((char) c);
+                        c = this.next();
+                    }
+                    c = this.next();
+                } else {
+                    while (c != -1 && !Character.isWhitespace(c) && c != '>') {
+                        valueBuilder.append((char) c);
+                        c = this.next();
+                    }
+                }
+                value = Parser.unescapeEntities(valueBuilder.toString(), true);
+            }
+            if (keep && attribute.length() > 0) {
+                attributes.putIfAbsent(attribute.toString(), value);
+            }
+        }
+        return attributes;
+    }
+
+    private void skipDeclaration() throws IOException {
+        int c = this.next();
+        if (c == '-') {
+            c = this.next();
+            if (c == '-') {
+                // 注释
+                int dashes = 0;
+                while ((c = this.next()) != -1) {
+                    if (c == '>' && dashes >= 2) {
+                        return;
+                    }
+                    dashes = c == '-' ? dashes + 1 : 0;
+                }
+                return;
+            }
+        }
+        if (c != '>' && c != -1) {
+            this.skipTo('>');
+        }
+    }
+
+    private void skipTo(char end) throws IOException {
+        int c;
+        do {
+            c = this.next();
+        } while (c != -1 && c != end);
+    }
+
+    /**
+     * 跳过script、style的内容
+     *
+     * @param tagName 标签名称
+     */
+    private void skipRawText(String tagName) throws IOException {
+        int c = this.next();
+        while (c != -1) {
+            if (c != '<') {
+                c = this.next();
+                continue;
+            }
+            c = this.next();
+            if (c != '/') {
+                continue;
+            }
+            int matched = 0;
+            c = this.next();
+            while (c != -1 && matched < tagName.length() && Character.toLowerCase((char) c) == tagName.charAt(matched)) {
+                matched++;
+                c = this.next();
+            }
+            if (matched == tagName.length()) {
+                if (c != '>') {
+                    this.skipTo('>');
+                }
+                return;
+            }
+        }
+    }
+
+    private void startTag(String tagName, Map<String, String> attributes) {
+        if (nestedDepth > 0) {
+            if ("table".equals(tagName)) {
+                nestedDepth++;
+            }
+            this.appendSeparator(tagName);
+            return;
+        }
+        switch (tagName) {
+            case "table":
+                if (Objects.isNull(table)) {
+                    this.startTable(attributes);
+                } else {
+                    nestedDepth++;
+                }
+                break;
+            case "caption":
+                if (Objects.nonNull(table) && !tableStarted) {
+                    inCaption = true;
+                    text.setLength(0);
+                }
+                break;
+            case "thead":
+            case "tbody":
+            case "tfoot":
+                if (Objects.nonNull(table)) {
+                    this.closeRow();
+                    sectionStyle = this.mixStyle(table.getStyleMap(), attributes);
+                }
+                break;
+            case "tr":
+                if (Objects.nonNull(table)) {
+                    this.closeRow();
+                    this.openRow(attributes);
+                }
+                break;
+            case "td":
+            case "th":
+                if (Objects.nonNull(table)) {
+                    if (Objects.isNull(tr)) {
+                        this.openRow(Collections.emptyMap());
+                    }
+                    this.closeCell();
+                    this.openCell("th".equals(tagName), attributes);
+                }
+                break;
+            default:
+                this.appendSeparator(tagName);
+        }
+    }
+
+    /**
+     * 换行、块级元素与相邻文本间以空格分隔
+     *
+     * @param tagName 标签名称
+     */
+    private void appendSeparator(String tagName) {
+        if (Objects.nonNull(td) && ("br".equals(tagName) || "p".equals(tagName) || "div".equals(tagName))) {
+            text.append(' ');
+        }
+    }
+
+    private void endTag(String tagName) {
+        if (nestedDepth > 0) {
+            if ("table".equals(tagName)) {
+                nestedDepth--;
+            }
+            return;
+        }
+        if (Objects.isNull(table)) {
+            return;
+        }
+        switch (tagName) {
+            case "table":
+                this.endTable();
+                break;
+            case "caption":
+                if (inCaption) {
+                    inCaption = false;
+                    table.setCaption(this.takeText());
+                }
+                break;
+            case "thead":
+            case "tbody":
+            case "tfoot":
+                this.closeRow();
+                sectionStyle = table.getStyleMap();
+                break;
+            case "tr":
+                this.closeRow();
+                break;
+            case "td":
+            case "th":
+                this.closeCell();
+                break;
+            default:
+        }
+    }
+
+    private void startTable(Map<String, String> attributes) {
+        table = new Table();
+        table.setIndex(tableIndex++);
+        table.setStyleMap(StyleUtil.parseStyle(attributes.getOrDefault(STYLE, "")));
+        sectionStyle = table.getStyleMap();
+        tableStarted = false;
+        rowIndex = 0;
+        lastColumnNum = 0;
+        colMaxWidthMap = new HashMap<>();
+        Arrays.fill(occupiedUntil, -1);
+    }
+
+    private void ensureTableStarted() {
+        if (!tableStarted) {
+            tableStarted = true;
+            inCaption = false;
+            handler.startTable(table);
+        }
+    }
+
+    private void endTable() {
+        this.closeRow();
+        this.ensureTableStarted();
+        table.setLastColumnNum(lastColumnNum);
+        table.setLastRowNum(rowIndex - 1);
+        table.setColMaxWidthMap(colMaxWidthMap);
+        handler.endTable(table);
+        table = null;
+        inCaption = false;
+    }
+
+    private void openRow(Map<String, String> attributes) {
+        this.ensureTableStarted();
+        tr = new Tr(rowIndex);
+        tr.setStyle(this.mixStyle(sectionStyle, attributes));
+        tr.setColWidthMap(new HashMap<>());
+        colCursor = 0;
+    }
+
+    private void closeRow() {
+        this.closeCell();
+        if (Objects.isNull(tr)) {
+            return;
+        }
+        tr.setLastColumnNum(colCursor);
+        handler.row(tr);
+        tr = null;
+        rowIndex++;
+        rowCount++;
+    }
+
+    private void openCell(boolean th, Map<String, String> attributes) {
+        td = new Td();
+        td.setTh(th);
+        td.setRow(rowIndex);
+        td.setStyle(this.mixStyle(tr.getStyle(), attributes));
+        td.setColSpan(TdUtil.getSpan(attributes.getOrDefault("colspan", "")));
+        td.setRowSpan(TdUtil.getSpan(attributes.getOrDefault("rowspan", "")));
+
+        // 跳过被上方跨行单元格占用的列
+        int col = colCursor;
+        while (col < occupiedUntil.length && occupiedUntil[col] >= rowIndex) {
+            col++;
+        }
+        td.setCol(col);
+        td.setColBound(TdUtil.get(td::getColSpan, td::getCol));
+        td.setRowBound(TdUtil.get(td::getRowSpan, td::getRow));
+        if (td.getRowSpan() > 0) {
+            if (td.getColBound() >= occupiedUntil.length) {
+                int oldLength = occupiedUntil.length;
+                occupiedUntil = Arrays.copyOf(occupiedUntil, Math.max(oldLength << 1, td.getColBound() + 1));
+                Arrays.fill(occupiedUntil, oldLength, occupiedUntil.length, -1);
+            }
+            Arrays.fill(occupiedUntil, td.getCol(), td.getColBound() + 1, td.getRowBound());
+        }
+        colCursor = td.getColBound() + 1;
+        text.setLength(0);
+    }
+
+    private void closeCell() {
+        if (Objects.isNull(td)) {
+            return;
+        }
+        td.setContent(this.takeText());
+        tr.getTdList().add(td);
+
+        int width = TdUtil.getStringWidth(td.getContent());
+        tr.getColWidthMap().put(td.getCol(), width);
+        colMaxWidthMap.merge(td.getCol(), width, Math::max);
+        lastColumnNum = Math.max(lastColumnNum, td.getColBound() + 1);
+        td = null;
+    }
+
+    /**
+     * 获取已收集的文本，解码实体并合并空白
+     *
+     * @return 文本
+     */
+    private String takeText() {
+        String raw = text.indexOf("&") < 0 ? text.toString() : Parser.unescapeEntities(text.toString(), false);
+        text.setLength(0);
+        StringBuilder result = new StringBuilder(raw.length());
+        boolean whitespace = false;
+        for (int i = 0, length = raw.length(); i < length; i++) {
+            char c = raw.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f') {
+                whitespace = result.length() > 0;
+                continue;
+            }
+            if (whitespace) {
+                result.append(' ');
+                whitespace = false;
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+
+    /**
+     * 无样式属性时直接沿用上级样式实例，相同样式实例在构建时无需重复计算哈希
+     */
+    private Map<String, String> mixStyle(Map<String, String> upperStyle, Map<String, String> attributes) {
+        String style = attributes.get(STYLE);
+        if (Objects.isNull(style) || style.isEmpty()) {
+            return upperStyle;
+        }
+        return StyleUtil.mixStyle(upperStyle, StyleUtil.parseStyle(style));
+    }
+
+    /**
+     * 表格处理者
+     */
+    public interface Handler {
+
+        /**
+         * 表格开始，此时表格标题已解析
+         *
+         * @param table 表格，不含行
+         */
+        void startTable(Table table);
+
+        /**
+         * 行解析完成，单元格位置、跨行跨列边界以及样式均已确定
+         *
+         * @param tr 行
+         */
+        void row(Tr tr);
+
+        /**
+         * 表格结束，此时列宽、最后行列号已确定
+         *
+         * @param table 表格，不含行
+         */
+        void endTable(Table table);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.plan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 单元格内容模板，将内容预先拆分为字面量与占位符
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+final class ContentTemplate {
+
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\$\\{\\s*([^}]+?)\\s*}");
+
+    /**
+     * 字面量，长度比占位符多一
+     */
+    private final String[] literals;
+    /**
+     * 占位符key
+     */
+    private final String[] keys;
+
+    private ContentTemplate(String[] literals, String[] keys) {
+        this.literals = literals;
+        this.keys = keys;
+    }
+
+    static ContentTemplate compile(String content) {
+        if (Objects.isNull(content)) {
+            return new ContentTemplate(new String[]{null}, new String[0]);
+        }
+        Matcher matcher = PLACEHOLDER_PATTERN.matcher(content);
+        List<String> literals = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        int last = 0;
+        while (matcher.find()) {
+            literals.add(content.substring(last, matcher.start()));
+            keys.add(matcher.group(1));
+            last = matcher.end();
+        }
+        literals.add(content.substring(last));
+        return new ContentTemplate(literals.toArray(new String[0]), keys.toArray(new String[0]));
+    }
+
+    boolean isStatic() {
+        return keys.length == 0;
+    }
+
+    String getLiteral() {
+        return literals[0];
+    }
+
+    /**
+     * 渲染内容
+     *
+     * @param item          当前重复项，非重复行为null
+     * @param valueResolver 取值器
+     * @return 内容
+     */
+    String render(Object item, ValueResolver valueResolver) {
+        // 仅有一个占位符时，保留null值，与空单元格一致
+        if (keys.length == 1 && literals[0].isEmpty() && literals[1].isEmpty()) {
+            Object value = valueResolver.resolve(keys[0], item);
+            return Objects.isNull(value) ? null : String.valueOf(value);
+        }
+        StringBuilder result = new StringBuilder(literals[0]);
+        for (int i = 0; i < keys.length; i++) {
+            Object value = valueResolver.resolve(keys[i], item);
+            if (Objects.nonNull(value)) {
+                result.append(value);
+            }
+            result.append(literals[i + 1]);
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.plan;
+
+import com.github.liaochong.html2excel.core.parser.HtmlTableParser;
+import com.github.liaochong.html2excel.core.parser.Table;
+import com.github.liaochong.html2excel.core.parser.Td;
+import com.github.liaochong.html2excel.core.parser.Tr;
+import com.github.liaochong.html2excel.utils.TdUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * 预编译布局计划
+ * <p>
+ * 对固定布局的html模板只解析一次，缓存单元格位置、跨行跨列、已解析样式以及静态列宽；
+ * 每次构建仅绑定动态值，不再重新渲染、解析html。
+ * </p>
+ * <ul>
+ * <li>单元格内容以及caption中的<code>${key}</code>为占位符，绑定时以数据中对应的值替换；</li>
+ * <li>带有<code>data-repeat="key"</code>属性的连续tr组成一个重复行块，块内的行按数据中key对应的集合逐项重复，
+ * 块内占位符优先从当前项（Map或普通对象）中取值，取不到时从根数据中取值。</li>
+ * </ul>
+ * 布局计划不可变，线程安全，可缓存并在多次构建间共享。
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@Slf4j
+public final class LayoutPlan {
+
+    static final String REPEAT_ATTR = "data-repeat";
+
+    private final List<TablePlan> tablePlans;
+
+    private LayoutPlan(List<TablePlan> tablePlans) {
+        this.tablePlans = tablePlans;
+    }
+
+    /**
+     * 编译布局计划
+     *
+     * @param html html字符串
+     * @return LayoutPlan
+     */
+    public static LayoutPlan compile(String html) {
+        Objects.requireNonNull(html);
+        return compile(HtmlTableParser.of(html));
+    }
+
+    /**
+     * 编译布局计划
+     *
+     * @param htmlFile html文件
+     * @return LayoutPlan
+     * @throws IOException 读取异常
+     */
+    public static LayoutPlan compile(File htmlFile) throws IOException {
+        return compile(HtmlTableParser.of(htmlFile));
+    }
+
+    private static LayoutPlan compile(HtmlTableParser parser) {
+        long startTime = System.currentTimeMillis();
+        // 相同样式共用同一实例，构建时可按引用命中单元格样式
+        Map<Map<String, String>, Map<String, String>> styleInterner = new HashMap<>();
+        List<TablePlan> tablePlans = parser.getAllTable().stream()
+                .map(table -> TablePlan.compile(table, styleInterner))
+                .collect(Collectors.toList());
+        log.info("Compile layout plan takes {} ms", System.currentTimeMillis() - startTime);
+        return new LayoutPlan(Collections.unmodifiableList(tablePlans));
+    }
+
+    /**
+     * 绑定数据，生成可直接用于构建的表格
+     *
+     * @param data 绑定数据
+     * @return 表格
+     */
+    public List<Table> bind(Map<String, Object> data) {
+        Map<String, Object> bindData = Objects.isNull(data) ? Collections.emptyMap() : data;
+        ValueResolver valueResolver = new ValueResolver(bindData);
+        return tablePlans.stream()
+                .map(tablePlan -> tablePlan.bind(valueResolver))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 单个表格的布局计划
+     */
+    static final class TablePlan {
+
+        private final ContentTemplate caption;
+
+        private final int lastColumnNum;
+
+        private final List<RowBlock> rowBlocks;
+
+        private final Map<Integer, Integer> staticColWidthMap;
+
+        private TablePlan(ContentTemplate caption, int lastColumnNum, List<RowBlock> rowBlocks, Map<Integer, Integer> staticColWidthMap) {
+            this.caption = caption;
+            this.lastColumnNum = lastColumnNum;
+            this.rowBlocks = rowBlocks;
+            this.staticColWidthMap = staticColWidthMap;
+        }
+
+        static TablePlan compile(Table table, Map<Map<String, String>, Map<String, String>> styleInterner) {
+            List<RowBlock> rowBlocks = new ArrayList<>();
+            Map<Integer, Integer> staticColWidthMap = new HashMap<>();
+            RowBlock current = null;
+            for (Tr tr : table.getTrList()) {
+                String repeatKey = tr.getElement().attr(REPEAT_ATTR).trim();
+                repeatKey = repeatKey.isEmpty() ? null : repeatKey;
+                if (Objects.isNull(current) || !Objects.equals(current.repeatKey, repeatKey)) {
+                    current = new RowBlock(repeatKey, tr.getIndex());
+                    rowBlocks.add(current);
+                }
+                List<CellPlan> cellPlans = new ArrayList<>(tr.getTdList().size());
+                for (Td td : tr.getTdList()) {
+                    CellPlan cellPlan = CellPlan.of(td, styleInterner);
+                    if (cellPlan.content.isStatic()) {
+                        staticColWidthMap.merge(td.getCol(), tr.getColWidthMap().get(td.getCol()), Math::max);
+                    }
+                    cellPlans.add(cellPlan);
+                }
+                current.rows.add(cellPlans);
+            }
+            rowBlocks.stream().filter(RowBlock::isRepeat).forEach(RowBlock::checkSpan);
+            return new TablePlan(ContentTemplate.compile(table.getCaption()), table.getLastColumnNum(), rowBlocks, staticColWidthMap);
+        }
+
+        Table bind(ValueResolver valueResolver) {
+            // 计算每个行块在本次绑定后的起始行以及重复次数
+            int blockCount = rowBlocks.size();
+            int[] startRows = new int[blockCount];
+            List<List<?>> repeatItems = new ArrayList<>(blockCount);
+            int nextRow = 0;
+            for (int i = 0; i < blockCount; i++) {
+                RowBlock rowBlock = rowBlocks.get(i);
+                List<?> items = rowBlock.isRepeat() ? valueResolver.getItems(rowBlock.repeatKey) : null;
+                repeatItems.add(items);
+                startRows[i] = nextRow;
+                nextRow += rowBlock.rows.size() * (Objects.isNull(items) ? 1 : items.size());
+            }
+
+            Table table = new Table();
+            table.setCaption(caption.isStatic() ? caption.getLiteral() : caption.render(null, valueResolver));
+            table.setLastColumnNum(lastColumnNum);
+            table.setLastRowNum(nextRow - 1);
+            Map<Integer, Integer> colMaxWidthMap = new HashMap<>(staticColWidthMap);
+            List<Tr> trList = new ArrayList<>(nextRow);
+            for (int i = 0; i < blockCount; i++) {
+                RowBlock rowBlock = rowBlocks.get(i);
+                List<?> items = repeatItems.get(i);
+                if (Objects.isNull(items)) {
+                    // 静态行块的跨行单元格可能延伸至其后的重复行块
+                    IntUnaryOperator rowBoundMapper = rowBound -> this.mapRow(rowBound, startRows, repeatItems);
+                    for (int r = 0, size = rowBlock.rows.size(); r < size; r++) {
+                        trList.add(this.bindRow(rowBlock.rows.get(r), startRows[i] + r, null, rowBoundMapper, valueResolver, colMaxWidthMap));
+                    }
+                    continue;
+                }
+                int blockSize = rowBlock.rows.size();
+                for (int k = 0, itemSize = items.size(); k < itemSize; k++) {
+                    // 重复行块内的跨行单元格不跨出行块，按在本次重复内的偏移映射
+                    int baseRow = startRows[i] + k * blockSize;
+                    IntUnaryOperator rowBoundMapper = rowBound -> baseRow + rowBound - rowBlock.startRow;
+                    for (int r = 0; r < blockSize; r++) {
+                        trList.add(this.bindRow(rowBlock.rows.get(r), baseRow + r, items.get(k), rowBoundMapper, valueResolver, colMaxWidthMap));
+                    }
+                }
+            }
+            table.setTrList(trList);
+            table.setColMaxWidthMap(colMaxWidthMap);
+            return table;
+        }
+
+        private Tr bindRow(List<CellPlan> cellPlans, int rowIndex, Object item, IntUnaryOperator rowBoundMapper,
+                           ValueResolver valueResolver, Map<Integer, Integer> colMaxWidthMap) {
+            Tr tr = new Tr(rowIndex);
+            tr.setColWidthMap(Collections.emptyMap());
+            for (CellPlan cellPlan : cellPlans) {
+                Td td = new Td();
+                td.setRow(rowIndex);
+                td.setRowSpan(cellPlan.rowSpan);
+                td.setRowBound(cellPlan.rowSpan > 0 ? Math.max(rowIndex, rowBoundMapper.applyAsInt(cellPlan.rowBound)) : rowIndex);
+                td.setCol(cellPlan.col);
+                td.setColSpan(cellPlan.colSpan);
+                td.setColBound(cellPlan.colBound);
+                td.setTh(cellPlan.th);
+                td.setStyle(cellPlan.style);
+                if (cellPlan.content.isStatic()) {
+                    td.setContent(cellPlan.content.getLiteral());
+                } else {
+                    td.setContent(cellPlan.content.render(item, valueResolver));
+                    colMaxWidthMap.merge(cellPlan.col, TdUtil.getStringWidth(td.getContent()), Math::max);
+                }
+                tr.getTdList().add(td);
+            }
+            return tr;
+        }
+
+        /**
+         * 将静态行块中单元格的原始结束行号映射为绑定后的行号，位于重复块内的行映射到最后一次重复
+         */
+        private int mapRow(int originRow, int[] startRows, List<List<?>> repeatItems) {
+            for (int i = rowBlocks.size() - 1; i >= 0; i--) {
+                RowBlock rowBlock = rowBlocks.get(i);
+                if (originRow < rowBlock.startRow) {
+                    continue;
+                }
+                int offset = originRow - rowBlock.startRow;
+                List<?> items = repeatItems.get(i);
+                if (Objects.isNull(items)) {
+                    return startRows[i] + offset;
+                }
+                if (items.isEmpty()) {
+                    return startRows[i] - 1;
+                }
+                return startRows[i] + (items.size() - 1) * rowBlock.rows.size() + offset;
+            }
+            return originRow;
+        }
+    }
+
+    /**
+     * 行块，静态行块或重复行块
+     */
+    static final class RowBlock {
+
+        private final String repeatKey;
+
+        private final int startRow;
+
+        private final List<List<CellPlan>> rows = new ArrayList<>();
+
+        RowBlock(String repeatKey, int startRow) {
+            this.repeatKey = repeatKey;
+            this.startRow = startRow;
+        }
+
+        boolean isRepeat() {
+            return Objects.nonNull(repeatKey);
+        }
+
+        /**
+         * 重复行块内的单元格不允许跨出行块
+         */
+        void checkSpan() {
+            int endRow = startRow + rows.size() - 1;
+            rows.stream().flatMap(List::stream).filter(cellPlan -> cellPlan.rowBound > endRow).findAny().ifPresent(cellPlan -> {
+                throw new IllegalArgumentException("The rowspan of cells in repeat block [" + repeatKey + "] cannot exceed the block");
+            });
+        }
+    }
+
+    /**
+     * 单元格布局
+     */
+    static final class CellPlan {
+
+        private int col;
+
+        private int colSpan;
+
+        private int colBound;
+
+        private int rowSpan;
+
+        private int rowBound;
+
+        private boolean th;
+
+        private Map<String, String> style;
+
+        private ContentTemplate content;
+
+        static CellPlan of(Td td, Map<Map<String, String>, Map<String, String>> styleInterner) {
+            CellPlan cellPlan = new CellPlan();
+            cellPlan.col = td.getCol();
+            cellPlan.colSpan = td.getColSpan();
+            cellPlan.colBound = td.getColBound();
+            cellPlan.rowSpan = td.getRowSpan();
+            cellPlan.rowBound = td.getRowBound();
+            cellPlan.th = td.isTh();
+            cellPlan.style = styleInterner.computeIfAbsent(td.getStyle(), Collections::unmodifiableMap);
+            cellPlan.content = ContentTemplate.compile(td.getContent());
+            return cellPlan;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.plan;
+
+import com.github.liaochong.html2excel.core.reflect.ClassFieldContainer;
+import com.github.liaochong.html2excel.utils.ReflectUtil;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 单次绑定的取值器，非线程安全
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+final class ValueResolver {
+
+    private final Map<String, Object> data;
+
+    private final Map<Class<?>, ClassFieldContainer> classFieldContainerMap = new HashMap<>();
+
+    ValueResolver(Map<String, Object> data) {
+        this.data = data;
+    }
+
+    /**
+     * 获取重复行块对应的集合
+     *
+     * @param key key
+     * @return 集合，不存在时为空集合
+     */
+    List<?> getItems(String key) {
+        Object items = data.get(key);
+        if (Objects.isNull(items)) {
+            return Collections.emptyList();
+        }
+        if (items instanceof List) {
+            return (List<?>) items;
+        }
+        if (items instanceof Iterable) {
+            List<Object> result = new ArrayList<>();
+            ((Iterable<?>) items).forEach(result::add);
+            return result;
+        }
+        if (items instanceof Object[]) {
+            return Arrays.asList((Object[]) items);
+        }
+        throw new IllegalArgumentException("The value of repeat key [" + key + "] must be a collection or an array");
+    }
+
+    /**
+     * 取值，优先从当前重复项中获取
+     *
+     * @param key  key
+     * @param item 当前重复项
+     * @return 值
+     */
+    Object resolve(String key, Object item) {
+        if (Objects.nonNull(item)) {
+            if (item instanceof Map) {
+                Map<?, ?> itemMap = (Map<?, ?>) item;
+                if (itemMap.containsKey(key)) {
+                    return itemMap.get(key);
+                }
+            } else {
+                ClassFieldContainer container = classFieldContainerMap.computeIfAbsent(item.getClass(), ReflectUtil::getAllFieldsOfClass);
+                Field field = container.getFieldByName(key);
+                if (Objects.nonNull(field)) {
+                    return ReflectUtil.getFieldValue(item, field);
+                }
+            }
+        }
+        return data.get(key);
+    }
+}
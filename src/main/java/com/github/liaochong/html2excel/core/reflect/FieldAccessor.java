@@ -0,0 +1,34 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.reflect;
+
+/**
+ * 字段取值器
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface FieldAccessor {
+
+    /**
+     * 获取字段值
+     *
+     * @param target 目标对象，不可为null
+     * @return 字段值
+     */
+    Object get(Object target);
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.core.reflect;
+
+import com.github.liaochong.html2excel.utils.StringUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 字段取值器工厂
+ * <p>
+ * 字段存在公共getter时，通过LambdaMetafactory生成直接调用getter的取值器，可被JIT内联；
+ * 否则退化为基于MethodHandle的字段读取。取值器按声明类缓存于ClassValue中，随类卸载而回收，不会导致类加载器泄漏。
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+@Slf4j
+public final class FieldAccessors {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType ACCESSOR_METHOD_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<Map<String, FieldAccessor>> ACCESSOR_CACHE = new ClassValue<Map<String, FieldAccessor>>() {
+        @Override
+        protected Map<String, FieldAccessor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private FieldAccessors() {
+    }
+
+    /**
+     * 获取字段取值器
+     *
+     * @param field 字段
+     * @return 取值器
+     */
+    public static FieldAccessor of(Field field) {
+        Objects.requireNonNull(field);
+        return ACCESSOR_CACHE.get(field.getDeclaringClass()).computeIfAbsent(field.getName(), name -> create(field));
+    }
+
+    private static FieldAccessor create(Field field) {
+        Method getter = findGetter(field);
+        if (Objects.nonNull(getter) && isVisible(field.getDeclaringClass())) {
+            try {
+                MethodHandle handle = LOOKUP.unreflect(getter);
+                CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "get",
+                        MethodType.methodType(FieldAccessor.class), ACCESSOR_METHOD_TYPE, handle, handle.type().wrap());
+                return (FieldAccessor) callSite.getTarget().invokeExact();
+            } catch (Throwable e) {
+                log.debug("Failed to generate accessor of {}, fallback to field access", field, e);
+            }
+        }
+        try {
+            field.setAccessible(true);
+            MethodHandle handle = LOOKUP.unreflectGetter(field).asType(ACCESSOR_METHOD_TYPE);
+            return target -> {
+                try {
+                    return handle.invokeExact(target);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new RuntimeException(e);
+                }
+            };
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Field " + field + " is not accessible", e);
+        }
+    }
+
+    /**
+     * 查找字段对应的公共getter，要求返回值类型与字段类型一致
+     *
+     * @param field 字段
+     * @return getter，不存在时为null
+     */
+    private static Method findGetter(Field field) {
+        if (Modifier.isStatic(field.getModifiers())) {
+            return null;
+        }
+        String suffix = StringUtil.toUpperCaseFirst(field.getName());
+        Class<?> declaringClass = field.getDeclaringClass();
+        String[] getterNames = field.getType() == boolean.class ? new String[]{"is" + suffix, "get" + suffix} : new String[]{"get" + suffix};
+        for (String getterName : getterNames) {
+            try {
+                Method method = declaringClass.getMethod(getterName);
+                if (method.getReturnType() == field.getType() && !Modifier.isStatic(method.getModifiers())
+                        && Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                    return method;
+                }
+            } catch (NoSuchMethodException e) {
+                // 尝试下一个
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 生成的取值器定义在本类的类加载器中，目标类必须对其可见
+     *
+     * @param clazz 目标类
+     * @return true/false
+     */
+    private static boolean isVisible(Class<?> clazz) {
+        for (Class<?> c = clazz; Objects.nonNull(c); c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        try {
+            return Class.forName(clazz.getName(), false, FieldAccessors.class.getClassLoader()) == clazz;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
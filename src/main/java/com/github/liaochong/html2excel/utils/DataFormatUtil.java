@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.liaochong.html2excel.utils;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 单元格格式工具
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public final class DataFormatUtil {
+
+    /**
+     * 日期默认格式
+     */
+    public static final String DEFAULT_DATE_FORMAT = "yyyy-mm-dd";
+    /**
+     * 日期时间默认格式
+     */
+    public static final String DEFAULT_DATETIME_FORMAT = "yyyy-mm-dd hh:mm:ss";
+
+    private DataFormatUtil() {
+    }
+
+    /**
+     * 将java时间格式转换为excel单元格格式，如yyyy/MM/dd HH:mm转换为yyyy/mm/dd hh:mm
+     *
+     * @param pattern java时间格式
+     * @return excel单元格格式
+     */
+    public static String toExcelDateFormat(String pattern) {
+        Objects.requireNonNull(pattern);
+        StringBuilder format = new StringBuilder(pattern.length() + 8);
+        int i = 0;
+        int length = pattern.length();
+        while (i < length) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                // 引号内为字面量
+                int end = pattern.indexOf('\'', i + 1);
+                end = end < 0 ? length : end;
+                String literal = end == i + 1 ? "'" : pattern.substring(i + 1, end);
+                format.append('"').append(literal).append('"');
+                i = end + 1;
+                continue;
+            }
+            int count = 1;
+            while (i + count < length && pattern.charAt(i + count) == c) {
+                count++;
+            }
+            if (c == '.' && count == 1 && i + 1 < length && pattern.charAt(i + 1) == 'S') {
+                // 毫秒前的小数点
+                format.append('.');
+            } else {
+                format.append(convert(c, count));
+            }
+            i += count;
+        }
+        return format.toString();
+    }
+
+    private static String convert(char c, int count) {
+        switch (c) {
+            case 'y':
+            case 'u':
+                return count == 2 ? "yy" : "yyyy";
+            case 'M':
+                return repeat('m', Math.min(count, 4));
+            case 'd':
+                return repeat('d', Math.min(count, 2));
+            case 'E':
+                return count >= 4 ? "dddd" : "ddd";
+            case 'H':
+            case 'k':
+            case 'h':
+            case 'K':
+                return repeat('h', Math.min(count, 2));
+            case 'm':
+                return repeat('m', Math.min(count, 2));
+            case 's':
+                return repeat('s', Math.min(count, 2));
+            case 'S':
+                return repeat('0', Math.min(count, 3));
+            case 'a':
+                return "AM/PM";
+            default:
+                if (Character.isLetter(c)) {
+                    // 不支持的时间字段忽略
+                    return "";
+                }
+                return escape(c, count);
+        }
+    }
+
+    private static String escape(char c, int count) {
+        String literal = repeat(c, count);
+        if (c == '-' || c == '/' || c == ':' || c == ' ' || c == ',') {
+            return literal;
+        }
+        return "\"" + literal + "\"";
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
@@ -15,7 +15,9 @@
  */
 package com.github.liaochong.html2excel.utils;
 
-import com.github.liaochong.html2excel.core.cache.DefaultCache;
+import com.github.liaochong.html2excel.core.cache.Cache;
+import com.github.liaochong.html2excel.core.cache.CacheRegistry;
+import com.github.liaochong.html2excel.core.cache.Weighers;
 import org.jsoup.nodes.Element;
 
 import java.util.Collections;
@@ -31,10 +33,19 @@ import java.util.Objects;
  */
 public final class StyleUtil {
 
-    private static final DefaultCache<String, Map<String, String>> STYLE_CACHE = new DefaultCache<>();
+    private static final Cache<String, Map<String, String>> STYLE_CACHE = CacheRegistry.register("style", 10_000, Weighers.styleMap());
 
     public static Map<String, String> parseStyle(Element element) {
-        String style = element.attr("style");
+        return parseStyle(element.attr("style"));
+    }
+
+    /**
+     * 解析style属性值
+     *
+     * @param style style属性值
+     * @return 样式
+     */
+    public static Map<String, String> parseStyle(String style) {
         if (style.length() == 0) {
             return Collections.emptyMap();
         }
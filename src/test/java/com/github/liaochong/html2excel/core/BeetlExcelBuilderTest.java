@@ -0,0 +1,70 @@
+package com.github.liaochong.html2excel.core;
+
+import com.github.liaochong.html2excel.exception.ExcelBuildException;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.junit.Test;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * BeetlExcelBuilder Tester.
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class BeetlExcelBuilderTest {
+
+    @Test
+    public void testBuild() {
+        BeetlExcelBuilder.preload("/templates/rows.btl");
+        for (int i = 0; i < 2; i++) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("rows", Arrays.asList("a" + i, "b" + i));
+
+            Sheet sheet = new BeetlExcelBuilder().template("/templates/rows.btl").build(data).getSheetAt(0);
+            assertEquals(2, sheet.getLastRowNum());
+            assertEquals("b" + i, sheet.getRow(2).getCell(0).getStringCellValue());
+        }
+    }
+
+    @Test(expected = ExcelBuildException.class)
+    public void testTemplateNotExist() {
+        new BeetlExcelBuilder().template("/templates/none.btl");
+    }
+
+    @Test
+    public void testTemplatePerClassLoader() throws Exception {
+        assertEquals("first", buildWith("first"));
+        assertEquals("second", buildWith("second"));
+    }
+
+    /**
+     * 在仅含isolated/content.btl的类加载器下构建，模板内容为指定文本
+     */
+    private static String buildWith(String content) throws Exception {
+        Path directory = Files.createTempDirectory("html2excel-template");
+        Path template = Files.createDirectories(directory.resolve("isolated")).resolve("content.btl");
+        Files.write(template, ("<table><tr><td>" + content + "</td></tr></table>").getBytes(StandardCharsets.UTF_8));
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, BeetlExcelBuilderTest.class.getClassLoader())) {
+            thread.setContextClassLoader(classLoader);
+            Sheet sheet = new BeetlExcelBuilder().template("/isolated/content.btl").build(new HashMap<>()).getSheetAt(0);
+            return sheet.getRow(0).getCell(0).getStringCellValue();
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+            Files.deleteIfExists(template);
+            Files.deleteIfExists(template.getParent());
+            Files.deleteIfExists(directory);
+        }
+    }
+}
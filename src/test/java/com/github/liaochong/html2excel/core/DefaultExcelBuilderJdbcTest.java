@@ -0,0 +1,114 @@
+package com.github.liaochong.html2excel.core;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Objects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * DefaultExcelBuilder ResultSet Tester.
+ * <p>
+ * 大数据量验证默认跳过，通过-Dhtml2excel.jdbc.rows指定行数后执行，如-Dhtml2excel.jdbc.rows=5000000
+ * </p>
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class DefaultExcelBuilderJdbcTest {
+
+    private static final int ROWS = 10_000;
+
+    private static final int WINDOW_SIZE = 100;
+
+    private static final Integer LARGE_ROWS = Integer.getInteger("html2excel.jdbc.rows");
+    /**
+     * 行数增长时允许的常驻内存增长，远小于XSSF保存同样多行所需的内存
+     */
+    private static final long HEAP_DELTA = 16L << 20;
+
+    @Test
+    public void testBuildWithDataSource() {
+        Workbook workbook = build(ROWS);
+        try {
+            assertTrue(workbook instanceof SXSSFWorkbook);
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(ROWS, sheet.getLastRowNum());
+            // 仅保留最后一个窗口内的行，已写出的行不在内存中
+            assertNull(sheet.getRow(1));
+            assertTrue(((SXSSFSheet) sheet).getLastFlushedRowNum() >= ROWS - WINDOW_SIZE);
+            int retainedRows = 0;
+            for (Iterator<Row> iterator = sheet.rowIterator(); iterator.hasNext(); iterator.next()) {
+                retainedRows++;
+            }
+            assertTrue(String.valueOf(retainedRows), retainedRows <= WINDOW_SIZE);
+
+            Cell id = sheet.getRow(ROWS).getCell(0);
+            assertEquals(CellType.NUMERIC, id.getCellType());
+            assertEquals(ROWS, id.getNumericCellValue(), 0);
+            assertEquals("name" + ROWS, sheet.getRow(ROWS).getCell(1).getStringCellValue());
+            assertEquals("yyyy-mm-dd", sheet.getRow(ROWS).getCell(3).getCellStyle().getDataFormatString());
+        } finally {
+            ((SXSSFWorkbook) workbook).dispose();
+        }
+    }
+
+    @Test
+    public void testHeapIndependentOfRows() {
+        assertHeapIndependentOfRows(ROWS / 10, ROWS);
+    }
+
+    @Test
+    public void testHeapIndependentOfLargeRows() {
+        Assume.assumeTrue("-Dhtml2excel.jdbc.rows not specified", Objects.nonNull(LARGE_ROWS));
+        assertHeapIndependentOfRows(ROWS, LARGE_ROWS);
+    }
+
+    private static void assertHeapIndependentOfRows(int rows, int moreRows) {
+        long usedHeap = buildAndMeasure(rows);
+        long moreUsedHeap = buildAndMeasure(moreRows);
+        assertTrue(rows + " rows: " + usedHeap + ", " + moreRows + " rows: " + moreUsedHeap,
+                moreUsedHeap - usedHeap <= HEAP_DELTA);
+    }
+
+    /**
+     * 构建并测量工作簿仍被引用时GC后的已用堆内存
+     */
+    private static long buildAndMeasure(int rows) {
+        Workbook workbook = build(rows);
+        try {
+            assertEquals(rows, workbook.getSheetAt(0).getLastRowNum());
+            Runtime runtime = Runtime.getRuntime();
+            for (int i = 0; i < 3; i++) {
+                System.gc();
+            }
+            return runtime.totalMemory() - runtime.freeMemory();
+        } finally {
+            ((SXSSFWorkbook) workbook).dispose();
+        }
+    }
+
+    private static Workbook build(int rows) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        // 惰性执行，H2按需产生结果行而不在服务端物化整个结果集
+        dataSource.setURL("jdbc:h2:mem:export;DB_CLOSE_DELAY=-1;LAZY_QUERY_EXECUTION=1");
+        String sql = "SELECT X AS ID, 'name' || X AS NAME, X * 1.5 AS AMOUNT, CAST(DATEADD('DAY', MOD(X, 365), DATE '2018-01-01') AS DATE) AS CREATED"
+                + " FROM SYSTEM_RANGE(1, " + rows + ")";
+        return DefaultExcelBuilder.getInstance()
+                .rowAccessWindowSize(WINDOW_SIZE)
+                .fetchSize(500)
+                .build(dataSource, sql);
+    }
+}
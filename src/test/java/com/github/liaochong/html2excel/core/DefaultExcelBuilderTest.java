@@ -0,0 +1,411 @@
+package com.github.liaochong.html2excel.core;
+
+import com.github.liaochong.html2excel.core.annotation.ExcelColumn;
+import com.github.liaochong.html2excel.core.annotation.ExcelTable;
+import com.github.liaochong.html2excel.core.annotation.ExcludeColumn;
+import com.github.liaochong.html2excel.core.converter.ValueConverter;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * DefaultExcelBuilder Tester.
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class DefaultExcelBuilderTest {
+
+    @Test
+    public void testBuildWithAnnotation() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            users.add(new User("user" + i, i, LocalDate.of(2018, 1, 1)));
+        }
+        List<User> data = Collections.unmodifiableList(users);
+
+        Workbook workbook = DefaultExcelBuilder.getInstance().build(data);
+        Sheet sheet = workbook.getSheet("users");
+
+        assertEquals(100, sheet.getLastRowNum());
+        assertEquals("name", sheet.getRow(0).getCell(0).getStringCellValue());
+        assertEquals("age", sheet.getRow(0).getCell(1).getStringCellValue());
+        assertEquals("user99", sheet.getRow(100).getCell(0).getStringCellValue());
+        Cell birthday = sheet.getRow(1).getCell(2);
+        assertEquals(CellType.NUMERIC, birthday.getCellType());
+        assertEquals("yyyy/mm/dd", birthday.getCellStyle().getDataFormatString());
+        assertEquals(LocalDate.of(2018, 1, 1), birthday.getDateCellValue().toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
+    }
+
+    @Test
+    public void testBuildWithColumnConverters() {
+        List<Order> data = Arrays.asList(new Order("a", Status.PAID, 1234.5), new Order("b", Status.CLOSED, 6.0));
+
+        Workbook workbook = DefaultExcelBuilder.getInstance().build(data);
+        Sheet sheet = workbook.getSheetAt(0);
+
+        assertEquals("A", sheet.getRow(1).getCell(0).getStringCellValue());
+        assertEquals("已支付", sheet.getRow(1).getCell(1).getStringCellValue());
+        assertEquals("CLOSED", sheet.getRow(2).getCell(1).getStringCellValue());
+        Cell amount = sheet.getRow(1).getCell(2);
+        assertEquals(1234.5, amount.getNumericCellValue(), 0);
+        assertEquals("#,##0.00", amount.getCellStyle().getDataFormatString());
+    }
+
+    @Test
+    public void testBuildWithFieldDisplayOrder() {
+        List<Plain> data = Arrays.asList(new Plain("a", 1), new Plain("b", 2));
+
+        Workbook workbook = DefaultExcelBuilder.getInstance()
+                .titles(Arrays.asList("年龄", "姓名"))
+                .fieldDisplayOrder(Arrays.asList("age", "name"))
+                .build(data);
+        Sheet sheet = workbook.getSheetAt(0);
+
+        assertEquals("年龄", sheet.getRow(0).getCell(0).getStringCellValue());
+        assertEquals("2", sheet.getRow(2).getCell(0).getStringCellValue());
+        assertEquals("b", sheet.getRow(2).getCell(1).getStringCellValue());
+    }
+
+    @Test
+    public void testBuildWithNestedPath() {
+        List<Shipment> data = Arrays.asList(new Shipment("s1", new Address("杭州", LocalDate.of(2018, 1, 1))),
+                new Shipment("s2", null));
+
+        Sheet sheet = DefaultExcelBuilder.getInstance().build(data).getSheetAt(0);
+        assertEquals("city", sheet.getRow(0).getCell(1).getStringCellValue());
+        assertEquals("杭州", sheet.getRow(1).getCell(1).getStringCellValue());
+        assertEquals(CellType.BLANK, sheet.getRow(2).getCell(1).getCellType());
+
+        List<Parcel> parcels = Arrays.asList(new Parcel("p1", new Address("杭州", LocalDate.of(2018, 1, 1))),
+                new Parcel("p2", null));
+        Sheet orderedSheet = DefaultExcelBuilder.getInstance()
+                .titles(Arrays.asList("no", "since"))
+                .fieldDisplayOrder(Arrays.asList("no", "address.since"))
+                .build(parcels)
+                .getSheetAt(0);
+        Cell since = orderedSheet.getRow(1).getCell(1);
+        assertEquals(CellType.NUMERIC, since.getCellType());
+        assertEquals("yyyy-mm-dd", since.getCellStyle().getDataFormatString());
+        assertEquals(CellType.BLANK, orderedSheet.getRow(2).getCell(1).getCellType());
+    }
+
+    @Test
+    public void testBuildWithIterator() throws Exception {
+        Iterator<Plain> iterator = IntStream.range(0, 1000).mapToObj(i -> new Plain("name" + i, i)).iterator();
+
+        Workbook workbook = DefaultExcelBuilder.getInstance()
+                .fieldDisplayOrder(Arrays.asList("name", "age"))
+                .rowAccessWindowSize(100)
+                .build(iterator);
+        assertTrue(workbook instanceof SXSSFWorkbook);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        workbook.write(out);
+        ((SXSSFWorkbook) workbook).dispose();
+        try (Workbook result = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = result.getSheetAt(0);
+            assertEquals(999, sheet.getLastRowNum());
+            assertEquals("name999", sheet.getRow(999).getCell(0).getStringCellValue());
+            assertEquals("999", sheet.getRow(999).getCell(1).getStringCellValue());
+        }
+    }
+
+    @Test
+    public void testBuildAnnotatedStream() {
+        // 注解未指定workbookType时，流式构建仍使用SXLSX
+        Workbook workbook = DefaultExcelBuilder.getInstance()
+                .build(IntStream.range(0, 10).mapToObj(i -> new User("user" + i, i, LocalDate.of(2018, 1, 1))));
+        assertTrue(workbook instanceof SXSSFWorkbook);
+        assertEquals("user9", workbook.getSheet("users").getRow(10).getCell(0).getStringCellValue());
+        ((SXSSFWorkbook) workbook).dispose();
+
+        Workbook listWorkbook = DefaultExcelBuilder.getInstance()
+                .build(Collections.singletonList(new User("user", 1, LocalDate.of(2018, 1, 1))));
+        assertTrue(listWorkbook instanceof XSSFWorkbook);
+    }
+
+    @Test
+    public void testBuildWithPageSupplier() {
+        PageSupplier<Plain> pageSupplier = pageIndex -> {
+            if (pageIndex >= 5) {
+                return null;
+            }
+            List<Plain> page = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                int no = pageIndex * 20 + i;
+                page.add(new Plain("name" + no, no));
+            }
+            return page;
+        };
+
+        Workbook workbook = DefaultExcelBuilder.getInstance()
+                .fieldDisplayOrder(Arrays.asList("name", "age"))
+                .workbookType(WorkbookType.XLSX)
+                .prefetchDepth(1)
+                .build(pageSupplier);
+        Sheet sheet = workbook.getSheetAt(0);
+
+        assertEquals(99, sheet.getLastRowNum());
+        assertEquals("name0", sheet.getRow(0).getCell(0).getStringCellValue());
+        assertEquals("name99", sheet.getRow(99).getCell(0).getStringCellValue());
+    }
+
+    @Test(timeout = 30000)
+    public void testBuildWithPageSupplierOnCallerExecutor() {
+        PageSupplier<Plain> pageSupplier = pageIndex -> {
+            if (pageIndex >= 10) {
+                return null;
+            }
+            List<Plain> page = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                page.add(new Plain("name" + (pageIndex * 1000 + i), i));
+            }
+            return page;
+        };
+
+        // 预取不占用调用方执行器，直接执行器、单线程池均不会阻塞
+        Workbook workbook = DefaultExcelBuilder.getInstance()
+                .fieldDisplayOrder(Arrays.asList("name", "age"))
+                .executor(Runnable::run)
+                .parallelism(2)
+                .build(pageSupplier);
+        assertEquals(9999, workbook.getSheetAt(0).getLastRowNum());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            workbook = DefaultExcelBuilder.getInstance()
+                    .fieldDisplayOrder(Arrays.asList("name", "age"))
+                    .executor(executor)
+                    .parallelism(2)
+                    .build(pageSupplier);
+            assertEquals("name9999", workbook.getSheetAt(0).getRow(9999).getCell(0).getStringCellValue());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBuildWithMapRows() {
+        List<Map<String, Object>> data = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("name", "name" + i);
+            row.put("age", i);
+            row.put("ignored", "x");
+            data.add(row);
+        }
+
+        Sheet sheet = DefaultExcelBuilder.getInstance()
+                .titles(Arrays.asList("年龄", "姓名"))
+                .fieldDisplayOrder(Arrays.asList("age", "name"))
+                .build(data)
+                .getSheetAt(0);
+        assertEquals(10, sheet.getLastRowNum());
+        assertEquals("年龄", sheet.getRow(0).getCell(0).getStringCellValue());
+        assertEquals("9", sheet.getRow(10).getCell(0).getStringCellValue());
+        assertEquals("name9", sheet.getRow(10).getCell(1).getStringCellValue());
+
+        // 未指定key顺序时使用首行key顺序，key作为标题
+        Sheet streamSheet = DefaultExcelBuilder.getInstance()
+                .workbookType(WorkbookType.XLSX)
+                .build(data.stream())
+                .getSheetAt(0);
+        assertEquals("name", streamSheet.getRow(0).getCell(0).getStringCellValue());
+        assertEquals("ignored", streamSheet.getRow(0).getCell(2).getStringCellValue());
+        assertEquals("name3", streamSheet.getRow(4).getCell(0).getStringCellValue());
+    }
+
+    @Test
+    public void testBuildWithColumnarData() {
+        double[] prices = {1.5, Double.NaN, 3};
+        ColumnarData data = ColumnarData.of(3)
+                .textColumn(new String[]{"a", "b", null})
+                .numberColumn(prices)
+                .numberColumn(new long[]{10L, 20L, 30L})
+                .numberColumn(row -> prices[row] * 2);
+
+        Sheet sheet = DefaultExcelBuilder.getInstance()
+                .titles(Arrays.asList("name", "price", "quantity", "total"))
+                .build(data)
+                .getSheetAt(0);
+
+        assertEquals(3, sheet.getLastRowNum());
+        assertEquals("price", sheet.getRow(0).getCell(1).getStringCellValue());
+        assertEquals(1.5, sheet.getRow(1).getCell(1).getNumericCellValue(), 0);
+        assertEquals(CellType.BLANK, sheet.getRow(2).getCell(1).getCellType());
+        assertEquals(CellType.BLANK, sheet.getRow(3).getCell(0).getCellType());
+        assertEquals(30, sheet.getRow(3).getCell(2).getNumericCellValue(), 0);
+        assertEquals(6, sheet.getRow(3).getCell(3).getNumericCellValue(), 0);
+    }
+
+    @Test
+    public void testBuildWithAutoWorkbookType() {
+        List<Metric> metrics = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            metrics.add(new Metric("m" + i, i));
+        }
+        Workbook workbook = DefaultExcelBuilder.getInstance().build(metrics);
+        assertTrue(workbook instanceof XSSFWorkbook);
+
+        // 101行×2列约需260KB，超出预算
+        workbook = DefaultExcelBuilder.getInstance().autoHeapBudget(64 << 10).build(metrics);
+        assertTrue(workbook instanceof SXSSFWorkbook);
+        assertEquals(100, ((SXSSFWorkbook) workbook).getRandomAccessWindowSize());
+        ((SXSSFWorkbook) workbook).dispose();
+    }
+
+    @Test
+    public void testNumberWidth() {
+        assertEquals(1, GridSheetWriter.numberWidth(0));
+        assertEquals(5, GridSheetWriter.numberWidth(-1234));
+        assertEquals(11, GridSheetWriter.numberWidth(0.1));
+    }
+
+    @ExcelTable(sheetName = "users")
+    public static class User {
+
+        @ExcelColumn(title = "name", order = 1)
+        private String name;
+
+        @ExcelColumn(title = "age", order = 2)
+        private int age;
+
+        @ExcelColumn(title = "birthday", order = 3, dateFormatPattern = "yyyy/MM/dd")
+        private LocalDate birthday;
+
+        @ExcludeColumn
+        private String password = "secret";
+
+        User(String name, int age, LocalDate birthday) {
+            this.name = name;
+            this.age = age;
+            this.birthday = birthday;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+    }
+
+    public enum Status {
+        PAID, CLOSED
+    }
+
+    public static class UpperCaseConverter implements ValueConverter<String> {
+
+        @Override
+        public Object convert(String value) {
+            return value.toUpperCase();
+        }
+    }
+
+    public static class Order {
+
+        @ExcelColumn(title = "no", order = 1, converter = UpperCaseConverter.class)
+        private String no;
+
+        @ExcelColumn(title = "status", order = 2, enumLabels = "已支付")
+        private Status status;
+
+        @ExcelColumn(title = "amount", order = 3, numberFormat = "#,##0.00")
+        private double amount;
+
+        Order(String no, Status status, double amount) {
+            this.no = no;
+            this.status = status;
+            this.amount = amount;
+        }
+    }
+
+    public static class Address {
+
+        private String city;
+
+        private LocalDate since;
+
+        Address(String city, LocalDate since) {
+            this.city = city;
+            this.since = since;
+        }
+    }
+
+    public static class Shipment {
+
+        @ExcelColumn(title = "no", order = 1)
+        private String no;
+
+        @ExcelColumn(title = "city", order = 2, path = "city")
+        private Address address;
+
+        Shipment(String no, Address address) {
+            this.no = no;
+            this.address = address;
+        }
+    }
+
+    public static class Parcel {
+
+        private String no;
+
+        private Address address;
+
+        Parcel(String no, Address address) {
+            this.no = no;
+            this.address = address;
+        }
+    }
+
+    public static class Plain {
+
+        private String name;
+
+        private int age;
+
+        Plain(String name, int age) {
+            this.name = name;
+            this.age = age;
+        }
+    }
+
+    @ExcelTable(workbookType = WorkbookType.AUTO)
+    public static class Metric {
+
+        @ExcelColumn(title = "name", order = 1)
+        private String name;
+
+        @ExcelColumn(title = "value", order = 2)
+        private int value;
+
+        Metric(String name, int value) {
+            this.name = name;
+            this.value = value;
+        }
+    }
+}
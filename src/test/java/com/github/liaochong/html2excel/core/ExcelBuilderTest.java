@@ -0,0 +1,67 @@
+package com.github.liaochong.html2excel.core;
+
+import com.github.liaochong.html2excel.core.parser.HtmlTableParser;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ExcelBuilder Tester.
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class ExcelBuilderTest {
+
+    @Test
+    public void testDefaultBuildToOutputStream() throws Exception {
+        // 仅实现构建工作簿的自定义创建者
+        ExcelBuilder builder = new ExcelBuilder() {
+            @Override
+            public ExcelBuilder template(String path) {
+                return this;
+            }
+
+            @Override
+            public Workbook build(Map<String, Object> renderData) {
+                return HtmlToExcelFactory.readHtml("<table><tr><td>" + renderData.get("name") + "</td></tr></table>").build();
+            }
+        };
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        builder.build(Collections.singletonMap("name", "html2excel"), out);
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals("html2excel", workbook.getSheetAt(0).getRow(0).getCell(0).getStringCellValue());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testFactorySharesConfiguration() {
+        // 直接使用htmlToExcelFactory的旧版创建者
+        ExcelBuilder builder = new ExcelBuilder() {
+            @Override
+            public ExcelBuilder template(String path) {
+                return this;
+            }
+
+            @Override
+            public Workbook build(Map<String, Object> renderData) {
+                return htmlToExcelFactory.build(HtmlTableParser.of("<table><tr><td>a</td></tr></table>").getAllTable());
+            }
+        };
+
+        assertTrue(builder.workbookType(WorkbookType.XLS).build(Collections.emptyMap()) instanceof HSSFWorkbook);
+        ExcelEngine engine = ExcelEngine.builder().workbookType(WorkbookType.XLSX).build();
+        assertTrue(builder.engine(engine).build(Collections.emptyMap()) instanceof XSSFWorkbook);
+    }
+}
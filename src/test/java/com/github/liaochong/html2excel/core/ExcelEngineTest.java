@@ -0,0 +1,120 @@
+package com.github.liaochong.html2excel.core;
+
+import com.github.liaochong.html2excel.core.parser.HtmlTableParser;
+import com.github.liaochong.html2excel.core.parser.Table;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ExcelEngine Tester.
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class ExcelEngineTest {
+
+    private static final String HTML = "<table><caption>demo</caption>"
+            + "<tr><th colspan=\"2\" style=\"background-color:#f6f8fa;font-weight:bold\">title</th></tr>"
+            + "<tr><td>a</td><td style=\"text-align:center\">b</td></tr></table>";
+
+    @Test
+    public void testEachBuildUsesNewWorkbook() {
+        ExcelEngine engine = ExcelEngine.builder().workbookType(WorkbookType.XLS).build();
+        Workbook first = engine.build(HtmlTableParser.of(HTML).getAllTable());
+        Workbook second = engine.build(HtmlTableParser.of(HTML).getAllTable());
+
+        assertNotSame(first, second);
+        assertTrue(first instanceof HSSFWorkbook);
+        assertEquals(1, first.getNumberOfSheets());
+        assertEquals(1, second.getNumberOfSheets());
+        assertEquals("b", second.getSheet("demo").getRow(1).getCell(1).getStringCellValue());
+    }
+
+    @Test
+    public void testConcurrentBuild() throws Exception {
+        ExcelEngine engine = ExcelEngine.builder().freezePanes(new FreezePane(1, 0)).build();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Workbook>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executorService.submit(() -> engine.build(HtmlTableParser.of(HTML).getAllTable())));
+            }
+            for (Future<Workbook> future : futures) {
+                Workbook workbook = future.get();
+                assertEquals(1, workbook.getNumberOfSheets());
+                assertEquals(1, workbook.getSheetAt(0).getMergedRegions().size());
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testBuildStreaming() throws Exception {
+        ExcelEngine engine = ExcelEngine.builder().build();
+        SXSSFWorkbook workbook = engine.buildStreaming(new StringReader(groupsHtml()), engine.newTracker());
+        assertGroups(workbook);
+    }
+
+    @Test
+    public void testAutoWorkbookType() throws Exception {
+        List<Table> tables = HtmlTableParser.of(groupsHtml()).getAllTable();
+        Workbook workbook = ExcelEngine.builder().workbookType(WorkbookType.AUTO).build().build(tables);
+        assertTrue(workbook instanceof XSSFWorkbook);
+
+        // 2列每行约640字节，预算可容纳15行
+        tables = HtmlTableParser.of(groupsHtml()).getAllTable();
+        workbook = ExcelEngine.builder().workbookType(WorkbookType.AUTO).autoHeapBudget(10_000).build().build(tables);
+        assertEquals(15, ((SXSSFWorkbook) workbook).getRandomAccessWindowSize());
+        assertGroups((SXSSFWorkbook) workbook);
+
+        // 预算不足时仍保留最高单元格覆盖的行
+        tables = HtmlTableParser.of(groupsHtml()).getAllTable();
+        workbook = ExcelEngine.builder().workbookType(WorkbookType.AUTO).autoHeapBudget(100).build().build(tables);
+        assertEquals(3, ((SXSSFWorkbook) workbook).getRandomAccessWindowSize());
+        assertGroups((SXSSFWorkbook) workbook);
+    }
+
+    private static String groupsHtml() {
+        StringBuilder html = new StringBuilder("<table><caption>groups</caption>");
+        for (int i = 0; i < 300; i++) {
+            html.append("<tr><td rowspan=\"3\">g").append(i).append("</td><td>").append(i).append("-0</td></tr>")
+                    .append("<tr><td>").append(i).append("-1</td></tr>")
+                    .append("<tr><td>").append(i).append("-2</td></tr>");
+        }
+        return html.append("</table>").toString();
+    }
+
+    private static void assertGroups(SXSSFWorkbook workbook) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+        }
+        try (Workbook result = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = result.getSheet("groups");
+            assertEquals(899, sheet.getLastRowNum());
+            assertEquals(300, sheet.getMergedRegions().size());
+            assertEquals("g299", sheet.getRow(897).getCell(0).getStringCellValue());
+            assertEquals("299-2", sheet.getRow(899).getCell(1).getStringCellValue());
+        }
+    }
+}
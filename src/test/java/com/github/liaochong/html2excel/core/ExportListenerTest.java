@@ -0,0 +1,109 @@
+package com.github.liaochong.html2excel.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ExportListener Tester.
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class ExportListenerTest {
+
+    @Test
+    public void testFactory() {
+        String html = "<table><tr><th style=\"font-weight:bold\">a</th><th>b</th></tr>"
+                + "<tr><td rowspan=\"2\" style=\"color:red\">1</td><td>2</td></tr>"
+                + "<tr><td>3</td></tr></table>";
+        RecordingListener listener = new RecordingListener();
+        HtmlToExcelFactory.readHtml(html).listener(listener).build();
+
+        assertEquals(Arrays.asList(ExportPhase.PARSE, ExportPhase.LAYOUT, ExportPhase.STYLE, ExportPhase.WRITE), listener.phases);
+        ExportMetrics metrics = listener.completed;
+        assertNotNull(metrics);
+        assertEquals(1, metrics.getSheetCount());
+        assertEquals(3, metrics.getRowCount());
+        assertEquals(6, metrics.getCellCount());
+        assertEquals(1, metrics.getMergedRegionCount());
+        assertTrue(metrics.getStyleCount() >= 3);
+        assertTrue(metrics.getFontCount() >= 2);
+        assertEquals(0, metrics.getBytesWritten());
+        assertTrue(metrics.getTotalNanos() >= metrics.getNanos(ExportPhase.WRITE));
+    }
+
+    @Test
+    public void testStreamingBuild() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("rows", IntStream.range(0, 100).boxed().collect(Collectors.toList()));
+        RecordingListener listener = new RecordingListener();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new FreemarkerExcelBuilder().template("/templates/rows.ftl").listener(listener).build(data, out);
+
+        assertTrue(listener.phases.containsAll(Arrays.asList(ExportPhase.RENDER, ExportPhase.PARSE,
+                ExportPhase.STYLE, ExportPhase.WRITE, ExportPhase.SERIALIZE)));
+        assertEquals(ExportPhase.SERIALIZE, listener.phases.get(listener.phases.size() - 1));
+        assertEquals(101, listener.completed.getRowCount());
+        assertEquals(202, listener.completed.getCellCount());
+        assertEquals(out.size(), listener.completed.getBytesWritten());
+    }
+
+    @Test
+    public void testDefaultExcelBuilder() {
+        RecordingListener listener = new RecordingListener();
+        List<Map<String, Object>> data = Collections.singletonList(Collections.singletonMap("name", "value"));
+        DefaultExcelBuilder.getInstance().listener(listener).build(data);
+
+        assertEquals(Arrays.asList(ExportPhase.STYLE, ExportPhase.WRITE), listener.phases);
+        assertEquals(2, listener.completed.getRowCount());
+    }
+
+    @Test
+    public void testListenerFailure() {
+        RecordingListener listener = new RecordingListener();
+        ExcelEngine engine = ExcelEngine.builder()
+                .listener(new ExportListener() {
+                    @Override
+                    public void afterPhase(ExportPhase phase, long nanos, ExportMetrics metrics) {
+                        throw new IllegalStateException();
+                    }
+                })
+                .listener(listener)
+                .build();
+        engine.toBuilder().build().build(Collections.emptyList());
+
+        assertEquals(Arrays.asList(ExportPhase.STYLE, ExportPhase.WRITE), listener.phases);
+        assertNotNull(listener.completed);
+    }
+
+    private static class RecordingListener implements ExportListener {
+
+        private final List<ExportPhase> phases = new ArrayList<>();
+
+        private ExportMetrics completed;
+
+        @Override
+        public void afterPhase(ExportPhase phase, long nanos, ExportMetrics metrics) {
+            phases.add(phase);
+            assertTrue(nanos >= 0);
+        }
+
+        @Override
+        public void afterExport(ExportMetrics metrics) {
+            completed = metrics;
+        }
+    }
+}
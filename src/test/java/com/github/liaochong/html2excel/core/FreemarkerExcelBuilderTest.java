@@ -0,0 +1,187 @@
+package com.github.liaochong.html2excel.core;
+
+import com.github.liaochong.html2excel.core.io.TempFileOperator;
+import com.github.liaochong.html2excel.exception.ExcelBuildException;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * FreemarkerExcelBuilder Tester.
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class FreemarkerExcelBuilderTest {
+
+    @Test
+    public void testBuild() {
+        List<Integer> rows = IntStream.range(0, 5000).boxed().collect(Collectors.toList());
+        Map<String, Object> data = new HashMap<>();
+        data.put("rows", rows);
+
+        Workbook workbook = new FreemarkerExcelBuilder().template("/templates/rows.ftl").build(data);
+        Sheet sheet = workbook.getSheetAt(0);
+
+        assertEquals(5000, sheet.getLastRowNum());
+        assertEquals("no", sheet.getRow(0).getCell(0).getStringCellValue());
+        assertEquals("name4999", sheet.getRow(5000).getCell(1).getStringCellValue());
+    }
+
+    @Test
+    public void testStreamingBuild() throws Exception {
+        List<Integer> rows = IntStream.range(0, 5000).boxed().collect(Collectors.toList());
+        Map<String, Object> data = new HashMap<>();
+        data.put("rows", rows);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new FreemarkerExcelBuilder().template("/templates/rows.ftl").build(data, out);
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(5000, sheet.getLastRowNum());
+            assertEquals("no", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("4999", sheet.getRow(5000).getCell(0).getStringCellValue());
+            assertEquals("name4999", sheet.getRow(5000).getCell(1).getStringCellValue());
+        }
+    }
+
+    @Test
+    public void testStreamingBuildSpillsOutput() throws Exception {
+        Map<String, Object> data = new HashMap<>();
+        data.put("rows", IntStream.range(0, 5000).boxed().collect(Collectors.toList()));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new FreemarkerExcelBuilder().template("/templates/rows.ftl").outputBufferThreshold(1024).build(data, out);
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals("name4999", workbook.getSheetAt(0).getRow(5000).getCell(1).getStringCellValue());
+        }
+        // 暂存输出的临时文件在写入后删除
+        try (Stream<Path> files = Files.list(TempFileOperator.getWorkDirectory())) {
+            assertEquals(0, files.filter(file -> file.getFileName().toString().startsWith("buffer_")).count());
+        }
+    }
+
+    @Test
+    public void testTemplateReload() throws Exception {
+        Path template = Paths.get(getClass().getResource("/templates/rows.ftl").toURI()).resolveSibling("reload.ftl");
+        Files.write(template, "<table><tr><td>v1</td></tr></table>".getBytes(StandardCharsets.UTF_8));
+        ExcelBuilder.templateCheckInterval(0);
+        try {
+            FreemarkerExcelBuilder.preload("/templates/reload.ftl");
+            Sheet sheet = new FreemarkerExcelBuilder().template("/templates/reload.ftl").build(new HashMap<>()).getSheetAt(0);
+            assertEquals("v1", sheet.getRow(0).getCell(0).getStringCellValue());
+
+            Files.write(template, "<table><tr><td>v2</td></tr></table>".getBytes(StandardCharsets.UTF_8));
+            Files.setLastModifiedTime(template, FileTime.fromMillis(System.currentTimeMillis() + 2000));
+            sheet = new FreemarkerExcelBuilder().template("/templates/reload.ftl").build(new HashMap<>()).getSheetAt(0);
+            assertEquals("v2", sheet.getRow(0).getCell(0).getStringCellValue());
+        } finally {
+            ExcelBuilder.templateCheckInterval(-1);
+            Files.deleteIfExists(template);
+        }
+    }
+
+    @Test(expected = ExcelBuildException.class)
+    public void testBuildWithRenderFailure() {
+        new FreemarkerExcelBuilder().template("/templates/rows.ftl").build(Collections.emptyMap());
+    }
+
+    @Test
+    public void testIncludeRelativeToTemplateDirectory() {
+        Sheet sheet = new FreemarkerExcelBuilder().template("/templates/include/main.ftl").build(new HashMap<>()).getSheetAt(0);
+        assertEquals("part", sheet.getRow(0).getCell(0).getStringCellValue());
+    }
+
+    @Test
+    public void testTemplatePerClassLoader() throws Exception {
+        Path first = templateDirectory("first");
+        Path second = templateDirectory("second");
+        try {
+            assertEquals("first", buildWith(first));
+            assertEquals("second", buildWith(second));
+            assertEquals("first", buildWith(first));
+        } finally {
+            deleteTemplateDirectory(first);
+            deleteTemplateDirectory(second);
+        }
+    }
+
+    @Test
+    public void testClassLoaderReleased() throws Exception {
+        Path directory = templateDirectory("released");
+        try {
+            WeakReference<ClassLoader> reference = buildAndRelease(directory);
+            for (int i = 0; i < 20 && reference.get() != null; i++) {
+                System.gc();
+                Thread.sleep(50);
+            }
+            assertNull(reference.get());
+        } finally {
+            deleteTemplateDirectory(directory);
+        }
+    }
+
+    private static WeakReference<ClassLoader> buildAndRelease(Path directory) throws Exception {
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, null);
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(classLoader);
+        try {
+            FreemarkerExcelBuilder.preload("/isolated/content.ftl");
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+            classLoader.close();
+        }
+        return new WeakReference<>(classLoader);
+    }
+
+    private static String buildWith(Path directory) throws Exception {
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, null)) {
+            thread.setContextClassLoader(classLoader);
+            Sheet sheet = new FreemarkerExcelBuilder().template("/isolated/content.ftl").build(new HashMap<>()).getSheetAt(0);
+            return sheet.getRow(0).getCell(0).getStringCellValue();
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    /**
+     * 创建仅含isolated/content.ftl的类路径目录，模板内容为指定文本
+     */
+    private static Path templateDirectory(String content) throws Exception {
+        Path directory = Files.createTempDirectory("html2excel-template");
+        Path template = Files.createDirectories(directory.resolve("isolated")).resolve("content.ftl");
+        Files.write(template, ("<table><tr><td>" + content + "</td></tr></table>").getBytes(StandardCharsets.UTF_8));
+        return directory;
+    }
+
+    private static void deleteTemplateDirectory(Path directory) throws Exception {
+        Files.deleteIfExists(directory.resolve("isolated").resolve("content.ftl"));
+        Files.deleteIfExists(directory.resolve("isolated"));
+        Files.deleteIfExists(directory);
+    }
+}
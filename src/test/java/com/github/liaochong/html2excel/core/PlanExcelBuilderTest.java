@@ -0,0 +1,72 @@
+package com.github.liaochong.html2excel.core;
+
+import com.github.liaochong.html2excel.core.plan.LayoutPlan;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * PlanExcelBuilder Tester.
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class PlanExcelBuilderTest {
+
+    @Test
+    public void testBuildToOutputStream() throws Exception {
+        LayoutPlan layoutPlan = LayoutPlan.compile("<table><tr><th>no</th></tr>"
+                + "<tr data-repeat=\"rows\"><td>${no}</td></tr></table>");
+        List<Map<String, Object>> rows = IntStream.range(0, 100).mapToObj(i -> {
+            Map<String, Object> row = new HashMap<>();
+            row.put("no", i);
+            return row;
+        }).collect(Collectors.toList());
+        Map<String, Object> data = new HashMap<>();
+        data.put("rows", rows);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PlanExcelBuilder().layoutPlan(layoutPlan).workbookType(WorkbookType.SXLSX).build(data, out);
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(100, sheet.getLastRowNum());
+            assertEquals("99", sheet.getRow(100).getCell(0).getStringCellValue());
+        }
+    }
+
+    @Test
+    public void testTemplateReload() throws Exception {
+        Path template = Paths.get(getClass().getResource("/templates/rows.ftl").toURI()).resolveSibling("plan.html");
+        Files.write(template, "<table><tr><td>v1</td></tr></table>".getBytes(StandardCharsets.UTF_8));
+        ExcelBuilder.templateCheckInterval(0);
+        try {
+            PlanExcelBuilder.preload("/templates/plan.html");
+            Sheet sheet = new PlanExcelBuilder().template("/templates/plan.html").build(new HashMap<>()).getSheetAt(0);
+            assertEquals("v1", sheet.getRow(0).getCell(0).getStringCellValue());
+
+            Files.write(template, "<table><tr><td>v2</td></tr></table>".getBytes(StandardCharsets.UTF_8));
+            Files.setLastModifiedTime(template, FileTime.fromMillis(System.currentTimeMillis() + 2000));
+            sheet = new PlanExcelBuilder().template("/templates/plan.html").build(new HashMap<>()).getSheetAt(0);
+            assertEquals("v2", sheet.getRow(0).getCell(0).getStringCellValue());
+        } finally {
+            ExcelBuilder.templateCheckInterval(-1);
+            Files.deleteIfExists(template);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.github.liaochong.html2excel.core.cache;
+
+import com.github.liaochong.html2excel.utils.StyleUtil;
+import org.junit.Test;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * CacheRegistry Tester.
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class CacheRegistryTest {
+
+    @Test
+    public void testStats() throws Exception {
+        NamedCache<Integer, String> cache = CacheRegistry.register("registry-stats", 2);
+        assertSame(cache, CacheRegistry.register("registry-stats", 10));
+        cache.cache(1, "1");
+        cache.cache(2, "2");
+        cache.get(1);
+        cache.get(3);
+        cache.cache(3, "3");
+
+        CacheStats stats = CacheRegistry.getStats("registry-stats");
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getEvictionCount());
+        assertEquals(2, stats.getSize());
+        assertEquals(0.5, stats.hitRate(), 0);
+
+        CacheRegistry.setCapacity("registry-stats", 1);
+        assertEquals(1, cache.getSize());
+        assertEquals(2, cache.getEvictionCount());
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName(CacheRegistry.JMX_DOMAIN + ":type=Cache,name=" + ObjectName.quote("registry-stats"));
+        assertEquals(1, server.getAttribute(objectName, "Capacity"));
+        assertEquals(1L, server.getAttribute(objectName, "HitCount"));
+    }
+
+    @Test
+    public void testCacheFactory() {
+        StyleUtil.parseStyle("color:red");
+        assertTrue(CacheRegistry.getAllStats().containsKey("style"));
+        try {
+            CacheRegistry.setCacheFactory(new CacheFactory() {
+                @Override
+                public <E, T> Cache<E, T> create(String name, int capacity) {
+                    return new DefaultCache<>(capacity);
+                }
+            });
+            CacheStats stats = CacheRegistry.getStats("style");
+            assertEquals(DefaultCache.class.getName(), stats.getImplementation());
+            assertEquals(0, stats.getSize());
+            assertEquals("red", StyleUtil.parseStyle("color:red").get("color"));
+            assertEquals(1, CacheRegistry.getStats("style").getSize());
+        } finally {
+            CacheRegistry.setCacheFactory(null);
+        }
+        assertEquals(ConcurrentCache.class.getName(), CacheRegistry.getStats("style").getImplementation());
+    }
+
+    @Test
+    public void testMemoryBudget() {
+        long budget = CacheRegistry.getMemoryBudget();
+        NamedCache<String, String> cache = CacheRegistry.register("registry-budget", 10_000, (key, value) -> 1000);
+        try {
+            for (int i = 0; i < 100; i++) {
+                cache.cache("key" + i, "value");
+            }
+            assertEquals(100_000, cache.getWeight());
+            long limit = CacheRegistry.getMemoryUsage() - 50_000;
+            CacheRegistry.setMemoryBudget(limit);
+            // 预算由全部内置缓存共享，其他缓存可能先被淘汰
+            assertTrue(CacheRegistry.getMemoryUsage() <= limit);
+            assertTrue(cache.getSize() >= 50);
+            assertEquals(100 - cache.getSize(), cache.getEvictionCount());
+        } finally {
+            CacheRegistry.setMemoryBudget(budget);
+            cache.clear();
+        }
+    }
+
+    @Test
+    public void testMaxWeight() throws Exception {
+        NamedCache<String, String> cache = CacheRegistry.register("registry-weight", 100, (key, value) -> 100);
+        try {
+            for (int i = 0; i < 10; i++) {
+                cache.cache("key" + i, "value");
+            }
+            CacheRegistry.setMaxWeight("registry-weight", 500);
+            assertEquals(5, cache.getSize());
+            assertEquals(500, cache.getWeight());
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(CacheRegistry.JMX_DOMAIN + ":type=Cache,name=" + ObjectName.quote("registry-weight"));
+            server.setAttribute(objectName, new Attribute("MaxWeight", 300L));
+            assertEquals(300L, server.getAttribute(objectName, "MaxWeight"));
+            assertEquals(3, cache.getSize());
+
+            // 替换实现后保留字节数上限
+            CacheRegistry.setWeigher("registry-weight", (String key, String value) -> 100);
+            assertEquals(300, cache.getMaxWeight());
+        } finally {
+            cache.clear();
+        }
+    }
+
+    @Test
+    public void testWeighers() {
+        assertEquals(40, Weighers.sizeOf(""));
+        assertEquals(48, Weighers.sizeOf("abcd"));
+        Map<String, String> style = new HashMap<>();
+        style.put("color", "red");
+        // map 48 + table 80 + node 32 + key 56 + value 48
+        assertEquals(264, Weighers.sizeOf(style));
+        assertEquals(0, Weighers.sizeOf(Collections.<String, String>emptyMap()));
+    }
+
+    @Test
+    public void testReplace() {
+        NamedCache<String, String> cache = CacheRegistry.register("registry-replace", 10);
+        cache.cache("a", "a");
+        CacheRegistry.replace("registry-replace", new DefaultCache<String, String>(5));
+        assertNull(cache.get("a"));
+        assertEquals(5, cache.getCapacity());
+    }
+}
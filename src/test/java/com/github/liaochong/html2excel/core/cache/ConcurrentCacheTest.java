@@ -0,0 +1,120 @@
+package com.github.liaochong.html2excel.core.cache;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ConcurrentCache Tester.
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class ConcurrentCacheTest {
+
+    @Test
+    public void testEvictUnaccessed() {
+        ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(3);
+        cache.cache(1, "1");
+        cache.cache(2, "2");
+        cache.cache(3, "3");
+        // 1被访问过，获得保留机会，淘汰最早写入且未被访问的2
+        assertEquals("1", cache.get(1));
+        cache.cache(4, "4");
+        assertEquals(3, cache.size());
+        assertNotNull(cache.get(1));
+        assertNull(cache.get(2));
+        assertNotNull(cache.get(3));
+        assertNotNull(cache.get(4));
+    }
+
+    @Test
+    public void testWeightBound() {
+        ConcurrentCache<String, String> cache = new ConcurrentCache<>(100, 1000, (key, value) -> value.length());
+        cache.cache("a", new String(new char[400]));
+        cache.cache("b", new String(new char[400]));
+        assertEquals(800, cache.weight());
+        cache.cache("c", new String(new char[400]));
+        assertEquals(2, cache.size());
+        assertEquals(800, cache.weight());
+        assertNull(cache.get("a"));
+        // 替换时按差值计算
+        cache.cache("b", "b");
+        assertEquals(401, cache.weight());
+        cache.get("b");
+        cache.setMaxWeight(100);
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.weight());
+        cache.clearAll();
+        assertEquals(0, cache.weight());
+    }
+
+    @Test
+    public void testMemoryBudget() {
+        MemoryBudget budget = new MemoryBudget(1000);
+        ConcurrentCache<Integer, String> first = new ConcurrentCache<>(100, Long.MAX_VALUE, (key, value) -> 100, budget);
+        ConcurrentCache<Integer, String> second = new ConcurrentCache<>(100, Long.MAX_VALUE, (key, value) -> 100, budget);
+        for (int i = 0; i < 8; i++) {
+            first.cache(i, "v");
+        }
+        for (int i = 0; i < 5; i++) {
+            second.cache(i, "v");
+        }
+        // 预算超出后由超出份额的缓存淘汰，未超出份额的缓存不受影响
+        assertEquals(1000, budget.getUsed());
+        assertEquals(5, first.size());
+        assertEquals(5, second.size());
+        first.clearAll();
+        assertEquals(500, budget.getUsed());
+        first.detach();
+        assertEquals(1000, budget.getShare());
+    }
+
+    @Test
+    public void testNullKey() {
+        ConcurrentCache<String, Integer> cache = new ConcurrentCache<>();
+        cache.cache(null, 1);
+        assertNull(cache.get(null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<>(100);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 100_000; i++) {
+                        int key = random.nextInt(1000);
+                        Integer value = cache.get(key);
+                        if (value == null) {
+                            cache.cache(key, key);
+                        } else {
+                            assertEquals(key, value.intValue());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // 淘汰由单线程执行，并发写入时可能短暂超出容量
+        assertTrue(String.valueOf(cache.size()), cache.size() <= 100 + 8);
+    }
+}
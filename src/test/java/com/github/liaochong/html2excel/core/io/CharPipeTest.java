@@ -0,0 +1,56 @@
+package com.github.liaochong.html2excel.core.io;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * CharPipe Tester.
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class CharPipeTest {
+
+    @Test
+    public void testTransfer() throws Exception {
+        CharPipe pipe = new CharPipe(7, 2);
+        CompletableFuture<Void> writing = CompletableFuture.runAsync(() -> {
+            try (Writer writer = pipe.writer()) {
+                for (int i = 0; i < 1000; i++) {
+                    writer.write("line" + i + "\n");
+                }
+                writer.write('!');
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        StringBuilder result = new StringBuilder();
+        try (Reader reader = pipe.reader()) {
+            char[] buffer = new char[5];
+            int n;
+            while ((n = reader.read(buffer)) != -1) {
+                result.append(buffer, 0, n);
+            }
+            assertEquals(-1, reader.read());
+        }
+        writing.join();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            expected.append("line").append(i).append('\n');
+        }
+        assertEquals(expected.append('!').toString(), result.toString());
+    }
+
+    @Test(expected = IOException.class)
+    public void testWriteAfterReaderClosed() throws Exception {
+        CharPipe pipe = new CharPipe(4, 1);
+        pipe.reader().close();
+        pipe.writer().write("abcdefghij");
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.liaochong.html2excel.core.io;
+
+import org.apache.poi.util.TempFile;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SpillableBuffer Tester.
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class SpillableBufferTest {
+
+    @Test
+    public void testSpill() throws Exception {
+        byte[] expected = new byte[1000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = (byte) i;
+        }
+        SpillableBuffer buffer = new SpillableBuffer(100);
+        buffer.write(expected, 0, 60);
+        assertFalse(buffer.isSpilled());
+        buffer.write(expected, 60, 40);
+        assertFalse(buffer.isSpilled());
+        buffer.write(expected[100]);
+        assertTrue(buffer.isSpilled());
+        buffer.write(expected, 101, 899);
+        assertEquals(1000, buffer.size());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        buffer.writeTo(out);
+        assertArrayEquals(expected, out.toByteArray());
+        try (InputStream in = buffer.getInputStream()) {
+            assertEquals(0, in.read());
+        }
+        try (Stream<Path> files = Files.list(TempFileOperator.getWorkDirectory())) {
+            assertTrue(files.anyMatch(path -> path.getFileName().toString().startsWith("buffer_")));
+        }
+        buffer.close();
+        try (Stream<Path> files = Files.list(TempFileOperator.getWorkDirectory())) {
+            assertFalse(files.anyMatch(path -> path.getFileName().toString().startsWith("buffer_")));
+        }
+    }
+
+    @Test
+    public void testInMemory() throws Exception {
+        try (SpillableBuffer buffer = new SpillableBuffer()) {
+            buffer.write("html2excel".getBytes(StandardCharsets.UTF_8));
+            assertFalse(buffer.isSpilled());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            buffer.writeTo(out);
+            assertEquals("html2excel", new String(out.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testCleanOrphans() throws IOException {
+        Path root = Files.createTempDirectory("html2excel-test");
+        Path orphan = Files.createDirectory(root.resolve("jvm-orphan"));
+        Files.createFile(orphan.resolve(".lock"));
+        Files.createFile(orphan.resolve("buffer_1.tmp"));
+        // 同一进程内其他类加载器的工作目录，不打开其锁文件
+        String processPrefix = TempFileOperator.getWorkDirectory().getFileName().toString().replaceAll("[^-]+$", "");
+        Path sibling = Files.createDirectory(root.resolve(processPrefix + "sibling"));
+        Files.createFile(sibling.resolve(".lock"));
+
+        TempFileOperator.cleanOrphans(root);
+        assertFalse(Files.exists(orphan));
+        assertTrue(Files.exists(sibling));
+        Files.delete(sibling.resolve(".lock"));
+        Files.delete(sibling);
+        Files.delete(root);
+    }
+
+    @Test
+    public void testReplaceTempDirectory() throws IOException {
+        Path root = Files.createTempDirectory("html2excel-test");
+        TempFileOperator.setTempDirectory(root.resolve("first"));
+        Path first = TempFileOperator.getWorkDirectory();
+        try (SpillableBuffer buffer = new SpillableBuffer(0)) {
+            buffer.write(1);
+            TempFileOperator.setTempDirectory(root.resolve("second"));
+            Path second = TempFileOperator.getWorkDirectory();
+            // 原工作目录仍有临时文件，保留目录但释放锁
+            assertTrue(Files.exists(first));
+            assertFalse(Files.exists(first.resolve(".lock")));
+            assertEquals(1, buffer.size());
+
+            TempFileOperator.setTempDirectory(root.resolve("third"));
+            assertFalse(Files.exists(second));
+        }
+    }
+
+    @Test
+    public void testRoutePoiTempFiles() throws IOException {
+        TempFileOperator.routePoiTempFiles(true);
+        try {
+            File file = TempFile.createTempFile("poi", ".tmp");
+            assertTrue(file.toPath().startsWith(TempFileOperator.getWorkDirectory()));
+            Files.delete(file.toPath());
+        } finally {
+            TempFileOperator.routePoiTempFiles(false);
+        }
+        File file = TempFile.createTempFile("poi", ".tmp");
+        assertFalse(file.toPath().startsWith(TempFileOperator.getWorkDirectory()));
+        Files.delete(file.toPath());
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.liaochong.html2excel.core.jfr;
+
+import com.github.liaochong.html2excel.core.FreemarkerExcelBuilder;
+import com.github.liaochong.html2excel.core.HtmlToExcelFactory;
+import com.github.liaochong.html2excel.core.io.SpillableBuffer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * JfrEvents Tester.
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class JfrEventsTest {
+
+    @Test
+    public void testRecording() throws Exception {
+        Assume.assumeTrue(JfrEvents.isAvailable());
+        Path file = Files.createTempFile("html2excel", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : new String[]{"Parse", "SheetBuild", "StyleRegistryGrowth", "MergedRegion", "SxssfFlush", "TempFileSpill"}) {
+                recording.enable(JfrEvents.NAME_PREFIX + name).withoutThreshold();
+            }
+            recording.start();
+
+            HtmlToExcelFactory.readHtml("<table><caption>jfr</caption><tr><td rowspan=\"2\" style=\"color:red\">a</td><td>b</td></tr>"
+                    + "<tr><td>c</td></tr></table>").build();
+            Map<String, Object> data = new HashMap<>();
+            data.put("rows", IntStream.range(0, 10).boxed().collect(Collectors.toList()));
+            new FreemarkerExcelBuilder().template("/templates/rows.ftl").build(data, new ByteArrayOutputStream());
+            try (SpillableBuffer buffer = new SpillableBuffer(4)) {
+                buffer.write(new byte[3]);
+                buffer.write(new byte[8]);
+            }
+
+            recording.stop();
+            recording.dump(file);
+        }
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            Map<String, List<RecordedEvent>> byName = events.stream()
+                    .collect(Collectors.groupingBy(e -> e.getEventType().getName().substring(JfrEvents.NAME_PREFIX.length())));
+
+            RecordedEvent merged = byName.get("MergedRegion").get(0);
+            assertEquals("jfr", merged.getString("sheetName"));
+            assertEquals(0, merged.getInt("tableIndex"));
+            assertEquals(1, merged.getInt("lastRow"));
+            assertEquals(1, merged.getInt("regionCount"));
+
+            RecordedEvent sheet = byName.get("SheetBuild").stream()
+                    .filter(e -> "jfr".equals(e.getString("sheetName"))).findFirst().get();
+            assertEquals(2, sheet.getInt("rowCount"));
+            assertEquals(1, sheet.getInt("mergedRegionCount"));
+
+            assertTrue(byName.get("Parse").stream().anyMatch(e -> e.getBoolean("streaming") && e.getLong("rowCount") == 11));
+            assertTrue(byName.get("StyleRegistryGrowth").size() >= 2);
+            assertTrue(byName.get("SxssfFlush").size() >= 11);
+            assertEquals(3, byName.get("TempFileSpill").get(0).getLong("bytes"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.liaochong.html2excel.core.parallel;
+
+import com.github.liaochong.html2excel.exception.ExcelBuildException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * OrderedPipeline Tester.
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class OrderedPipelineTest {
+
+    @Test
+    public void testKeepSourceOrder() {
+        List<Integer> source = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+        List<String> result = new ArrayList<>();
+        new OrderedPipeline<Integer, String>(String::valueOf, DefaultExecutors.shared(), 7, 4)
+                .run(source.iterator(), result::add);
+
+        assertEquals(source.stream().map(String::valueOf).collect(Collectors.toList()), result);
+    }
+
+    @Test
+    public void testConvertFailure() {
+        List<Integer> result = new ArrayList<>();
+        try {
+            new OrderedPipeline<Integer, Integer>(i -> {
+                if (i == 50) {
+                    throw new IllegalStateException("bad row");
+                }
+                return i;
+            }, DefaultExecutors.shared(), 10, 2).run(IntStream.range(0, 100).iterator(), result::add);
+        } catch (ExcelBuildException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertEquals(50, result.size());
+            return;
+        }
+        throw new AssertionError("ExcelBuildException expected");
+    }
+
+    @Test
+    public void testSharedExecutorBounded() {
+        Set<String> workers = ConcurrentHashMap.newKeySet();
+        int cores = Runtime.getRuntime().availableProcessors();
+        // 多个导出并发时，工作线程数不超过CPU核数，超出部分由提交线程执行
+        CompletableFuture<?>[] exports = IntStream.range(0, 8).mapToObj(n -> CompletableFuture.runAsync(() ->
+                new OrderedPipeline<Integer, Integer>(i -> {
+                    String name = Thread.currentThread().getName();
+                    if (name.startsWith("html2excel-worker-")) {
+                        workers.add(name);
+                    }
+                    return i;
+                }, DefaultExecutors.shared(), 10, cores << 1).run(IntStream.range(0, 10_000).iterator(), i -> {
+                }), DefaultExecutors.background())).toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(exports).join();
+
+        assertTrue(workers.toString(), workers.size() <= cores);
+    }
+}
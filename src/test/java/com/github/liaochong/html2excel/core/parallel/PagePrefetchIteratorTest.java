@@ -0,0 +1,49 @@
+package com.github.liaochong.html2excel.core.parallel;
+
+import com.github.liaochong.html2excel.exception.ExcelBuildException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * PagePrefetchIterator Tester.
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class PagePrefetchIteratorTest {
+
+    @Test
+    public void testIterateInPageOrder() {
+        List<Integer> result = new ArrayList<>();
+        try (PagePrefetchIterator<Integer> iterator = new PagePrefetchIterator<>(pageIndex ->
+                pageIndex < 3 ? Arrays.asList(pageIndex * 2, pageIndex * 2 + 1) : Collections.emptyList(), 2, DefaultExecutors.background())) {
+            iterator.forEachRemaining(result::add);
+        }
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5), result);
+    }
+
+    @Test
+    public void testPageSupplierFailure() {
+        List<Integer> result = new ArrayList<>();
+        try (PagePrefetchIterator<Integer> iterator = new PagePrefetchIterator<>(pageIndex -> {
+            if (pageIndex == 1) {
+                throw new IllegalStateException("query failed");
+            }
+            return Collections.singletonList(pageIndex);
+        }, 1, DefaultExecutors.background())) {
+            iterator.forEachRemaining(result::add);
+        } catch (ExcelBuildException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertEquals(Collections.singletonList(0), result);
+            return;
+        }
+        throw new AssertionError("ExcelBuildException expected");
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.liaochong.html2excel.core.parser;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * HtmlTableParser Tester.
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class HtmlTableParserTest {
+
+    @Test
+    public void testAdjustTdPosition() {
+        // 第二行同时被两个跨行单元格占用，第三行被跨行且跨列的单元格占用
+        String html = "<table>"
+                + "<tr><td>a</td><td rowspan=\"2\">b</td><td>c</td><td rowspan=\"2\">d</td><td>e</td></tr>"
+                + "<tr><td>f</td><td colspan=\"2\" rowspan=\"2\">g</td><td>h</td></tr>"
+                + "<tr><td>i</td><td>j</td><td>k</td></tr>"
+                + "</table>";
+        Table table = HtmlTableParser.of(html).getAllTable().get(0);
+        List<Tr> trList = table.getTrList();
+
+        List<Td> second = trList.get(1).getTdList();
+        assertEquals(0, second.get(0).getCol());
+        assertEquals(2, second.get(1).getCol());
+        assertEquals(3, second.get(1).getColBound());
+        assertEquals(4, second.get(2).getCol());
+
+        List<Td> third = trList.get(2).getTdList();
+        assertEquals(0, third.get(0).getCol());
+        assertEquals(1, third.get(1).getCol());
+        assertEquals(4, third.get(2).getCol());
+        assertEquals(5, table.getLastColumnNum());
+        // 列宽按调整后的列记录
+        assertEquals(trList.get(2).getColWidthMap().keySet(), new HashSet<>(Arrays.asList(0, 1, 4)));
+    }
+}
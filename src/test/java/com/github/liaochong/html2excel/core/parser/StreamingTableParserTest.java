@@ -0,0 +1,111 @@
+package com.github.liaochong.html2excel.core.parser;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * StreamingTableParser Tester.
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class StreamingTableParserTest {
+
+    @Test
+    public void testParse() throws Exception {
+        String html = "<!doctype html><html><head><style>td { color: red }</style>"
+                + "<script>var s = '<table><tr><td>x</td></tr></table>';</script></head><body>"
+                + "<!-- <table> -->"
+                + "<table style=\"font-size: 14\"><caption>  订单 </caption>"
+                + "<tbody style='text-align:center'>"
+                + "<tr><th rowspan=\"2\">A</th><td colspan=2>B &amp; C</td>"
+                + "<tr><td>D<br>E</td><td style=\"color:red\">F"
+                + "<tr><td>G</td></tr>"
+                + "</tbody></table><table><tr><td>second</td></tr></table></body></html>";
+        List<Table> tables = new ArrayList<>();
+        List<Tr> rows = new ArrayList<>();
+        StreamingTableParser.parse(new StringReader(html), new StreamingTableParser.Handler() {
+            @Override
+            public void startTable(Table table) {
+                tables.add(table);
+            }
+
+            @Override
+            public void row(Tr tr) {
+                rows.add(tr);
+            }
+
+            @Override
+            public void endTable(Table table) {
+                assertTrue(tables.contains(table));
+            }
+        });
+
+        assertEquals(2, tables.size());
+        assertEquals("订单", tables.get(0).getCaption());
+        assertEquals(3, tables.get(0).getLastColumnNum());
+        assertEquals(4, rows.size());
+
+        Td a = rows.get(0).getTdList().get(0);
+        assertTrue(a.isTh());
+        assertEquals(1, a.getRowBound());
+        assertEquals("14", a.getStyle().get("font-size"));
+        assertEquals("center", a.getStyle().get("text-align"));
+        Td bc = rows.get(0).getTdList().get(1);
+        assertEquals("B & C", bc.getContent());
+        assertEquals(1, bc.getCol());
+        assertEquals(2, bc.getColBound());
+
+        Td de = rows.get(1).getTdList().get(0);
+        assertEquals("D E", de.getContent());
+        assertEquals(1, de.getCol());
+        Td f = rows.get(1).getTdList().get(1);
+        assertEquals(2, f.getCol());
+        assertEquals("red", f.getStyle().get("color"));
+
+        assertEquals(0, rows.get(2).getTdList().get(0).getCol());
+        assertEquals(0, rows.get(3).getIndex());
+        assertEquals("second", rows.get(3).getTdList().get(0).getContent());
+    }
+
+    @Test
+    public void testRowsMatchHtmlTableParser() throws Exception {
+        String html = "<table>"
+                + "<tr><td>a</td><td rowspan=\"2\">b</td><td>c</td><td rowspan=\"3\">d</td></tr>"
+                + "<tr><td>e</td><td>f</td></tr>"
+                + "<tr><td colspan=\"2\">g</td></tr>"
+                + "</table>";
+        List<Tr> expected = HtmlTableParser.of(html).getAllTable().get(0).getTrList();
+        List<Tr> rows = new ArrayList<>();
+        StreamingTableParser.parse(new StringReader(html), new StreamingTableParser.Handler() {
+            @Override
+            public void startTable(Table table) {
+            }
+
+            @Override
+            public void row(Tr tr) {
+                rows.add(tr);
+            }
+
+            @Override
+            public void endTable(Table table) {
+            }
+        });
+
+        assertEquals(expected.size(), rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(expected.get(i).getLastColumnNum(), rows.get(i).getLastColumnNum());
+            for (int j = 0; j < rows.get(i).getTdList().size(); j++) {
+                assertEquals(expected.get(i).getTdList().get(j).getCol(), rows.get(i).getTdList().get(j).getCol());
+            }
+        }
+        // 第二行的f位于被跨行占用的b之后，列数不是单元格跨列之和
+        assertEquals(3, rows.get(1).getLastColumnNum());
+    }
+}
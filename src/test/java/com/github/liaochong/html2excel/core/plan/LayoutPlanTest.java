@@ -0,0 +1,116 @@
+package com.github.liaochong.html2excel.core.plan;
+
+import com.github.liaochong.html2excel.core.ExcelEngine;
+import com.github.liaochong.html2excel.core.parser.Table;
+import com.github.liaochong.html2excel.core.parser.Td;
+import com.github.liaochong.html2excel.core.parser.Tr;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * LayoutPlan Tester.
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class LayoutPlanTest {
+
+    private static final String HTML = "<table><caption>${title}</caption>"
+            + "<tr><td rowspan=\"2\">side</td><th style=\"font-weight:bold\">name</th><th>age</th></tr>"
+            + "<tr data-repeat=\"users\"><td style=\"color:red\">${name}</td><td>${age}</td></tr>"
+            + "<tr><td colspan=\"3\">total: ${total}</td></tr></table>";
+
+    @Test
+    public void testBindRepeatBlock() {
+        LayoutPlan layoutPlan = LayoutPlan.compile(HTML);
+
+        Map<String, Object> data = new HashMap<>();
+        List<Map<String, Object>> users = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> user = new HashMap<>();
+            user.put("name", "user" + i);
+            user.put("age", 20 + i);
+            users.add(user);
+        }
+        data.put("users", users);
+        data.put("total", 3);
+        data.put("title", "users");
+
+        Table table = layoutPlan.bind(data).get(0);
+        assertEquals("users", table.getCaption());
+        List<Tr> trList = table.getTrList();
+        assertEquals(5, trList.size());
+
+        // 跨行单元格延伸至重复行块的最后一行
+        Td side = trList.get(0).getTdList().get(0);
+        assertEquals(3, side.getRowBound());
+
+        Td name = trList.get(3).getTdList().get(0);
+        assertEquals(3, name.getRow());
+        assertEquals(1, name.getCol());
+        assertEquals("user2", name.getContent());
+        assertSame(trList.get(1).getTdList().get(0).getStyle(), name.getStyle());
+
+        Td total = trList.get(4).getTdList().get(0);
+        assertEquals(4, total.getRow());
+        assertEquals("total: 3", total.getContent());
+    }
+
+    @Test
+    public void testBindEmptyRepeatBlock() {
+        LayoutPlan layoutPlan = LayoutPlan.compile(HTML);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("users", Collections.emptyList());
+        List<Table> tables = layoutPlan.bind(data);
+
+        List<Tr> trList = tables.get(0).getTrList();
+        assertEquals(2, trList.size());
+        assertEquals(0, trList.get(0).getTdList().get(0).getRowBound());
+        assertEquals(1, trList.get(1).getIndex());
+        assertEquals("total: ", trList.get(1).getTdList().get(0).getContent());
+    }
+
+    @Test
+    public void testBindRowSpanInRepeatBlock() throws IOException {
+        LayoutPlan layoutPlan = LayoutPlan.compile("<table><tr><th>group</th><th>item</th></tr>"
+                + "<tr data-repeat=\"groups\"><td rowspan=\"2\">${name}</td><td>${first}</td></tr>"
+                + "<tr data-repeat=\"groups\"><td>${second}</td></tr></table>");
+
+        Map<String, Object> data = new HashMap<>();
+        List<Map<String, Object>> groups = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> group = new HashMap<>();
+            group.put("name", "group" + i);
+            group.put("first", "a" + i);
+            group.put("second", "b" + i);
+            groups.add(group);
+        }
+        data.put("groups", groups);
+
+        List<Table> tables = layoutPlan.bind(data);
+        List<Tr> trList = tables.get(0).getTrList();
+        assertEquals(7, trList.size());
+        // 每次重复内的跨行单元格只覆盖本次重复的行
+        for (int k = 0; k < 3; k++) {
+            Td name = trList.get(1 + 2 * k).getTdList().get(0);
+            assertEquals("group" + k, name.getContent());
+            assertEquals(1 + 2 * k, name.getRow());
+            assertEquals(2 + 2 * k, name.getRowBound());
+        }
+
+        try (Workbook workbook = ExcelEngine.builder().build().build(tables)) {
+            assertEquals(3, workbook.getSheetAt(0).getNumMergedRegions());
+        }
+    }
+}
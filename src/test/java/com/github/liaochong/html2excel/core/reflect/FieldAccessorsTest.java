@@ -0,0 +1,49 @@
+package com.github.liaochong.html2excel.core.reflect;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * FieldAccessors Tester.
+ *
+ * @author liaochong
+ * @version 1.0
+ */
+public class FieldAccessorsTest {
+
+    @Test
+    public void testGetterAccessor() throws Exception {
+        FieldAccessor accessor = FieldAccessors.of(PublicBean.class.getDeclaredField("age"));
+        assertEquals(18, accessor.get(new PublicBean()));
+        assertEquals(true, FieldAccessors.of(PublicBean.class.getDeclaredField("valid")).get(new PublicBean()));
+        assertSame(accessor, FieldAccessors.of(PublicBean.class.getDeclaredField("age")));
+    }
+
+    @Test
+    public void testFieldAccessor() throws Exception {
+        FieldAccessor accessor = FieldAccessors.of(PrivateBean.class.getDeclaredField("name"));
+        assertEquals("private", accessor.get(new PrivateBean()));
+    }
+
+    public static class PublicBean {
+
+        private int age = 18;
+
+        private boolean valid = true;
+
+        public int getAge() {
+            return age;
+        }
+
+        public boolean isValid() {
+            return valid;
+        }
+    }
+
+    private static class PrivateBean {
+
+        private String name = "private";
+    }
+}
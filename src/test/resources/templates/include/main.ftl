@@ -0,0 +1,3 @@
+<table>
+    <#include "/part.ftl">
+</table>
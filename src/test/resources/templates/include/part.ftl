@@ -0,0 +1,3 @@
+<tr>
+    <td>part</td>
+</tr>
@@ -0,0 +1,16 @@
+<html>
+<body>
+<table>
+    <tr>
+        <th>no</th>
+        <th>name</th>
+    </tr>
+    <#list rows as row>
+    <tr>
+        <td>${row?c}</td>
+        <td>name${row?c}</td>
+    </tr>
+    </#list>
+</table>
+</body>
+</html>